@@ -5,25 +5,34 @@ import com.spacewaltz.decrees.economy.EconomySnapshotS2CPayload;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.MinecraftClient;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Client-side cache of the economy snapshot for the G-key UI:
  * - current balance in raw copper
- * - last N formatted ledger lines
+ * - last N formatted ledger lines, newest first, in a ring buffer of
+ *   {@link EconomySnapshotS2CPayload#MAX_LINES}
+ *
+ * Requests carry the newest transaction id and epoch we hold, so the server only sends the
+ * lines we are missing (or none). Cleared on disconnect.
  */
 public final class ClientEconomyState {
 
     private static long balanceCopper = 0L;
+    private static final ArrayDeque<String> LINES = new ArrayDeque<>(EconomySnapshotS2CPayload.MAX_LINES);
     private static List<String> recentLines = Collections.emptyList();
 
+    private static long lastSeenTxId = 0L;
+    private static long epoch = 0L;
+
     private ClientEconomyState() {
     }
 
     /**
      * Ask the server for a fresh snapshot of our account
-     * (balance + recent transactions).
+     * (balance + recent transactions we have not seen yet).
      */
     public static void requestSnapshot() {
         MinecraftClient client = MinecraftClient.getInstance();
@@ -32,7 +41,7 @@ public final class ClientEconomyState {
         }
 
         // New Fabric custom payload API: just send the payload instance.
-        ClientPlayNetworking.send(new EconomySnapshotRequestC2SPayload());
+        ClientPlayNetworking.send(new EconomySnapshotRequestC2SPayload(lastSeenTxId, epoch));
     }
 
     /**
@@ -40,7 +49,7 @@ public final class ClientEconomyState {
      * an EconomySnapshotS2CPayload.
      */
     public static void handleSnapshot(EconomySnapshotS2CPayload payload) {
-        if (payload == null) {
+        if (payload == null || payload.kind() == null) {
             return;
         }
 
@@ -48,13 +57,47 @@ public final class ClientEconomyState {
         // (Future-proof and matches the G/S/C splitting we do in the UI).
         balanceCopper = Math.max(0L, payload.balanceCopper());
 
-        List<String> lines = payload.recentLines();
-        if (lines == null || lines.isEmpty()) {
-            recentLines = Collections.emptyList();
-        } else {
-            // Make an unmodifiable copy for safety.
-            recentLines = List.copyOf(lines);
+        switch (payload.kind()) {
+            case FULL -> {
+                LINES.clear();
+                addOldest(payload.recentLines());
+            }
+            case DELTA -> {
+                if (payload.epoch() != epoch || payload.sinceTxId() != lastSeenTxId) {
+                    // Answer to a request we have since moved past (two opens in a row);
+                    // ask again from where we are instead of merging lines twice.
+                    if (payload.latestTxId() > lastSeenTxId) {
+                        requestSnapshot();
+                    }
+                    return;
+                }
+                List<String> lines = payload.recentLines();
+                for (int i = lines.size() - 1; i >= 0; i--) {
+                    LINES.addFirst(lines.get(i));
+                    if (LINES.size() > EconomySnapshotS2CPayload.MAX_LINES) {
+                        LINES.removeLast();
+                    }
+                }
+            }
+            case NOT_MODIFIED -> {
+                return;
+            }
         }
+
+        lastSeenTxId = payload.latestTxId();
+        epoch = payload.epoch();
+        recentLines = List.copyOf(LINES);
+    }
+
+    /**
+     * Forgets everything; the next request asks for a full snapshot.
+     */
+    public static void reset() {
+        balanceCopper = 0L;
+        LINES.clear();
+        recentLines = Collections.emptyList();
+        lastSeenTxId = 0L;
+        epoch = 0L;
     }
 
     /**
@@ -65,9 +108,21 @@ public final class ClientEconomyState {
     }
 
     /**
-     * Last formatted ledger lines (already human-readable).
+     * Last formatted ledger lines (already human-readable), newest first.
      */
     public static List<String> getRecentLines() {
         return recentLines;
     }
+
+    private static void addOldest(List<String> lines) {
+        if (lines == null) {
+            return;
+        }
+        for (String line : lines) {
+            if (LINES.size() == EconomySnapshotS2CPayload.MAX_LINES) {
+                break;
+            }
+            LINES.addLast(line);
+        }
+    }
 }
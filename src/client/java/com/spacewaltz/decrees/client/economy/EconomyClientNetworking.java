@@ -1,6 +1,7 @@
 package com.spacewaltz.decrees.client.economy;
 
 import com.spacewaltz.decrees.economy.EconomySnapshotS2CPayload;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 
 /**
@@ -16,5 +17,8 @@ public final class EconomyClientNetworking {
                 EconomySnapshotS2CPayload.ID,
                 (payload, context) -> ClientEconomyState.handleSnapshot(payload)
         );
+
+        // Cached lines belong to this server's ledger; start over on the next one.
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(ClientEconomyState::reset));
     }
 }
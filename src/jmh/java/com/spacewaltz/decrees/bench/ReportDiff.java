@@ -0,0 +1,129 @@
+package com.spacewaltz.decrees.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compares two JMH JSON reports (from {@code ./gradlew jmh}) benchmark by benchmark.
+ *
+ * Usage: {@code ReportDiff <baseline.json> <candidate.json>}. Prints one row per benchmark and
+ * parameter set with both scores, the relative change and whether it got faster or slower;
+ * changes inside the combined error margin are reported as "~".
+ */
+public final class ReportDiff {
+
+    private record Result(String mode, String unit, double score, double error) {
+    }
+
+    private ReportDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ReportDiff <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> candidate = read(Path.of(args[1]));
+
+        Set<String> keys = new TreeSet<>(baseline.keySet());
+        keys.addAll(candidate.keySet());
+
+        int width = keys.stream().mapToInt(String::length).max().orElse(9);
+        System.out.printf(Locale.ROOT, "%-" + width + "s  %22s  %22s  %8s%n",
+                "Benchmark", "Baseline", "Candidate", "Change");
+        for (String key : keys) {
+            Result base = baseline.get(key);
+            Result cand = candidate.get(key);
+            System.out.printf(Locale.ROOT, "%-" + width + "s  %22s  %22s  %s%n",
+                    key, format(base), format(cand), change(base, cand));
+        }
+    }
+
+    /**
+     * Results keyed by "benchmark [param=value, ...]".
+     */
+    private static Map<String, Result> read(Path path) throws IOException {
+        JsonArray runs;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            runs = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonElement element : runs) {
+            JsonObject run = element.getAsJsonObject();
+            String name = run.get("benchmark").getAsString();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+
+            StringBuilder key = new StringBuilder(name);
+            JsonObject params = run.getAsJsonObject("params");
+            if (params != null && !params.isEmpty()) {
+                key.append(" [");
+                boolean first = true;
+                for (Map.Entry<String, JsonElement> param : new TreeMap<>(params.asMap()).entrySet()) {
+                    if (!first) {
+                        key.append(", ");
+                    }
+                    key.append(param.getKey()).append('=').append(param.getValue().getAsString());
+                    first = false;
+                }
+                key.append(']');
+            }
+
+            JsonObject metric = run.getAsJsonObject("primaryMetric");
+            JsonElement error = metric.get("scoreError");
+            results.put(key.toString(), new Result(
+                    run.get("mode").getAsString(),
+                    metric.get("scoreUnit").getAsString(),
+                    metric.get("score").getAsDouble(),
+                    error == null || !error.isJsonPrimitive() || Double.isNaN(error.getAsDouble()) ? 0 : error.getAsDouble()
+            ));
+        }
+        return results;
+    }
+
+    private static String format(Result result) {
+        if (result == null) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.3f \u00b1 %.3f %s", result.score, result.error, result.unit);
+    }
+
+    private static String change(Result base, Result cand) {
+        if (base == null || cand == null) {
+            return cand == null ? "removed" : "new";
+        }
+        if (!base.mode.equals(cand.mode) || !base.unit.equals(cand.unit)) {
+            return "mode/unit changed";
+        }
+        if (base.score == 0) {
+            return "n/a";
+        }
+
+        double percent = (cand.score - base.score) / base.score * 100.0;
+        String verdict;
+        if (Math.abs(cand.score - base.score) <= base.error + cand.error) {
+            verdict = "~";
+        } else {
+            // Throughput is better when higher; every time-per-op mode when lower.
+            boolean higherIsBetter = base.mode.equals("thrpt");
+            verdict = (cand.score > base.score) == higherIsBetter ? "faster" : "slower";
+        }
+        return String.format(Locale.ROOT, "%+7.1f%%  %s", percent, verdict);
+    }
+}
@@ -0,0 +1,199 @@
+package com.spacewaltz.decrees.bench;
+
+import com.spacewaltz.decrees.decree.Decree;
+import com.spacewaltz.decrees.decree.DecreeStatus;
+import com.spacewaltz.decrees.decree.DecreeStore;
+import com.spacewaltz.decrees.decree.VoteChoice;
+import com.spacewaltz.decrees.economy.EconomyAccount;
+import com.spacewaltz.decrees.economy.EconomyConfig;
+import com.spacewaltz.decrees.economy.EconomyService;
+import com.spacewaltz.decrees.economy.EconomyStore;
+import com.spacewaltz.decrees.economy.TransactionType;
+import com.spacewaltz.decrees.guilds.GuildStore;
+import com.spacewaltz.decrees.storage.DataPaths;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Builds reproducible economy, guild and decree data sets for the benchmarks.
+ *
+ * Everything goes through the normal store APIs into a scratch data directory
+ * ({@code decrees.dataDir}, a fresh temp directory unless set), and the economy is
+ * reloaded from disk afterwards so the benchmarks start from the same state a restarted
+ * server would: archived segments, rebuilt indexes, a short journal. The same seed gives
+ * the same data set, so reports from two versions are comparable.
+ */
+public final class SyntheticData {
+
+    /**
+     * Amount every generated account starts with; large enough that no benchmark transfer runs dry.
+     */
+    public static final int OPENING_BALANCE_COPPER = 1_000_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    static {
+        if (System.getProperty(DataPaths.DATA_DIR_PROPERTY) == null) {
+            try {
+                Path dir = Files.createTempDirectory("decrees-bench");
+                System.setProperty(DataPaths.DATA_DIR_PROPERTY, dir.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A generated economy: player UUIDs and their accounts, by index.
+     */
+    public static final class Economy {
+        public final UUID[] players;
+        public final EconomyAccount[] accounts;
+
+        Economy(UUID[] players, EconomyAccount[] accounts) {
+            this.players = players;
+            this.accounts = accounts;
+        }
+    }
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Empties the data directory. Call before any store is loaded.
+     */
+    public static void reset() {
+        Path dir = Storage.backend().directory();
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (!path.equals(dir)) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code accounts} funded player accounts and {@code transactions} random payments between them
+     * (1 to 100 copper, recorded in batches), then a checkpoint and a reload.
+     */
+    public static Economy economy(int accounts, int transactions, long seed) {
+        reset();
+        EconomyConfig.load();
+        EconomyStore.load();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        UUID[] players = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+            EconomyService.mint(EconomyService.getOrCreatePlayerAccount(players[i]), OPENING_BALANCE_COPPER,
+                    "Synthetic opening balance");
+        }
+
+        String[] descriptions = {
+                "Player payment via /money pay.",
+                "Guild deposit into treasury via /guild deposit.",
+                "Market stall rent"
+        };
+        List<EconomyService.Leg> legs = new ArrayList<>(BATCH_SIZE);
+        for (int done = accounts; done < transactions; ) {
+            legs.clear();
+            int n = Math.min(BATCH_SIZE, transactions - done);
+            for (int i = 0; i < n; i++) {
+                EconomyAccount from = account(players[random.nextInt(accounts)]);
+                EconomyAccount to = account(players[random.nextInt(accounts)]);
+                legs.add(EconomyService.Leg.transfer(from, to, 1 + random.nextInt(100),
+                        TransactionType.PLAYER_PAYMENT, descriptions[random.nextInt(descriptions.length)]));
+            }
+            if (EconomyService.transferBatch(legs) < 0) {
+                throw new IllegalStateException("Synthetic batch was rejected");
+            }
+            done += n;
+        }
+
+        // Start from what a restarted server would see.
+        EconomyStore.save();
+        EconomyStore.load();
+
+        EconomyAccount[] loaded = new EconomyAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            loaded[i] = account(players[i]);
+        }
+        return new Economy(players, loaded);
+    }
+
+    /**
+     * {@code count} guilds named "Guild 0" .. "Guild n-1", each with a leader and a treasury account.
+     *
+     * @return the guild names, by index.
+     */
+    public static String[] guilds(int count, long seed) {
+        reset();
+        EconomyConfig.load();
+        EconomyStore.load();
+        GuildStore.load();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "Guild " + i;
+            GuildStore.createGuild(names[i], "G" + i, new UUID(random.nextLong(), random.nextLong()));
+        }
+        return names;
+    }
+
+    /**
+     * {@code count} decrees in a realistic mix: mostly settled, about 10% voting with a closing
+     * time a day away (so an auto-close tick scans them without resolving any), the rest drafts.
+     */
+    public static void decrees(int count, long seed) {
+        reset();
+        DecreeStore.load();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            Decree decree = DecreeStore.createDecree("Decree " + i, "seat_" + random.nextInt(6));
+            int roll = random.nextInt(100);
+            if (roll < 10) {
+                decree.status = DecreeStatus.VOTING;
+                decree.votingOpenedAt = now;
+                decree.votingClosesAt = now + 86_400_000L;
+                for (int v = random.nextInt(6); v > 0; v--) {
+                    decree.votes.put("seat_" + v, VoteChoice.values()[random.nextInt(VoteChoice.values().length)]);
+                }
+            } else if (roll < 55) {
+                decree.status = DecreeStatus.ENACTED;
+            } else if (roll < 90) {
+                decree.status = DecreeStatus.REJECTED;
+            }
+        }
+    }
+
+    /**
+     * Writes whatever the benchmark left unsaved, as a server shutdown would.
+     */
+    public static void shutdown() {
+        PersistenceScheduler.flushAll();
+    }
+
+    private static EconomyAccount account(UUID player) {
+        return EconomyService.getOrCreatePlayerAccount(player);
+    }
+}
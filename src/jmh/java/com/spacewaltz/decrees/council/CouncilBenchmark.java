@@ -0,0 +1,53 @@
+package com.spacewaltz.decrees.council;
+
+import com.spacewaltz.decrees.bench.SyntheticData;
+import com.spacewaltz.decrees.decree.VotingRulesConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-tick decree auto-close check. Nothing is due, so this is the cost every server
+ * tick pays just to find that out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouncilBenchmark {
+
+    @Param({"50000"})
+    public int decrees;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticData.decrees(decrees, 42L);
+        CouncilConfig.load();
+        VotingRulesConfig.load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticData.shutdown();
+    }
+
+    @Benchmark
+    public void tickAutoClose() {
+        // No decree is due, so the server is never touched.
+        CouncilCommands.tickAutoClose(null);
+    }
+}
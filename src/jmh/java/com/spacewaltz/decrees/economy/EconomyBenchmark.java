@@ -0,0 +1,86 @@
+package com.spacewaltz.decrees.economy;
+
+import com.spacewaltz.decrees.bench.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Economy hot paths over a generated ledger: a /money pay transfer, the account lookup every
+ * economy command starts with, and the G-key panel's recent ledger lines, both formatted from
+ * scratch and served from the line cache on a repeated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EconomyBenchmark {
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    @Param({"1000000"})
+    public int transactions;
+
+    private SyntheticData.Economy economy;
+    private EconomyConfigData config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        economy = SyntheticData.economy(accounts, transactions, 42L);
+        config = EconomyConfig.get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticData.shutdown();
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return EconomyService.transfer(
+                economy.accounts[random.nextInt(accounts)],
+                economy.accounts[random.nextInt(accounts)],
+                1,
+                TransactionType.PLAYER_PAYMENT,
+                "Player payment via /money pay."
+        );
+    }
+
+    @Benchmark
+    public EconomyAccount getOrCreatePlayerAccount() {
+        return EconomyService.getOrCreatePlayerAccount(
+                economy.players[ThreadLocalRandom.current().nextInt(accounts)]);
+    }
+
+    @Benchmark
+    public List<String> buildLedgerLinesForAccount() {
+        EconomyAccount account = economy.accounts[ThreadLocalRandom.current().nextInt(accounts)];
+        return EconomyNetworking.buildLedgerLinesForAccount(null, account.id, 10, config, EconomyStore.get());
+    }
+
+    @Benchmark
+    public List<String> ledgerLinesCached() {
+        // Accounts that fit in the cache, so repeated requests hit it as they do in play.
+        int bound = Math.min(accounts, LedgerLineCache.MAX_ACCOUNTS);
+        EconomyAccount account = economy.accounts[ThreadLocalRandom.current().nextInt(bound)];
+        return EconomyNetworking.ledgerLinesFor(null, account.id, 10, config, EconomyStore.get());
+    }
+}
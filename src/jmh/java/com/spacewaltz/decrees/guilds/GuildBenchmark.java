@@ -0,0 +1,61 @@
+package com.spacewaltz.decrees.guilds;
+
+import com.spacewaltz.decrees.bench.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guild lookup by name, as done by /guild info, /vox guild and the guild:&lt;name&gt; account argument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GuildBenchmark {
+
+    @Param({"10000"})
+    public int guilds;
+
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = SyntheticData.guilds(guilds, 42L);
+        for (int i = 0; i < names.length; i += 2) {
+            // Players rarely type the exact case.
+            names[i] = names[i].toUpperCase(Locale.ROOT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticData.shutdown();
+    }
+
+    @Benchmark
+    public Guild findByNameHit() {
+        return GuildStore.findByName(names[ThreadLocalRandom.current().nextInt(guilds)]);
+    }
+
+    @Benchmark
+    public Guild findByNameMiss() {
+        return GuildStore.findByName("No Such Guild " + ThreadLocalRandom.current().nextInt(guilds));
+    }
+}
@@ -2,7 +2,7 @@ package com.spacewaltz.decrees;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -19,11 +19,7 @@ public class DecreesConfig {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve("decrees_of_the_six");
-
-    private static final Path CONFIG_PATH = CONFIG_DIR.resolve("decrees_config.json");
+    private static final String CONFIG_NAME = "decrees_config.json";
 
     private static DecreesConfigData INSTANCE;
 
@@ -35,19 +31,28 @@ public class DecreesConfig {
     }
 
     public static void load() {
+        Path configPath = configPath();
+        if (configPath == null) {
+            // No config directory (in-memory storage): keep what is already set.
+            if (INSTANCE == null) {
+                INSTANCE = new DecreesConfigData();
+            }
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            if (!Files.exists(CONFIG_PATH)) {
+            if (!Files.exists(configPath)) {
                 // First time: write defaults
                 INSTANCE = new DecreesConfigData();
                 save();
                 return;
             }
 
-            try (Reader reader = Files.newBufferedReader(CONFIG_PATH)) {
+            try (Reader reader = Files.newBufferedReader(configPath)) {
                 DecreesConfigData data = GSON.fromJson(reader, DecreesConfigData.class);
                 if (data == null) {
                     data = new DecreesConfigData();
@@ -63,16 +68,29 @@ public class DecreesConfig {
     public static void save() {
         if (INSTANCE == null) return;
 
+        Path configPath = configPath();
+        if (configPath == null) {
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            try (Writer writer = Files.newBufferedWriter(CONFIG_PATH)) {
+            try (Writer writer = Files.newBufferedWriter(configPath)) {
                 GSON.toJson(INSTANCE, writer);
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Where the config lives in the storage backend's directory, or null if it has none.
+     */
+    private static Path configPath() {
+        Path dir = Storage.backend().directory();
+        return dir != null ? dir.resolve(CONFIG_NAME) : null;
+    }
 }
@@ -18,4 +18,21 @@ public class DecreesConfigData {
      * Console is always treated as allowed.
      */
     public boolean opsOnly = false;
+
+    /**
+     * Maximum time, in seconds, a change to guilds.json or decrees.json may wait
+     * before the background writer saves it.
+     */
+    public int saveIntervalSeconds = 10;
+
+    /**
+     * Number of unsaved changes that triggers a background save before the interval elapses.
+     */
+    public int saveDirtyThreshold = 50;
+
+    /**
+     * Write data files (economy.json, guilds.json, decrees.json, decree_history.json)
+     * without indentation. Smaller and faster to write; harder to read by hand.
+     */
+    public boolean compactDataFiles = false;
 }
@@ -16,9 +16,12 @@ import com.spacewaltz.decrees.economy.EconomyConfig;
 import com.spacewaltz.decrees.economy.EconomyNetworking;
 import com.spacewaltz.decrees.economy.EconomyService;
 import com.spacewaltz.decrees.economy.EconomyStore;
+import com.spacewaltz.decrees.economy.RecurringPayments;
 import com.spacewaltz.decrees.guilds.GuildCommands;
 import com.spacewaltz.decrees.guilds.GuildNetworking;
 import com.spacewaltz.decrees.guilds.GuildStore;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
@@ -48,9 +51,15 @@ public class DecreesOfTheSix implements ModInitializer {
 
         // ---- Economy config & data ----
         EconomyConfig.load();   // economy_config.json
+        Storage.select(EconomyConfig.get().storageBackend); // json files or embedded database
         EconomyStore.load();    // economy.json (accounts + transactions)
+        RecurringPayments.load(); // recurring_payments.json (scheduled payments)
         EconomyNetworking.init();
 
+        // Remember every joining player's current name for ledger lines, the leaderboard and guild views
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) ->
+                PlayerNames.remember(handler.getPlayer().getGameProfile()));
+
         // Create a money account for each player on first join (if economy enabled)
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             if (!EconomyConfig.get().enabled) {
@@ -95,6 +104,15 @@ public class DecreesOfTheSix implements ModInitializer {
                 CouncilCommands.tickAutoClose(server)
         );
 
+        // ---- Recurring payments (timer wheel; one batch per tick with anything due) ----
+        ServerTickEvents.END_SERVER_TICK.register(RecurringPayments::tick);
+
+        // ---- Transfer tax (withheld tax paid into the Treasury in one transaction per interval) ----
+        ServerTickEvents.END_SERVER_TICK.register(server -> EconomyService.tickTransferTax());
+
+        // ---- Write-behind persistence (coalesced background saves) ----
+        ServerTickEvents.END_SERVER_TICK.register(PersistenceScheduler::tick);
+
         // ---- Council-member join reminder (pending votes) ----
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             ServerPlayerEntity player = handler.getPlayer();
@@ -142,8 +160,9 @@ public class DecreesOfTheSix implements ModInitializer {
 
         // ---- Save stores on clean shutdown ----
         ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
-            EconomyStore.save();
-            GuildStore.save();
+            PersistenceScheduler.flushAll();
+            Storage.backend().close();
+            PlayerNames.clear();
         });
 
 
@@ -0,0 +1,121 @@
+package com.spacewaltz.decrees;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.UserCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Player names by UUID for ledger lines, leaderboards and guild views.
+ *
+ * Filled when a player joins and, on a miss, from the server's user cache, which is then
+ * asked only once per UUID: players it does not know are remembered as unknown until they
+ * join. A join replaces whatever was cached, so a renamed player shows the new name from
+ * their next login. Bounded LRU of {@link #MAX_NAMES} entries; lookups are O(1). Thread-safe.
+ *
+ * Caches of text built from these names compare {@link #generation()}, which changes
+ * whenever a known name does.
+ */
+public final class PlayerNames {
+
+    static final int MAX_NAMES = 4096;
+
+    /**
+     * Cached "not in the user cache" result.
+     */
+    private static final String UNKNOWN = "";
+
+    private static final Map<UUID, String> NAMES = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+            return size() > MAX_NAMES;
+        }
+    };
+
+    private static volatile long generation = 0L;
+
+    private PlayerNames() {
+    }
+
+    /**
+     * Changes when a cached name is replaced (a rename, or a player the user cache did not
+     * know joins) and when the cache is cleared; adding a new name does not change it.
+     */
+    public static long generation() {
+        return generation;
+    }
+
+    /**
+     * Records the name a player joined with. Called from JOIN.
+     */
+    public static void remember(GameProfile profile) {
+        if (profile == null || profile.getId() == null || profile.getName() == null) {
+            return;
+        }
+        synchronized (NAMES) {
+            String previous = NAMES.put(profile.getId(), profile.getName());
+            if (previous != null && !previous.equals(profile.getName())) {
+                generation++;
+            }
+        }
+    }
+
+    /**
+     * The player's name, or null if neither a join nor the user cache has told us.
+     */
+    public static String get(MinecraftServer server, UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        synchronized (NAMES) {
+            String cached = NAMES.get(uuid);
+            if (cached != null) {
+                return cached.isEmpty() ? null : cached;
+            }
+        }
+
+        // Outside the lock: the user cache has its own.
+        UserCache userCache = server != null ? server.getUserCache() : null;
+        if (userCache == null) {
+            return null;
+        }
+        GameProfile profile = userCache.getByUuid(uuid).orElse(null);
+        String name = profile != null && profile.getName() != null ? profile.getName() : UNKNOWN;
+        synchronized (NAMES) {
+            // A join in the meantime wins.
+            String raced = NAMES.putIfAbsent(uuid, name);
+            if (raced != null) {
+                name = raced;
+            }
+        }
+        return name.isEmpty() ? null : name;
+    }
+
+    /**
+     * {@link #get(MinecraftServer, UUID)} for a UUID string such as an account's ownerId;
+     * null if it is not a UUID.
+     */
+    public static String get(MinecraftServer server, String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        try {
+            return get(server, UUID.fromString(uuid));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forgets everything, e.g. when the server stops.
+     */
+    public static void clear() {
+        synchronized (NAMES) {
+            NAMES.clear();
+            generation++;
+        }
+    }
+}
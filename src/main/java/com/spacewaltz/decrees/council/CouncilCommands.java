@@ -6,6 +6,7 @@ import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.spacewaltz.decrees.PlayerNames;
 import com.spacewaltz.decrees.decree.Decree;
 import com.spacewaltz.decrees.decree.DecreeHistoryLogger;
 import com.spacewaltz.decrees.decree.DecreeStatus;
@@ -480,19 +481,8 @@ public class CouncilCommands {
         for (SeatDefinition seat : data.seats) {
             String holderStr = "§8<empty>";
             if (seat.holderUuid != null) {
-                var server = src.getServer();
-                var userCache = server.getUserCache();
-
-                if (userCache != null) {
-                    var profileOpt = userCache.getByUuid(seat.holderUuid);
-                    if (profileOpt.isPresent()) {
-                        holderStr = "§a" + profileOpt.get().getName();
-                    } else {
-                        holderStr = "§a" + seat.holderUuid.toString();
-                    }
-                } else {
-                    holderStr = "§a" + seat.holderUuid.toString();
-                }
+                String holderName = PlayerNames.get(src.getServer(), seat.holderUuid);
+                holderStr = "§a" + (holderName != null ? holderName : seat.holderUuid.toString());
             }
             Messenger.line(src, " §e- " + seat.id + " §7(" + seat.displayName + ")§r: " + holderStr);
         }
@@ -1722,7 +1712,7 @@ public class CouncilCommands {
             return 0;
         }
 
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aDeleted decree §e#" + id + "§a (DRAFT).");
         return 1;
     }
@@ -1790,7 +1780,7 @@ public class CouncilCommands {
         }
 
         d.title = newTitle;
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aUpdated title of decree §e#" + id + "§a.");
         return 1;
     }
@@ -1811,7 +1801,7 @@ public class CouncilCommands {
         }
 
         d.description = newDescription;
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aUpdated description of decree §e#" + id + "§a.");
         return 1;
     }
@@ -1832,7 +1822,7 @@ public class CouncilCommands {
         }
 
         d.category = newCategory;
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aUpdated category of decree §e#" + id + "§a.");
         return 1;
     }
@@ -1853,7 +1843,7 @@ public class CouncilCommands {
         }
 
         d.expiresAt = null;
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aCleared expiry for decree §e#" + id + "§a.");
         return 1;
     }
@@ -1877,7 +1867,7 @@ public class CouncilCommands {
         long millis = days * 86_400_000L;
         d.expiresAt = now + millis;
 
-        DecreeStore.save();
+        DecreeStore.markDirty();
         Messenger.info(src, "§aSet expiry of decree §e#" + id + "§a to about " + days + " day(s) from now.");
         return 1;
     }
@@ -1913,6 +1903,7 @@ public class CouncilCommands {
 
         // Record vote
         d.votes.put(seat.id, choice);
+        DecreeStore.markDirty();
 
         CouncilConfigData cfg = CouncilConfig.get();
         var activeSeats = cfg.seats.stream()
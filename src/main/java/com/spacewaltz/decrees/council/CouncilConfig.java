@@ -3,10 +3,10 @@ package com.spacewaltz.decrees.council;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.spacewaltz.decrees.DecreesOfTheSix;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.DurableFiles;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -22,11 +22,7 @@ public final class CouncilConfig {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
-
-    private static final Path COUNCIL_PATH = CONFIG_DIR.resolve("council.json");
+    private static final String COUNCIL_NAME = "council.json";
 
     private static CouncilConfigData CURRENT = defaultConfig();
 
@@ -48,12 +44,18 @@ public final class CouncilConfig {
      * Load council.json from disk, validate, and fall back safely if anything is wrong.
      */
     public static synchronized void load() {
+        Path councilPath = councilPath();
+        if (councilPath == null) {
+            // No config directory (in-memory storage): keep the seats set up in memory.
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(councilPath.getParent())) {
+                Files.createDirectories(councilPath.getParent());
             }
 
-            if (!Files.exists(COUNCIL_PATH)) {
+            if (!DurableFiles.exists(councilPath)) {
                 // First run → generate a template.
                 CouncilConfigData template = defaultConfig();
                 template.decreesEnabled = false;
@@ -67,17 +69,15 @@ public final class CouncilConfig {
                 DecreesOfTheSix.LOGGER.warn(
                         "[Decrees] council.json was missing; a template has been generated at {}. " +
                                 "Edit seats & set \"decreesEnabled\": true when ready.",
-                        COUNCIL_PATH.toAbsolutePath()
+                        councilPath.toAbsolutePath()
                 );
                 return;
             }
 
-            String json = Files.readString(COUNCIL_PATH, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) {
-                throw new IllegalStateException("council.json is empty");
-            }
-
-            CouncilConfigData loaded = GSON.fromJson(json, CouncilConfigData.class);
+            CouncilConfigData loaded = DurableFiles.read(
+                    councilPath,
+                    reader -> GSON.fromJson(reader, CouncilConfigData.class)
+            );
             if (loaded == null) {
                 throw new IllegalStateException("council.json parsed as null");
             }
@@ -105,19 +105,32 @@ public final class CouncilConfig {
     }
 
     private static void saveInternal(CouncilConfigData data) {
+        Path councilPath = councilPath();
+        if (councilPath == null) {
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(councilPath.getParent())) {
+                Files.createDirectories(councilPath.getParent());
             }
             String json = GSON.toJson(data);
-            Files.writeString(COUNCIL_PATH, json, StandardCharsets.UTF_8);
+            DurableFiles.writeString(councilPath, json);
         } catch (IOException e) {
             DecreesOfTheSix.LOGGER.error(
-                    "[Decrees] Failed to save council.json to " + COUNCIL_PATH, e
+                    "[Decrees] Failed to save council.json to " + councilPath, e
             );
         }
     }
 
+    /**
+     * Where council.json lives in the storage backend's directory, or null if it has none.
+     */
+    private static Path councilPath() {
+        Path dir = Storage.backend().directory();
+        return dir != null ? dir.resolve(COUNCIL_NAME) : null;
+    }
+
     /**
      * Basic sanity checks & normalisation:
      * - ensures seats list is non-null
@@ -6,13 +6,11 @@ import com.google.gson.reflect.TypeToken;
 import com.spacewaltz.decrees.DecreesOfTheSix;
 import com.spacewaltz.decrees.council.CouncilConfig;
 import com.spacewaltz.decrees.council.CouncilConfigData;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.JsonFiles;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,11 +24,7 @@ public class DecreeHistoryLogger {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
-
-    private static final Path HISTORY_PATH = CONFIG_DIR.resolve("decree_history.json");
+    private static final String HISTORY_NAME = "decree_history.json";
 
     private static final Type LIST_TYPE =
             new TypeToken<List<DecreeHistoryEntry>>() {}.getType();
@@ -44,48 +38,33 @@ public class DecreeHistoryLogger {
 
     private static void loadHistory() {
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-
-            if (!Files.exists(HISTORY_PATH)) {
+            if (!Storage.backend().exists(HISTORY_NAME)) {
                 HISTORY = new ArrayList<>();
                 saveHistory(); // create empty file
                 return;
             }
 
-            String json = Files.readString(HISTORY_PATH, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) {
-                HISTORY = new ArrayList<>();
-                return;
-            }
-
-            List<DecreeHistoryEntry> loaded = GSON.fromJson(json, LIST_TYPE);
-            if (loaded == null) {
-                HISTORY = new ArrayList<>();
-            } else {
-                HISTORY = loaded;
-            }
+            long start = System.nanoTime();
+            List<DecreeHistoryEntry> loaded = Storage.backend().read(HISTORY_NAME, GSON, LIST_TYPE);
+            HISTORY = loaded != null ? loaded : new ArrayList<>();
+            JsonFiles.logLoaded(HISTORY_NAME, start, HISTORY.size() + " history entries");
 
         } catch (IOException e) {
             DecreesOfTheSix.LOGGER.error(
-                    "Failed to load decree history from " + HISTORY_PATH,
+                    "Failed to load decree history from " + HISTORY_NAME,
                     e
             );
+            Storage.backend().quarantine(HISTORY_NAME);
             HISTORY = new ArrayList<>();
         }
     }
 
     private static void saveHistory() {
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-            String json = GSON.toJson(HISTORY, LIST_TYPE);
-            Files.writeString(HISTORY_PATH, json, StandardCharsets.UTF_8);
+            Storage.backend().write(HISTORY_NAME, GSON, HISTORY, LIST_TYPE);
         } catch (IOException e) {
             DecreesOfTheSix.LOGGER.error(
-                    "Failed to save decree history to " + HISTORY_PATH,
+                    "Failed to save decree history to " + HISTORY_NAME,
                     e
             );
         }
@@ -2,16 +2,17 @@ package com.spacewaltz.decrees.decree;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.spacewaltz.decrees.council.CouncilConfig;
 import com.spacewaltz.decrees.council.CouncilConfigData;
+import com.spacewaltz.decrees.DecreesConfig;
 import com.spacewaltz.decrees.DecreesOfTheSix;
 import com.spacewaltz.decrees.council.SeatDefinition;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.JsonFiles;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,11 +25,15 @@ public class DecreeStore {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
+    private static final String STORE_NAME = "decrees.json";
 
-    private static final Path STORE_PATH = CONFIG_DIR.resolve("decrees.json");
+    private static final PersistenceScheduler.Handle<JsonElement> PERSISTENCE = PersistenceScheduler.register(
+            "decree store",
+            () -> GSON.toJsonTree(get()),
+            DecreeStore::write,
+            () -> DecreesConfig.get().saveDirtyThreshold,
+            () -> DecreesConfig.get().saveIntervalSeconds
+    );
 
     // Singleton instance
     private static DecreeStore INSTANCE = new DecreeStore();
@@ -41,45 +46,45 @@ public class DecreeStore {
     }
 
     public static void load() {
+        long start = System.nanoTime();
+        DecreeStore loaded;
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-
-            if (!Files.exists(STORE_PATH)) {
-                INSTANCE = new DecreeStore();
-                save();
-                return;
-            }
+            loaded = Storage.backend().read(STORE_NAME, GSON, DecreeStore.class);
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to load decrees from " + STORE_NAME, e);
+            Storage.backend().quarantine(STORE_NAME);
+            loaded = null;
+        }
 
-            String json = Files.readString(STORE_PATH, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) {
-                INSTANCE = new DecreeStore();
-                return;
-            }
+        if (loaded != null) {
+            INSTANCE = loaded;
+            JsonFiles.logLoaded(STORE_NAME, start, loaded.decrees.size() + " decrees");
+            return;
+        }
 
-            DecreeStore loaded = GSON.fromJson(json, DecreeStore.class);
-            if (loaded == null) {
-                INSTANCE = new DecreeStore();
-            } else {
-                INSTANCE = loaded;
-            }
-        } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to load decrees from " + STORE_PATH, e);
-            INSTANCE = new DecreeStore();
+        INSTANCE = new DecreeStore();
+        if (!Storage.backend().exists(STORE_NAME)) {
+            save();
         }
     }
 
+    /**
+     * Writes the store to disk right now, on the calling thread.
+     * Mutations should call {@link #markDirty()} instead and let the background writer coalesce them.
+     */
     public static void save() {
-        try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-            String json = GSON.toJson(INSTANCE);
-            Files.writeString(STORE_PATH, json, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to save decrees to " + STORE_PATH, e);
-        }
+        PERSISTENCE.flushNow();
+    }
+
+    /**
+     * Records an unsaved change; the store is written in the background shortly after.
+     */
+    public static void markDirty() {
+        PERSISTENCE.markDirty();
+    }
+
+    private static void write(JsonElement tree) throws IOException {
+        Storage.backend().write(STORE_NAME, GSON, tree);
     }
 
     public static Decree createDecree(String title, String createdBySeatId) {
@@ -94,7 +99,7 @@ public class DecreeStore {
         decree.votes.clear();
 
         store.decrees.add(decree);
-        save();
+        markDirty();
         return decree;
     }
 
@@ -166,7 +171,7 @@ public class DecreeStore {
             );
         }
 
-        save();
+        markDirty();
 
         DecreesOfTheSix.LOGGER.info(
                 "Decree #{} status {} -> {} (reason: {}).",
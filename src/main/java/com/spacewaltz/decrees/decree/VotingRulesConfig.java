@@ -2,7 +2,7 @@ package com.spacewaltz.decrees.decree;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -14,11 +14,7 @@ public class VotingRulesConfig {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve("decrees_of_the_six");
-
-    private static final Path CONFIG_PATH = CONFIG_DIR.resolve("voting_rules.json");
+    private static final String CONFIG_NAME = "voting_rules.json";
 
     private static VotingRulesData INSTANCE;
 
@@ -44,19 +40,28 @@ public class VotingRulesConfig {
      * Internal loader that (re)reads voting_rules.json and updates INSTANCE.
      */
     private static void loadFromDisk() {
+        Path configPath = configPath();
+        if (configPath == null) {
+            // No config directory (in-memory storage): keep what is already set.
+            if (INSTANCE == null) {
+                INSTANCE = new VotingRulesData();
+            }
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            if (!Files.exists(CONFIG_PATH)) {
+            if (!Files.exists(configPath)) {
                 // No file yet → use defaults and write one
                 INSTANCE = new VotingRulesData();
                 save();
                 return;
             }
 
-            try (Reader reader = Files.newBufferedReader(CONFIG_PATH)) {
+            try (Reader reader = Files.newBufferedReader(configPath)) {
                 VotingRulesData data = GSON.fromJson(reader, VotingRulesData.class);
                 if (data == null) {
                     data = new VotingRulesData();
@@ -76,16 +81,29 @@ public class VotingRulesConfig {
     public static void save() {
         if (INSTANCE == null) return;
 
+        Path configPath = configPath();
+        if (configPath == null) {
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            try (Writer writer = Files.newBufferedWriter(CONFIG_PATH)) {
+            try (Writer writer = Files.newBufferedWriter(configPath)) {
                 GSON.toJson(INSTANCE, writer);
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Where the config lives in the storage backend's directory, or null if it has none.
+     */
+    private static Path configPath() {
+        Path dir = Storage.backend().directory();
+        return dir != null ? dir.resolve(CONFIG_NAME) : null;
+    }
 }
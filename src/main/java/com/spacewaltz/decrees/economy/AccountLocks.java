@@ -0,0 +1,75 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks guarding account balances.
+ *
+ * Every account maps to one of a fixed number of stripes. An operation locks the stripes
+ * of all accounts it touches in ascending stripe order, so two transfers between the same
+ * pair of accounts in opposite directions cannot deadlock, and transfers between unrelated
+ * accounts rarely contend.
+ */
+final class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    AccountLocks(int stripeCount) {
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the stripes of the given accounts; null accounts are ignored.
+     * Release with try-with-resources.
+     */
+    Held lock(EconomyAccount... accounts) {
+        int[] indexes = new int[accounts.length];
+        int n = 0;
+        for (EconomyAccount account : accounts) {
+            if (account != null) {
+                indexes[n++] = stripeOf(account);
+            }
+        }
+        indexes = Arrays.copyOf(indexes, n);
+        Arrays.sort(indexes);
+
+        int unique = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+        int[] held = Arrays.copyOf(indexes, unique);
+        for (int index : held) {
+            stripes[index].lock();
+        }
+        return new Held(held);
+    }
+
+    private int stripeOf(EconomyAccount account) {
+        int hash = account.id != null ? account.id.hashCode() : System.identityHashCode(account);
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    /**
+     * A set of held stripes.
+     */
+    final class Held implements AutoCloseable {
+        private final int[] indexes;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Periodic per-account balance checkpoints, used to answer "what was this account's
+ * balance at time T" without replaying the account's whole history.
+ *
+ * Every account's balance is its opening balance (starting balance, or whatever it held
+ * before the ledger began) plus the net effect of every transaction touching it. Each
+ * track keeps that running net effect and, every {@code interval} transactions of the
+ * account, a checkpoint of (transaction id, timestamp, net effect so far). A point-in-time
+ * query starts from the newest checkpoint at or before T and replays at most
+ * {@code interval} transactions from there.
+ *
+ * Checkpoints are derived from the ledger and the current balances, so they are kept in
+ * memory and rebuilt during the load-time index scan rather than stored separately.
+ * Not thread-safe; {@link EconomyStore} guards it with its ledger lock.
+ */
+final class BalanceCheckpoints {
+
+    /**
+     * Where a point-in-time replay starts: the opening balance plus the net effect of every
+     * transaction up to and including {@code txId} (0 = before the account's first transaction).
+     */
+    record Start(long txId, long balance) {
+    }
+
+    private static final class Track {
+        long openingBalance;
+        long net;
+        int sinceCheckpoint;
+        final LongList txIds = new LongList();
+        final LongList timestamps = new LongList();
+        final LongList nets = new LongList();
+    }
+
+    private final int interval;
+    private final Map<String, Track> tracks = new HashMap<>();
+
+    /**
+     * @param interval transactions of one account between two checkpoints; 0 or less = none
+     */
+    BalanceCheckpoints(int interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Applies one transaction (in ascending id order) to the tracks of both accounts.
+     * The receiver is credited the amount minus the withheld transfer tax.
+     */
+    void record(long txId, long timestamp, String fromAccountId, String toAccountId,
+                int amountCopper, int taxCopper) {
+        if (fromAccountId != null && fromAccountId.equals(toAccountId)) {
+            apply(fromAccountId, txId, timestamp, -taxCopper);
+            return;
+        }
+        if (fromAccountId != null) {
+            apply(fromAccountId, txId, timestamp, -amountCopper);
+        }
+        if (toAccountId != null) {
+            apply(toAccountId, txId, timestamp, amountCopper - taxCopper);
+        }
+    }
+
+    /**
+     * Pins an account's opening balance so that opening balance + net effect = {@code currentBalance}.
+     * For a new account this is simply its starting balance.
+     */
+    void open(String accountId, long currentBalance) {
+        Track track = track(accountId);
+        track.openingBalance = currentBalance - track.net;
+    }
+
+    /**
+     * Derives every account's opening balance from its current balance once the ledger
+     * has been indexed. Call after journal replay, when balances and ledger agree.
+     */
+    void settle(Map<String, EconomyAccount> accounts) {
+        for (EconomyAccount account : accounts.values()) {
+            if (account != null && account.id != null) {
+                open(account.id, account.balanceCopper);
+            }
+        }
+    }
+
+    /**
+     * The newest checkpoint of an account taken at or before {@code timeMillis}.
+     *
+     * @return the replay start, or null if nothing is known about the account.
+     */
+    Start startAt(String accountId, long timeMillis) {
+        Track track = tracks.get(accountId);
+        if (track == null) {
+            return null;
+        }
+        // Timestamps are taken just before ids are assigned, so they ascend with the ids.
+        int index = track.timestamps.countBelow(timeMillis + 1) - 1;
+        if (index < 0) {
+            return new Start(0L, track.openingBalance);
+        }
+        return new Start(track.txIds.get(index), track.openingBalance + track.nets.get(index));
+    }
+
+    private void apply(String accountId, long txId, long timestamp, int delta) {
+        Track track = track(accountId);
+        track.net += delta;
+        if (interval > 0 && ++track.sinceCheckpoint >= interval) {
+            track.txIds.add(txId);
+            track.timestamps.add(timestamp);
+            track.nets.add(track.net);
+            track.sinceCheckpoint = 0;
+        }
+    }
+
+    private Track track(String accountId) {
+        return tracks.computeIfAbsent(accountId, k -> new Track());
+    }
+}
@@ -0,0 +1,174 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Accounts ordered by balance (highest first, ties by account id), for the wealth leaderboard.
+ *
+ * An order-statistic treap: every node knows the size of its subtree, so updating a balance,
+ * finding an account's rank and reading a page at any offset all take O(log n) expected time
+ * (plus the page length), instead of sorting every account per request.
+ *
+ * Not thread-safe; {@link EconomyStore} guards it with its ledger lock.
+ */
+final class BalanceRanking {
+
+    private static final class Node {
+        final String accountId;
+        final long balance;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(String accountId, long balance, int priority) {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<String, Long> balances = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Inserts an account or moves it to its new balance.
+     */
+    void put(String accountId, long balance) {
+        Long previous = balances.put(accountId, balance);
+        if (previous != null) {
+            if (previous == balance) {
+                return;
+            }
+            root = remove(root, previous, accountId);
+        }
+        Node[] parts = split(root, balance, accountId);
+        root = merge(merge(parts[0], new Node(accountId, balance, random.nextInt())), parts[1]);
+    }
+
+    void remove(String accountId) {
+        Long previous = balances.remove(accountId);
+        if (previous != null) {
+            root = remove(root, previous, accountId);
+        }
+    }
+
+    /**
+     * 1-based rank of an account, or -1 if it is not ranked.
+     */
+    int rankOf(String accountId) {
+        Long balance = balances.get(accountId);
+        if (balance == null) {
+            return -1;
+        }
+        int before = 0;
+        Node t = root;
+        while (t != null) {
+            if (precedes(t.balance, t.accountId, balance, accountId)) {
+                before += size(t.left) + 1;
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return before + 1;
+    }
+
+    /**
+     * Up to {@code limit} accounts starting at 0-based position {@code offset}, highest balance first.
+     */
+    List<RankedAccount> page(int offset, int limit) {
+        List<RankedAccount> out = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+        collect(root, Math.max(0, offset), Math.max(0, offset), limit, out);
+        return out;
+    }
+
+    private static void collect(Node t, int skip, int offset, int limit, List<RankedAccount> out) {
+        if (t == null || out.size() >= limit) {
+            return;
+        }
+        int leftSize = size(t.left);
+        if (skip < leftSize) {
+            collect(t.left, skip, offset, limit, out);
+        }
+        if (out.size() >= limit) {
+            return;
+        }
+        if (skip <= leftSize) {
+            out.add(new RankedAccount(offset + out.size() + 1, t.accountId, t.balance));
+        }
+        collect(t.right, Math.max(0, skip - leftSize - 1), offset, limit, out);
+    }
+
+    /**
+     * True if (balanceA, idA) sorts before (balanceB, idB).
+     */
+    private static boolean precedes(long balanceA, String idA, long balanceB, String idB) {
+        return balanceA != balanceB ? balanceA > balanceB : idA.compareTo(idB) < 0;
+    }
+
+    /**
+     * Splits into the nodes sorting before the key and the rest.
+     */
+    private static Node[] split(Node t, long balance, String accountId) {
+        if (t == null) {
+            return new Node[]{null, null};
+        }
+        if (precedes(t.balance, t.accountId, balance, accountId)) {
+            Node[] parts = split(t.right, balance, accountId);
+            t.right = parts[0];
+            update(t);
+            return new Node[]{t, parts[1]};
+        }
+        Node[] parts = split(t.left, balance, accountId);
+        t.left = parts[1];
+        update(t);
+        return new Node[]{parts[0], t};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node remove(Node t, long balance, String accountId) {
+        if (t == null) {
+            return null;
+        }
+        if (t.balance == balance && t.accountId.equals(accountId)) {
+            return merge(t.left, t.right);
+        }
+        if (precedes(t.balance, t.accountId, balance, accountId)) {
+            t.right = remove(t.right, balance, accountId);
+        } else {
+            t.left = remove(t.left, balance, accountId);
+        }
+        update(t);
+        return t;
+    }
+
+    private static void update(Node t) {
+        t.size = 1 + size(t.left) + size(t.right);
+    }
+
+    private static int size(Node t) {
+        return t != null ? t.size : 0;
+    }
+}
@@ -26,6 +26,8 @@ public class EconomyAccount {
 
     /**
      * Current balance in copper units.
+     * Volatile so lock-free readers see the latest value; only change it through
+     * {@link EconomyService}, which holds this account's lock stripe while doing so.
      */
-    public int balanceCopper;
+    public volatile int balanceCopper;
 }
@@ -0,0 +1,270 @@
+package com.spacewaltz.decrees.economy;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running economy statistics, updated as each transaction is added to the ledger so
+ * reading them never touches the ledger itself.
+ *
+ * Keeps all-time totals (money supply, minted, burned, count and volume per
+ * {@link TransactionType}), one rollup bucket per server-local calendar day, and the
+ * transfer tax withheld from payments but not yet paid into the Treasury.
+ * Rebuilt on load during the ledger index scan; read through {@link EconomyStore#aggregates()}.
+ */
+public final class EconomyAggregates {
+
+    private static final int TYPE_COUNT = TransactionType.values().length;
+
+    /**
+     * Totals of one calendar day.
+     *
+     * @param volumeCopper sum of amounts per type
+     * @param count        number of transactions per type
+     */
+    public record DaySummary(LocalDate day,
+                             long mintedCopper,
+                             long burnedCopper,
+                             Map<TransactionType, Long> volumeCopper,
+                             Map<TransactionType, Long> count) {
+
+        public long totalVolumeCopper() {
+            return volumeCopper.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long totalCount() {
+            return count.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private static final class Bucket {
+        long minted;
+        long burned;
+        final long[] volume = new long[TYPE_COUNT];
+        final long[] count = new long[TYPE_COUNT];
+    }
+
+    private final ZoneId zone;
+
+    private long moneySupply;
+    private long minted;
+    private long burned;
+    private final long[] volume = new long[TYPE_COUNT];
+    private final long[] count = new long[TYPE_COUNT];
+
+    // Tax withheld and not yet settled; rebuilt from the ledger on load.
+    private long pendingTax;
+
+    // Tax of each payment not yet fully settled, oldest first from pendingTaxHead. Settlements
+    // pay them off in order, so a partial settlement leaves the newer payments pending.
+    private LongList pendingTaxByPayment = new LongList();
+    private int pendingTaxHead;
+    private long pendingTaxHeadPaid;
+
+    private final Map<Long, Bucket> days = new HashMap<>();
+
+    // Bounds of the day of the last transaction, so most records skip the time zone math.
+    private long dayStartMillis = Long.MAX_VALUE;
+    private long dayEndMillis = Long.MIN_VALUE;
+    private Bucket currentDay;
+
+    EconomyAggregates(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Adds one transaction to the totals and to its day's bucket.
+     */
+    synchronized void record(long timestamp, String fromAccountId, String toAccountId,
+                             int amountCopper, int taxCopper, TransactionType type) {
+        Bucket day = bucketFor(timestamp);
+        if (taxCopper > 0) {
+            // Withheld from the receiver: out of circulation until it is settled.
+            pendingTax += taxCopper;
+            pendingTaxByPayment.add(taxCopper);
+            moneySupply -= taxCopper;
+        }
+        if (type == TransactionType.TRANSFER_TAX) {
+            // Settlement of withheld tax: back into circulation, but not newly minted.
+            pendingTax -= amountCopper;
+            payOffPendingTax(amountCopper);
+            moneySupply += amountCopper;
+        } else if (fromAccountId == null && toAccountId != null) {
+            minted += amountCopper;
+            moneySupply += amountCopper;
+            day.minted += amountCopper;
+        } else if (toAccountId == null && fromAccountId != null) {
+            burned += amountCopper;
+            moneySupply -= amountCopper;
+            day.burned += amountCopper;
+        }
+        if (type != null) {
+            int t = type.ordinal();
+            volume[t] += amountCopper;
+            count[t]++;
+            day.volume[t] += amountCopper;
+            day.count[t]++;
+        }
+    }
+
+    /**
+     * Money that entered circulation without a transaction (a new account's starting balance).
+     */
+    synchronized void accountOpened(long balanceCopper) {
+        moneySupply += balanceCopper;
+    }
+
+    /**
+     * Sets the money supply from the balances once the ledger has been loaded.
+     */
+    synchronized void settle(Map<String, EconomyAccount> accounts) {
+        long supply = 0L;
+        for (EconomyAccount account : accounts.values()) {
+            if (account != null) {
+                supply += account.balanceCopper;
+            }
+        }
+        moneySupply = supply;
+    }
+
+    /**
+     * Sum of all account balances, in copper.
+     */
+    public synchronized long moneySupply() {
+        return moneySupply;
+    }
+
+    public synchronized long totalMintedCopper() {
+        return minted;
+    }
+
+    public synchronized long totalBurnedCopper() {
+        return burned;
+    }
+
+    /**
+     * Transfer tax withheld from payments and not yet paid into the Treasury, in copper.
+     */
+    public synchronized long pendingTaxCopper() {
+        return pendingTax;
+    }
+
+    /**
+     * Number of taxed payments whose tax is not fully settled yet.
+     */
+    public synchronized int pendingTaxPayments() {
+        return pendingTaxByPayment.size() - pendingTaxHead;
+    }
+
+    /**
+     * What a settlement of at most {@code maxCopper} would pay in now: the amount, and how
+     * many of the oldest pending payments it pays off in full. Read in one step so the two agree.
+     */
+    public synchronized TaxSettlement pendingTaxUpTo(long maxCopper) {
+        long amount = Math.max(0L, Math.min(pendingTax, maxCopper));
+        long left = amount + pendingTaxHeadPaid;
+        int payments = 0;
+        for (int i = pendingTaxHead; i < pendingTaxByPayment.size() && left >= pendingTaxByPayment.get(i); i++) {
+            left -= pendingTaxByPayment.get(i);
+            payments++;
+        }
+        return new TaxSettlement(amount, payments);
+    }
+
+    /**
+     * @param payments taxed payments the amount pays off in full
+     */
+    public record TaxSettlement(long amountCopper, int payments) {
+    }
+
+    private void payOffPendingTax(long amountCopper) {
+        long left = amountCopper + pendingTaxHeadPaid;
+        while (pendingTaxHead < pendingTaxByPayment.size() && left >= pendingTaxByPayment.get(pendingTaxHead)) {
+            left -= pendingTaxByPayment.get(pendingTaxHead);
+            pendingTaxHead++;
+        }
+        pendingTaxHeadPaid = pendingTaxHead < pendingTaxByPayment.size() ? left : 0L;
+
+        // Drop the paid-off prefix once it is most of the list.
+        if (pendingTaxHead > 0 && pendingTaxHead >= pendingTaxByPayment.size() / 2) {
+            LongList rest = new LongList(pendingTaxByPayment.size() - pendingTaxHead);
+            for (int i = pendingTaxHead; i < pendingTaxByPayment.size(); i++) {
+                rest.add(pendingTaxByPayment.get(i));
+            }
+            pendingTaxByPayment = rest;
+            pendingTaxHead = 0;
+        }
+    }
+
+    public synchronized long volumeCopper(TransactionType type) {
+        return volume[type.ordinal()];
+    }
+
+    public synchronized long count(TransactionType type) {
+        return count[type.ordinal()];
+    }
+
+    /**
+     * Totals of one server-local day; all zero if nothing happened that day.
+     */
+    public synchronized DaySummary day(LocalDate day) {
+        return summarize(day, days.get(day.toEpochDay()));
+    }
+
+    /**
+     * The last {@code n} days up to and including today, oldest first.
+     */
+    public List<DaySummary> lastDays(int n) {
+        LocalDate today = LocalDate.now(zone);
+        List<DaySummary> result = new ArrayList<>(Math.max(0, n));
+        for (int i = n - 1; i >= 0; i--) {
+            result.add(day(today.minusDays(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Money velocity over the last {@code n} days: player and guild transfer volume divided
+     * by the current money supply. Mints, burns and seizures are not spending.
+     */
+    public double velocity(int n) {
+        long spent = 0L;
+        for (DaySummary day : lastDays(n)) {
+            spent += day.volumeCopper().get(TransactionType.PLAYER_PAYMENT)
+                    + day.volumeCopper().get(TransactionType.GUILD_DEPOSIT)
+                    + day.volumeCopper().get(TransactionType.GUILD_WITHDRAW);
+        }
+        long supply = moneySupply();
+        return supply > 0L ? (double) spent / supply : 0.0;
+    }
+
+    private Bucket bucketFor(long timestamp) {
+        if (timestamp >= dayStartMillis && timestamp < dayEndMillis) {
+            return currentDay;
+        }
+        LocalDate date = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        dayStartMillis = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        dayEndMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        currentDay = days.computeIfAbsent(date.toEpochDay(), d -> new Bucket());
+        return currentDay;
+    }
+
+    private static DaySummary summarize(LocalDate date, Bucket bucket) {
+        Map<TransactionType, Long> volume = new EnumMap<>(TransactionType.class);
+        Map<TransactionType, Long> count = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            volume.put(type, bucket != null ? bucket.volume[type.ordinal()] : 0L);
+            count.put(type, bucket != null ? bucket.count[type.ordinal()] : 0L);
+        }
+        return new DaySummary(date,
+                bucket != null ? bucket.minted : 0L,
+                bucket != null ? bucket.burned : 0L,
+                volume, count);
+    }
+}
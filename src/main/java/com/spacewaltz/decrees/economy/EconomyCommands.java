@@ -3,18 +3,35 @@ package com.spacewaltz.decrees.economy;
 import com.mojang.authlib.GameProfile;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.tree.LiteralCommandNode;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+import com.spacewaltz.decrees.PlayerNames;
 import com.spacewaltz.decrees.council.Messenger;
 import com.spacewaltz.decrees.council.CouncilPortfolios;
+import com.spacewaltz.decrees.guilds.Guild;
+import com.spacewaltz.decrees.guilds.GuildStore;
 import net.minecraft.command.argument.GameProfileArgumentType;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -23,18 +40,33 @@ import java.util.UUID;
  * Player-facing:
  *   /money
  *   /money balance
- *   /money pay <player> <gold> <silver> <copper>
+ *   /money pay <player> <gold> <silver> <copper> [requestKey]
+ *   /money log [page]
+ *   /money top [page]
  *
  * Admin-facing (/economy, with /moneyadmin as a legacy alias):
  *   /economy help
  *   /economy grant <player> <gold> <silver> <copper>
  *   /economy seize <player> <gold> <silver> <copper>
+ *   /economy bulkgrant <targets> <gold> <silver> <copper>
+ *   /economy bulkseize <targets> <gold> <silver> <copper>
  *   /economy treasury
- *   /economy log [count]
+ *   /economy log [count] [filters]
+ *   /economy balanceat <player> <time>
+ *   /economy stats [days]
+ *   /economy schedule list
+ *   /economy schedule add <from|mint> <to> <every> <gold> <silver> <copper> [runs] [description]
+ *   /economy schedule remove <id>
  *   /economy reload
  */
 public final class EconomyCommands {
 
+    private static final int LOG_PAGE_SIZE = 10;
+
+    private static final int TOP_PAGE_SIZE = 10;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private EconomyCommands() {
     }
 
@@ -53,7 +85,7 @@ public final class EconomyCommands {
                         // /money balance
                         .then(CommandManager.literal("balance")
                                 .executes(ctx -> showBalance(ctx.getSource())))
-                        // /money pay <player> <gold> <silver> <copper>
+                        // /money pay <player> <gold> <silver> <copper> [requestKey]
                         .then(CommandManager.literal("pay")
                                 .then(CommandManager.argument("target", GameProfileArgumentType.gameProfile())
                                         .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
@@ -63,13 +95,43 @@ public final class EconomyCommands {
                                                                         ctx,
                                                                         IntegerArgumentType.getInteger(ctx, "gold"),
                                                                         IntegerArgumentType.getInteger(ctx, "silver"),
-                                                                        IntegerArgumentType.getInteger(ctx, "copper")
+                                                                        IntegerArgumentType.getInteger(ctx, "copper"),
+                                                                        null
                                                                 ))
+                                                                .then(CommandManager.argument("requestKey", StringArgumentType.word())
+                                                                        .executes(ctx -> pay(
+                                                                                ctx,
+                                                                                IntegerArgumentType.getInteger(ctx, "gold"),
+                                                                                IntegerArgumentType.getInteger(ctx, "silver"),
+                                                                                IntegerArgumentType.getInteger(ctx, "copper"),
+                                                                                StringArgumentType.getString(ctx, "requestKey")
+                                                                        ))
+                                                                )
                                                         )
                                                 )
                                         )
                                 )
                         )
+                        // /money log [page]
+                        .then(CommandManager.literal("log")
+                                .executes(ctx -> showOwnLog(ctx.getSource(), 1))
+                                .then(CommandManager.argument("page", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> showOwnLog(
+                                                ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "page")
+                                        ))
+                                )
+                        )
+                        // /money top [page]
+                        .then(CommandManager.literal("top")
+                                .executes(ctx -> showTop(ctx.getSource(), 1))
+                                .then(CommandManager.argument("page", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> showTop(
+                                                ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "page")
+                                        ))
+                                )
+                        )
                         // /money help
                         .then(CommandManager.literal("help")
                                 .executes(ctx -> showPlayerHelp(ctx.getSource())))
@@ -124,19 +186,127 @@ public final class EconomyCommands {
                                         )
                                 )
                         )
+                        // /economy bulkgrant <targets> <gold> <silver> <copper>
+                        .then(CommandManager.literal("bulkgrant")
+                                .then(CommandManager.argument("targets", GameProfileArgumentType.gameProfile())
+                                        .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
+                                                .then(CommandManager.argument("silver", IntegerArgumentType.integer(0))
+                                                        .then(CommandManager.argument("copper", IntegerArgumentType.integer(0))
+                                                                .executes(ctx -> bulkGrant(
+                                                                        ctx,
+                                                                        IntegerArgumentType.getInteger(ctx, "gold"),
+                                                                        IntegerArgumentType.getInteger(ctx, "silver"),
+                                                                        IntegerArgumentType.getInteger(ctx, "copper")
+                                                                ))
+                                                        )
+                                                )
+                                        )
+                                )
+                        )
+                        // /economy bulkseize <targets> <gold> <silver> <copper>
+                        .then(CommandManager.literal("bulkseize")
+                                .then(CommandManager.argument("targets", GameProfileArgumentType.gameProfile())
+                                        .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
+                                                .then(CommandManager.argument("silver", IntegerArgumentType.integer(0))
+                                                        .then(CommandManager.argument("copper", IntegerArgumentType.integer(0))
+                                                                .executes(ctx -> bulkSeize(
+                                                                        ctx,
+                                                                        IntegerArgumentType.getInteger(ctx, "gold"),
+                                                                        IntegerArgumentType.getInteger(ctx, "silver"),
+                                                                        IntegerArgumentType.getInteger(ctx, "copper")
+                                                                ))
+                                                        )
+                                                )
+                                        )
+                                )
+                        )
                         // /economy treasury
                         .then(CommandManager.literal("treasury")
                                 .executes(ctx -> showTreasury(ctx.getSource())))
-                        // /economy log [count]
+                        // /economy log [count] [filters]
                         .then(CommandManager.literal("log")
-                                .executes(ctx -> showLog(ctx.getSource(), 10))
+                                .executes(ctx -> showLog(ctx.getSource(), 10, ""))
                                 .then(CommandManager.argument("count", IntegerArgumentType.integer(1, 100))
                                         .executes(ctx -> showLog(
                                                 ctx.getSource(),
-                                                IntegerArgumentType.getInteger(ctx, "count")
+                                                IntegerArgumentType.getInteger(ctx, "count"),
+                                                ""
                                         ))
+                                        .then(CommandManager.argument("filters", StringArgumentType.greedyString())
+                                                .executes(ctx -> showLog(
+                                                        ctx.getSource(),
+                                                        IntegerArgumentType.getInteger(ctx, "count"),
+                                                        StringArgumentType.getString(ctx, "filters")
+                                                ))
+                                        )
                                 )
                         )
+                        // /economy balanceat <player> <time>
+                        .then(CommandManager.literal("balanceat")
+                                .then(CommandManager.argument("target", GameProfileArgumentType.gameProfile())
+                                        .then(CommandManager.argument("time", StringArgumentType.greedyString())
+                                                .executes(ctx -> showBalanceAt(
+                                                        ctx,
+                                                        StringArgumentType.getString(ctx, "time")
+                                                ))
+                                        )
+                                )
+                        )
+                        // /economy stats [days]
+                        .then(CommandManager.literal("stats")
+                                .executes(ctx -> showStats(ctx.getSource(), 7))
+                                .then(CommandManager.argument("days", IntegerArgumentType.integer(1, 90))
+                                        .executes(ctx -> showStats(
+                                                ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "days")
+                                        ))
+                                )
+                        )
+                        // /economy schedule ...
+                        .then(CommandManager.literal("schedule")
+                                .then(CommandManager.literal("list")
+                                        .executes(ctx -> listSchedules(ctx.getSource())))
+                                .then(CommandManager.literal("add")
+                                        .then(CommandManager.argument("from", StringArgumentType.string())
+                                                .then(CommandManager.argument("to", StringArgumentType.string())
+                                                        .then(CommandManager.argument("every", StringArgumentType.word())
+                                                                .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
+                                                                        .then(CommandManager.argument("silver", IntegerArgumentType.integer(0))
+                                                                                .then(CommandManager.argument("copper", IntegerArgumentType.integer(0))
+                                                                                        .executes(ctx -> addSchedule(ctx, 0, null))
+                                                                                        .then(CommandManager.argument("runs", IntegerArgumentType.integer(0))
+                                                                                                .executes(ctx -> addSchedule(
+                                                                                                        ctx,
+                                                                                                        IntegerArgumentType.getInteger(ctx, "runs"),
+                                                                                                        null
+                                                                                                ))
+                                                                                                .then(CommandManager.argument("description", StringArgumentType.greedyString())
+                                                                                                        .executes(ctx -> addSchedule(
+                                                                                                                ctx,
+                                                                                                                IntegerArgumentType.getInteger(ctx, "runs"),
+                                                                                                                StringArgumentType.getString(ctx, "description")
+                                                                                                        ))
+                                                                                                )
+                                                                                        )
+                                                                                )
+                                                                        )
+                                                                )
+                                                        )
+                                                )
+                                        )
+                                )
+                                .then(CommandManager.literal("remove")
+                                        .then(CommandManager.argument("id", IntegerArgumentType.integer(1))
+                                                .executes(ctx -> removeSchedule(
+                                                        ctx.getSource(),
+                                                        IntegerArgumentType.getInteger(ctx, "id")
+                                                ))
+                                        )
+                                )
+                        )
+                        // /economy export
+                        .then(CommandManager.literal("export")
+                                .executes(ctx -> exportLedger(ctx.getSource())))
                         // /economy reload
                         .then(CommandManager.literal("reload")
                                 .executes(ctx -> reloadEconomy(ctx.getSource())))
@@ -182,7 +352,8 @@ public final class EconomyCommands {
     private static int pay(CommandContext<ServerCommandSource> ctx,
                            int gold,
                            int silver,
-                           int copper) {
+                           int copper,
+                           String requestKey) {
         ServerCommandSource src = ctx.getSource();
 
         if (!EconomyConfig.get().enabled) {
@@ -231,21 +402,108 @@ public final class EconomyCommands {
         EconomyAccount from = EconomyService.getOrCreatePlayerAccount(sender.getUuid());
         EconomyAccount to = EconomyService.getOrCreatePlayerAccount(targetProfile.getId());
 
-        if (!EconomyService.canTransfer(from, amountCopper)) {
-            Messenger.error(src, "Insufficient funds.");
-            return 0;
-        }
-
-        EconomyService.transfer(
+        int taxCopper = EconomyService.transferTaxFor(to, amountCopper, TransactionType.PLAYER_PAYMENT);
+        EconomyService.TransferResult result = EconomyService.transfer(
                 from,
                 to,
                 amountCopper,
                 TransactionType.PLAYER_PAYMENT,
-                "Player payment via /money pay."
+                "Player payment via /money pay.",
+                requestKey
         );
+        if (result == EconomyService.TransferResult.DUPLICATE) {
+            Messenger.info(src, "Request '" + requestKey + "' was already paid; nothing was charged again.");
+            return 1;
+        }
+        if (result == EconomyService.TransferResult.REJECTED) {
+            Messenger.error(src, "Insufficient funds.");
+            return 0;
+        }
 
         String amountLabel = formatAmountGSCWithName(amountCopper);
-        Messenger.info(src, "Paid " + amountLabel + " to " + targetProfile.getName() + ".");
+        if (taxCopper > 0) {
+            Messenger.info(src, "Paid " + amountLabel + " to " + targetProfile.getName()
+                    + " (" + formatAmountGSCWithName(taxCopper) + " transfer tax withheld).");
+        } else {
+            Messenger.info(src, "Paid " + amountLabel + " to " + targetProfile.getName() + ".");
+        }
+        return 1;
+    }
+
+    private static int showOwnLog(ServerCommandSource src, int page) {
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        ServerPlayerEntity player;
+        try {
+            player = src.getPlayer();
+        } catch (Exception e) {
+            Messenger.error(src, "Only in-game players can use /money log.");
+            return 0;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        EconomyAccount account = EconomyService.getOrCreatePlayerAccount(player.getUuid());
+
+        int total = store.countTransactionsFor(account.id);
+        if (total == 0) {
+            Messenger.info(src, "No ledger entries yet.");
+            return 1;
+        }
+
+        int pageCount = (total + LOG_PAGE_SIZE - 1) / LOG_PAGE_SIZE;
+        if (page > pageCount) {
+            Messenger.error(src, "Page " + page + " does not exist (last page: " + pageCount + ").");
+            return 0;
+        }
+
+        List<EconomyTransaction> entries =
+                store.transactionsFor(account.id, (page - 1) * LOG_PAGE_SIZE, LOG_PAGE_SIZE);
+
+        EconomyConfigData cfg = EconomyConfig.get();
+        Messenger.info(src, "Your ledger (page " + page + "/" + pageCount + "):");
+        for (EconomyTransaction tx : entries) {
+            String line = EconomyNetworking.formatTransactionForViewer(player, tx, account.id, cfg, store);
+            Messenger.line(src, "  [#" + tx.id + "] " + line);
+        }
+        return 1;
+    }
+
+    private static int showTop(ServerCommandSource src, int page) {
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        int total = store.rankedCount();
+        if (total == 0) {
+            Messenger.info(src, "Nobody is on the leaderboard yet.");
+            return 1;
+        }
+
+        int pageCount = (total + TOP_PAGE_SIZE - 1) / TOP_PAGE_SIZE;
+        if (page > pageCount) {
+            Messenger.error(src, "Page " + page + " does not exist (last page: " + pageCount + ").");
+            return 0;
+        }
+
+        Messenger.info(src, "Wealth leaderboard (page " + page + "/" + pageCount + "):");
+        for (RankedAccount row : store.topAccounts((page - 1) * TOP_PAGE_SIZE, TOP_PAGE_SIZE)) {
+            Messenger.line(src, "  #" + row.rank() + " " + describeAccount(src.getServer(), store, row.accountId())
+                    + " - " + formatLongAmount(row.balanceCopper()));
+        }
+
+        ServerPlayerEntity player = src.getPlayer();
+        if (player != null) {
+            EconomyAccount own = store.findAccountByOwner(AccountType.PLAYER, player.getUuidAsString());
+            int rank = own != null ? store.rankOf(own.id) : -1;
+            if (rank > 0) {
+                Messenger.info(src, "Your rank: #" + rank + " of " + total + ".");
+            }
+        }
         return 1;
     }
 
@@ -253,7 +511,9 @@ public final class EconomyCommands {
         Messenger.info(src, "Money commands:");
         Messenger.info(src, "  /money                - show your balance");
         Messenger.info(src, "  /money balance        - show your balance");
-        Messenger.info(src, "  /money pay <player> <G> <S> <C>  - pay another player in Gold/Silver/Copper.");
+        Messenger.info(src, "  /money pay <player> <G> <S> <C> [key] - pay another player in Gold/Silver/Copper.");
+        Messenger.info(src, "  /money log [page]     - show your own transactions, newest first.");
+        Messenger.info(src, "  /money top [page]     - richest players and guild treasuries.");
         return 1;
     }
 
@@ -266,8 +526,18 @@ public final class EconomyCommands {
         Messenger.info(src, "  /economy help                          - show this help.");
         Messenger.info(src, "  /economy grant <player> <G> <S> <C>    - grant currency to a player.");
         Messenger.info(src, "  /economy seize <player> <G> <S> <C>    - seize currency from a player.");
+        Messenger.info(src, "  /economy bulkgrant <targets> <G> <S> <C> - grant the amount to every target.");
+        Messenger.info(src, "  /economy bulkseize <targets> <G> <S> <C> - seize from every target, or from none.");
         Messenger.info(src, "  /economy treasury                      - show treasury balance.");
-        Messenger.info(src, "  /economy log [count]                   - show recent transactions.");
+        Messenger.info(src, "  /economy log [count] [filters]         - show recent transactions, optionally filtered:");
+        Messenger.info(src, "      player:<who> with:<who> type:<TYPE,...> since:<time> until:<time> min:<copper> max:<copper> before:<id>");
+        Messenger.info(src, "  /economy balanceat <player> <time>     - balance at a past time (yyyy-MM-dd [HH:mm[:ss]] or 3d/12h/30m ago).");
+        Messenger.info(src, "  /economy stats [days]                  - money supply, minting and volume per day.");
+        Messenger.info(src, "  /economy schedule list                 - show recurring payments.");
+        Messenger.info(src, "  /economy schedule add <from|mint> <to> <every> <G> <S> <C> [runs] [description]");
+        Messenger.info(src, "                                         - pay every 30m/12h/1d/...; runs 0 = forever.");
+        Messenger.info(src, "  /economy schedule remove <id>          - cancel a recurring payment.");
+        Messenger.info(src, "  /economy export                        - write the full ledger as JSON.");
         Messenger.info(src, "  /economy reload                        - reload economy config & store.");
         Messenger.info(src, "Legacy alias: /moneyadmin ...");
         return 1;
@@ -388,6 +658,89 @@ public final class EconomyCommands {
         return 1;
     }
 
+    private static int bulkGrant(CommandContext<ServerCommandSource> ctx,
+                                 int gold,
+                                 int silver,
+                                 int copper) {
+        return bulk(ctx, gold, silver, copper, true);
+    }
+
+    private static int bulkSeize(CommandContext<ServerCommandSource> ctx,
+                                 int gold,
+                                 int silver,
+                                 int copper) {
+        return bulk(ctx, gold, silver, copper, false);
+    }
+
+    /**
+     * Grants to or seizes from every selected player as one all-or-nothing batch.
+     */
+    private static int bulk(CommandContext<ServerCommandSource> ctx,
+                            int gold,
+                            int silver,
+                            int copper,
+                            boolean grant) {
+        ServerCommandSource src = ctx.getSource();
+
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        Collection<GameProfile> targets;
+        try {
+            targets = GameProfileArgumentType.getProfileArgument(ctx, "targets");
+        } catch (Exception e) {
+            Messenger.error(src, "Invalid target players.");
+            return 0;
+        }
+
+        List<GameProfile> profiles = new ArrayList<>();
+        for (GameProfile profile : targets) {
+            if (profile.getId() != null) {
+                profiles.add(profile);
+            }
+        }
+        if (profiles.isEmpty()) {
+            Messenger.error(src, "No matching player found.");
+            return 0;
+        }
+
+        int amountCopper = toCopperFromGSC(gold, silver, copper);
+        if (amountCopper <= 0) {
+            Messenger.error(src, "Amount must be greater than zero.");
+            return 0;
+        }
+
+        EconomyAccount treasury = grant ? null : EconomyService.getTreasuryAccount();
+        List<EconomyService.Leg> legs = new ArrayList<>(profiles.size());
+        for (GameProfile profile : profiles) {
+            EconomyAccount account = EconomyService.getOrCreatePlayerAccount(profile.getId());
+            legs.add(grant
+                    ? EconomyService.Leg.mint(account, amountCopper, "Admin grant via /economy bulkgrant.")
+                    : EconomyService.Leg.transfer(account, treasury, amountCopper,
+                            TransactionType.ADMIN_SEIZURE, "Admin seizure via /economy bulkseize."));
+        }
+
+        int shortfall = EconomyService.findShortfall(legs);
+        if (shortfall >= 0) {
+            Messenger.error(src, (grant ? "Cannot grant to " : "Cannot seize from ")
+                    + profiles.get(shortfall).getName() + "; nothing was changed.");
+            return 0;
+        }
+
+        long batchId = EconomyService.transferBatch(legs);
+        if (batchId < 0) {
+            Messenger.error(src, "The batch was rejected; nothing was changed.");
+            return 0;
+        }
+
+        String amountLabel = formatAmountGSCWithName(amountCopper);
+        Messenger.info(src, (grant ? "Granted " : "Seized ") + amountLabel
+                + (grant ? " to " : " from ") + profiles.size() + " player(s) (batch #" + batchId + ").");
+        return profiles.size();
+    }
+
     private static int showTreasury(ServerCommandSource src) {
         if (!EconomyConfig.get().enabled) {
             Messenger.error(src, "The economy system is currently disabled.");
@@ -424,7 +777,289 @@ public final class EconomyCommands {
         return 1;
     }
 
-    private static int showLog(ServerCommandSource src, int count) {
+    private static int showBalanceAt(CommandContext<ServerCommandSource> ctx, String timeArg) {
+        ServerCommandSource src = ctx.getSource();
+
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        Collection<GameProfile> targets;
+        try {
+            targets = GameProfileArgumentType.getProfileArgument(ctx, "target");
+        } catch (Exception e) {
+            Messenger.error(src, "Invalid target player.");
+            return 0;
+        }
+
+        if (targets.isEmpty()) {
+            Messenger.error(src, "No matching player found.");
+            return 0;
+        }
+
+        GameProfile targetProfile = targets.iterator().next();
+        if (targetProfile.getId() == null) {
+            Messenger.error(src, "Target player has no UUID.");
+            return 0;
+        }
+
+        Long timeMillis = parseTime(timeArg);
+        if (timeMillis == null) {
+            Messenger.error(src, "Unrecognised time '" + timeArg
+                    + "'. Use yyyy-MM-dd, yyyy-MM-dd HH:mm[:ss] or a duration ago like 3d, 12h, 30m.");
+            return 0;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        EconomyAccount account = store.findAccountByOwner(AccountType.PLAYER, targetProfile.getId().toString());
+        if (account == null) {
+            Messenger.error(src, targetProfile.getName() + " has no economy account.");
+            return 0;
+        }
+
+        Long balance = store.balanceAt(account.id, timeMillis);
+        if (balance == null) {
+            Messenger.error(src, "No balance history for " + targetProfile.getName() + ".");
+            return 0;
+        }
+
+        String when = TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis).atZone(ZoneId.systemDefault()));
+        int clamped = (int) Math.max(0L, Math.min(Integer.MAX_VALUE, balance));
+        Messenger.info(src, "Balance of " + targetProfile.getName() + " at " + when + ": "
+                + formatAmountGSCWithName(clamped)
+                + " (now " + formatAmountGSCWithName(EconomyService.getBalanceCopper(account)) + ").");
+        return 1;
+    }
+
+    /**
+     * Parses an absolute server-local time (yyyy-MM-dd, yyyy-MM-dd HH:mm, yyyy-MM-dd HH:mm:ss,
+     * 'T' separator allowed) or a duration before now (30m, 12h, 3d, 2w).
+     *
+     * @return epoch millis, or null if the text matches none of these.
+     */
+    private static Long parseTime(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        String text = raw.trim();
+
+        Long ago = parseDurationMillis(text);
+        if (ago != null) {
+            return System.currentTimeMillis() - ago;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        String normalized = text.replace('T', ' ');
+        try {
+            if (normalized.length() == 10) {
+                return LocalDate.parse(normalized).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            if (normalized.length() == 16) {
+                normalized += ":00";
+            }
+            return LocalDateTime.parse(normalized, TIME_FORMAT).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int showStats(ServerCommandSource src, int days) {
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        EconomyAggregates stats = EconomyStore.get().aggregates();
+
+        Messenger.info(src, "Economy statistics:");
+        Messenger.line(src, "  Money supply: " + formatLongAmount(stats.moneySupply()));
+        Messenger.line(src, "  Minted (all time): " + formatLongAmount(stats.totalMintedCopper())
+                + ", burned: " + formatLongAmount(stats.totalBurnedCopper()));
+        for (TransactionType type : TransactionType.values()) {
+            long count = stats.count(type);
+            if (count > 0) {
+                Messenger.line(src, "  " + type.name() + ": " + count + " tx, "
+                        + formatLongAmount(stats.volumeCopper(type)));
+            }
+        }
+        if (stats.pendingTaxCopper() > 0) {
+            Messenger.line(src, "  Transfer tax pending: " + formatLongAmount(stats.pendingTaxCopper())
+                    + " from " + stats.pendingTaxPayments() + " payment(s)");
+        }
+
+        Messenger.info(src, "Last " + days + " day(s):");
+        for (EconomyAggregates.DaySummary day : stats.lastDays(days)) {
+            if (day.totalCount() == 0) {
+                continue;
+            }
+            Messenger.line(src, "  " + day.day() + ": " + day.totalCount() + " tx, volume "
+                    + formatLongAmount(day.totalVolumeCopper())
+                    + ", minted " + formatLongAmount(day.mintedCopper())
+                    + ", burned " + formatLongAmount(day.burnedCopper()));
+        }
+        Messenger.line(src, String.format(Locale.ROOT, "  Velocity (%d days): %.3f", days, stats.velocity(days)));
+        return 1;
+    }
+
+    /**
+     * Formats totals that may exceed an int, e.g. the money supply.
+     */
+    private static String formatLongAmount(long totalCopper) {
+        if (totalCopper >= 0 && totalCopper <= Integer.MAX_VALUE) {
+            return formatAmountGSCWithName((int) totalCopper);
+        }
+        return totalCopper + "C " + getCurrencyName();
+    }
+
+    private static int listSchedules(ServerCommandSource src) {
+        List<RecurringPayment> schedules = RecurringPayments.all();
+        if (schedules.isEmpty()) {
+            Messenger.info(src, "No recurring payments scheduled.");
+            return 1;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        Messenger.info(src, "Recurring payments:");
+        for (RecurringPayment payment : schedules) {
+            String from = payment.fromAccountId != null
+                    ? describeAccount(src.getServer(), store, payment.fromAccountId)
+                    : "Minted";
+            String next = TIME_FORMAT.format(Instant.ofEpochMilli(payment.nextDueMillis).atZone(ZoneId.systemDefault()));
+            String runs = payment.remainingRuns < 0 ? "forever" : payment.remainingRuns + " run(s) left";
+            Messenger.line(src, "  #" + payment.id + " " + formatAmountGSCWithName(payment.amountCopper)
+                    + ": " + from + " -> " + describeAccount(src.getServer(), store, payment.toAccountId)
+                    + " every " + formatDuration(payment.intervalSeconds)
+                    + ", next " + next + ", " + runs
+                    + " (" + payment.completedRuns + " paid, " + payment.failedRuns + " failed)"
+                    + (payment.description != null ? " - " + payment.description : ""));
+        }
+        return 1;
+    }
+
+    private static int addSchedule(CommandContext<ServerCommandSource> ctx, int runs, String description) {
+        ServerCommandSource src = ctx.getSource();
+
+        if (!EconomyConfig.get().enabled) {
+            Messenger.error(src, "The economy system is currently disabled.");
+            return 0;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        String fromArg = StringArgumentType.getString(ctx, "from");
+        String toArg = StringArgumentType.getString(ctx, "to");
+
+        EconomyAccount from = null;
+        if (!fromArg.equalsIgnoreCase("mint")) {
+            from = resolveAccountArg(src, store, fromArg);
+            if (from == null) {
+                Messenger.error(src, "No economy account for '" + fromArg + "'.");
+                return 0;
+            }
+        }
+        EconomyAccount to = resolveAccountArg(src, store, toArg);
+        if (to == null) {
+            Messenger.error(src, "No economy account for '" + toArg + "'.");
+            return 0;
+        }
+
+        Long everyMillis = parseDurationMillis(StringArgumentType.getString(ctx, "every"));
+        if (everyMillis == null || everyMillis < 60_000L) {
+            Messenger.error(src, "Interval must be a duration of at least one minute, e.g. 30m, 12h, 1d or 1w.");
+            return 0;
+        }
+
+        int amountCopper = toCopperFromGSC(
+                IntegerArgumentType.getInteger(ctx, "gold"),
+                IntegerArgumentType.getInteger(ctx, "silver"),
+                IntegerArgumentType.getInteger(ctx, "copper")
+        );
+        if (amountCopper <= 0) {
+            Messenger.error(src, "Amount must be greater than zero.");
+            return 0;
+        }
+
+        RecurringPayment payment = RecurringPayments.create(
+                from, to, amountCopper, everyMillis / 1000L, runs > 0 ? runs : -1, description);
+        if (payment == null) {
+            Messenger.error(src, "Could not create the recurring payment.");
+            return 0;
+        }
+
+        Messenger.info(src, "Scheduled recurring payment #" + payment.id + ": "
+                + formatAmountGSCWithName(amountCopper) + " every " + formatDuration(payment.intervalSeconds) + ".");
+        return 1;
+    }
+
+    private static int removeSchedule(ServerCommandSource src, int id) {
+        if (!RecurringPayments.remove(id)) {
+            Messenger.error(src, "No recurring payment #" + id + ".");
+            return 0;
+        }
+        Messenger.info(src, "Cancelled recurring payment #" + id + ".");
+        return 1;
+    }
+
+    private static String formatDuration(long seconds) {
+        if (seconds % 604_800L == 0) return (seconds / 604_800L) + "w";
+        if (seconds % 86_400L == 0) return (seconds / 86_400L) + "d";
+        if (seconds % 3_600L == 0) return (seconds / 3_600L) + "h";
+        if (seconds % 60L == 0) return (seconds / 60L) + "m";
+        return seconds + "s";
+    }
+
+    /**
+     * Parses a duration such as 90s, 30m, 12h, 3d or 2w.
+     *
+     * @return the duration in millis, or null if the text is not a duration.
+     */
+    private static Long parseDurationMillis(String text) {
+        if (text == null || text.length() < 2) {
+            return null;
+        }
+        char unit = Character.toLowerCase(text.charAt(text.length() - 1));
+        String digits = text.substring(0, text.length() - 1);
+        if ("smhdw".indexOf(unit) < 0 || !digits.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        try {
+            long n = Long.parseLong(digits);
+            long unitMillis = switch (unit) {
+                case 's' -> 1_000L;
+                case 'm' -> 60_000L;
+                case 'h' -> 3_600_000L;
+                case 'd' -> 86_400_000L;
+                default -> 604_800_000L;
+            };
+            return Math.multiplyExact(n, unitMillis);
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int exportLedger(ServerCommandSource src) {
+        if (!CouncilPortfolios.ensurePortfolio(
+                src,
+                CouncilPortfolios.Portfolio.ECONOMY_ADMIN,
+                "export the economy ledger"
+        )) {
+            return 0;
+        }
+
+        EconomyStore store = EconomyStore.get();
+        long count = store.transactionCount();
+        try {
+            Path file = EconomyStore.exportLedgerJson();
+            Messenger.info(src, "Exported " + count + " transaction(s) to " + file.getFileName() + ".");
+            return 1;
+        } catch (IOException | RuntimeException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to export economy ledger", e);
+            Messenger.error(src, "Ledger export failed; see the server log.");
+            return 0;
+        }
+    }
+
+    private static int showLog(ServerCommandSource src, int count, String filters) {
         if (!EconomyConfig.get().enabled) {
             Messenger.error(src, "The economy system is currently disabled.");
             return 0;
@@ -435,29 +1070,162 @@ public final class EconomyCommands {
         }
 
         EconomyStore store = EconomyStore.get();
-        if (store == null || store.transactions == null || store.transactions.isEmpty()) {
+        if (store == null || store.transactionCount() == 0) {
             Messenger.info(src, "No transactions recorded yet.");
             return 1;
         }
 
-        List<EconomyTransaction> list = store.transactions;
-        int size = list.size();
-        int start = Math.max(0, size - count);
+        LedgerQuery.Builder query = LedgerQuery.builder().limit(count);
+        String error = applyLogFilters(src, store, query, filters);
+        if (error != null) {
+            Messenger.error(src, error);
+            return 0;
+        }
+
+        // Newest first; may page into archived ledger segments.
+        LedgerQuery.Page page = store.query(query.build());
+        List<EconomyTransaction> list = page.transactions();
 
-        Messenger.info(src, "Last " + (size - start) + " economy transaction(s):");
+        if (list.isEmpty()) {
+            Messenger.info(src, "No matching transactions.");
+            return 1;
+        }
+
+        Messenger.info(src, "Last " + list.size() + " economy transaction(s):");
 
-        for (int i = start; i < size; i++) {
+        for (int i = list.size() - 1; i >= 0; i--) {
             EconomyTransaction tx = list.get(i);
             if (tx == null) continue;
 
-            String line = formatLogLine(tx);
+            String line = formatLogLine(src.getServer(), tx);
             Messenger.line(src, "  " + line);
         }
 
+        if (page.nextCursor() > 0L) {
+            String rest = filters.replaceAll("(^|\\s)before:\\S*", " ").trim();
+            Messenger.info(src, "Older: /economy log " + count + " "
+                    + (rest.isEmpty() ? "" : rest + " ") + "before:" + page.nextCursor());
+        }
+
         return 1;
     }
 
-    private static String formatLogLine(EconomyTransaction tx) {
+    /**
+     * Applies "key:value" filters from /economy log to the query.
+     *
+     * @return an error message, or null if every filter was understood.
+     */
+    private static String applyLogFilters(ServerCommandSource src,
+                                          EconomyStore store,
+                                          LedgerQuery.Builder query,
+                                          String filters) {
+        if (filters == null || filters.isBlank()) {
+            return null;
+        }
+
+        for (String token : filters.trim().split("\\s+")) {
+            int colon = token.indexOf(':');
+            if (colon <= 0 || colon == token.length() - 1) {
+                return "Filters look like key:value, got '" + token + "'.";
+            }
+            String key = token.substring(0, colon).toLowerCase(Locale.ROOT);
+            String value = token.substring(colon + 1);
+
+            switch (key) {
+                case "player", "account", "with" -> {
+                    EconomyAccount account = resolveAccountArg(src, store, value);
+                    if (account == null) {
+                        return "No economy account for '" + value + "'.";
+                    }
+                    if (key.equals("with")) {
+                        query.counterparty(account.id);
+                    } else {
+                        query.account(account.id);
+                    }
+                }
+                case "type" -> {
+                    Set<TransactionType> types = EnumSet.noneOf(TransactionType.class);
+                    for (String name : value.split(",")) {
+                        try {
+                            types.add(TransactionType.valueOf(name.toUpperCase(Locale.ROOT)));
+                        } catch (IllegalArgumentException e) {
+                            return "Unknown transaction type '" + name + "'.";
+                        }
+                    }
+                    query.types(types);
+                }
+                case "since", "until" -> {
+                    Long millis = parseTime(value.replace('_', ' '));
+                    if (millis == null) {
+                        return "Unrecognised time '" + value + "'. Use yyyy-MM-dd, yyyy-MM-dd_HH:mm or 3d/12h/30m.";
+                    }
+                    if (key.equals("since")) {
+                        query.since(millis);
+                    } else {
+                        query.until(millis);
+                    }
+                }
+                case "min", "max", "before" -> {
+                    long number;
+                    try {
+                        number = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        return "'" + key + "' needs a number, got '" + value + "'.";
+                    }
+                    if (key.equals("before")) {
+                        query.before(number);
+                    } else {
+                        int copper = (int) Math.max(0L, Math.min(Integer.MAX_VALUE, number));
+                        if (key.equals("min")) {
+                            query.minAmount(copper);
+                        } else {
+                            query.maxAmount(copper);
+                        }
+                    }
+                }
+                default -> {
+                    return "Unknown filter '" + key + "'.";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves an account argument: "treasury", an account id (acc-N), a system owner
+     * such as GUILD:3, guild:&lt;name&gt;, a player UUID or a player name known to the server.
+     */
+    private static EconomyAccount resolveAccountArg(ServerCommandSource src, EconomyStore store, String raw) {
+        if (raw.equalsIgnoreCase("treasury")) {
+            return EconomyService.getTreasuryAccount();
+        }
+        EconomyAccount byId = store.accounts.get(raw);
+        if (byId != null) {
+            return byId;
+        }
+        EconomyAccount system = store.findAccountByOwner(AccountType.SYSTEM, raw);
+        if (system != null) {
+            return system;
+        }
+        if (raw.regionMatches(true, 0, "guild:", 0, 6)) {
+            Guild guild = GuildStore.findByName(raw.substring(6));
+            return guild != null ? EconomyService.findSystemAccount("GUILD:" + guild.id) : null;
+        }
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            MinecraftServer server = src.getServer();
+            GameProfile profile = server != null && server.getUserCache() != null
+                    ? server.getUserCache().findByName(raw).orElse(null)
+                    : null;
+            uuid = profile != null ? profile.getId() : null;
+        }
+        return uuid != null ? store.findAccountByOwner(AccountType.PLAYER, uuid.toString()) : null;
+    }
+
+    private static String formatLogLine(MinecraftServer server, EconomyTransaction tx) {
         EconomyConfigData cfg = EconomyConfig.get();
         EconomyStore store = EconomyStore.get();
 
@@ -468,8 +1236,8 @@ public final class EconomyCommands {
         String amount = formatAmountGSC(tx.amountCopper);
         String amountWithName = amount + " " + currencyName;
 
-        String fromLabel = describeAccount(store, tx.fromAccountId);
-        String toLabel = describeAccount(store, tx.toAccountId);
+        String fromLabel = describeAccount(server, store, tx.fromAccountId);
+        String toLabel = describeAccount(server, store, tx.toAccountId);
 
         String typeLabel = tx.type.name();
 
@@ -488,10 +1256,18 @@ public final class EconomyCommands {
             sb.append(" - ").append(tx.description);
         }
 
+        if (tx.batchId != null) {
+            sb.append(" [batch #").append(tx.batchId).append("]");
+        }
+
+        if (tx.taxCopper != null) {
+            sb.append(" [tax ").append(formatAmountGSC(tx.taxCopper)).append("]");
+        }
+
         return sb.toString();
     }
 
-    private static String describeAccount(EconomyStore store, String accountId) {
+    private static String describeAccount(MinecraftServer server, EconomyStore store, String accountId) {
         if (accountId == null) {
             return "System";
         }
@@ -502,16 +1278,13 @@ public final class EconomyCommands {
         }
 
         if (acc.type == AccountType.PLAYER && acc.ownerId != null) {
-            try {
-                UUID uuid = UUID.fromString(acc.ownerId);
-                return "Player(" + uuid.toString().substring(0, 8) + ")";
-            } catch (IllegalArgumentException ignored) {
-                return "Player(" + shortenId(acc.ownerId) + ")";
-            }
+            String name = PlayerNames.get(server, acc.ownerId);
+            return name != null ? name : "Player(" + shortenId(acc.ownerId) + ")";
         }
 
         if (acc.type == AccountType.SYSTEM && acc.ownerId != null && !acc.ownerId.isBlank()) {
-            return acc.ownerId;
+            String guild = EconomyService.guildTreasuryLabel(acc);
+            return guild != null ? guild : acc.ownerId;
         }
 
         if (acc.type == AccountType.TREASURY) {
@@ -3,7 +3,7 @@ package com.spacewaltz.decrees.economy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.spacewaltz.decrees.DecreesOfTheSix;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -20,11 +20,7 @@ public class EconomyConfig {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
-
-    private static final Path CONFIG_PATH = CONFIG_DIR.resolve("economy_config.json");
+    private static final String CONFIG_NAME = "economy_config.json";
 
     private static EconomyConfigData INSTANCE;
 
@@ -36,19 +32,28 @@ public class EconomyConfig {
     }
 
     public static void load() {
+        Path configPath = configPath();
+        if (configPath == null) {
+            // No config directory (in-memory storage): keep what is already set.
+            if (INSTANCE == null) {
+                INSTANCE = new EconomyConfigData();
+            }
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            if (!Files.exists(CONFIG_PATH)) {
+            if (!Files.exists(configPath)) {
                 // First time: write defaults
                 INSTANCE = new EconomyConfigData();
                 save();
                 return;
             }
 
-            try (Reader reader = Files.newBufferedReader(CONFIG_PATH)) {
+            try (Reader reader = Files.newBufferedReader(configPath)) {
                 EconomyConfigData data = GSON.fromJson(reader, EconomyConfigData.class);
                 if (data == null) {
                     data = new EconomyConfigData();
@@ -56,7 +61,7 @@ public class EconomyConfig {
                 INSTANCE = data;
             }
         } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to load economy config from " + CONFIG_PATH, e);
+            DecreesOfTheSix.LOGGER.error("Failed to load economy config from " + configPath, e);
             INSTANCE = new EconomyConfigData();
         }
     }
@@ -64,16 +69,29 @@ public class EconomyConfig {
     public static void save() {
         if (INSTANCE == null) return;
 
+        Path configPath = configPath();
+        if (configPath == null) {
+            return;
+        }
+
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (!Files.exists(configPath.getParent())) {
+                Files.createDirectories(configPath.getParent());
             }
 
-            try (Writer writer = Files.newBufferedWriter(CONFIG_PATH)) {
+            try (Writer writer = Files.newBufferedWriter(configPath)) {
                 GSON.toJson(INSTANCE, writer);
             }
         } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to save economy config to " + CONFIG_PATH, e);
+            DecreesOfTheSix.LOGGER.error("Failed to save economy config to " + configPath, e);
         }
     }
+
+    /**
+     * Where the config lives in the storage backend's directory, or null if it has none.
+     */
+    private static Path configPath() {
+        Path dir = Storage.backend().directory();
+        return dir != null ? dir.resolve(CONFIG_NAME) : null;
+    }
 }
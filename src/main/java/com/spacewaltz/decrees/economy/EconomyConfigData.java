@@ -36,4 +36,83 @@ public class EconomyConfigData {
      * If disabled, /money and /ledger commands will refuse to run.
      */
     public boolean enabled = true;
-}
\ No newline at end of file
+
+    /**
+     * How many journal records (accounts + transactions) may accumulate in
+     * economy.journal before economy.json is rewritten as a fresh checkpoint.
+     * 0 or less = only checkpoint on the time interval below, on load and on shutdown.
+     */
+    public int journalCheckpointInterval = 1000;
+
+    /**
+     * Maximum time, in seconds, between background checkpoints while the journal has records.
+     */
+    public int checkpointIntervalSeconds = 300;
+
+    /**
+     * Where economy, guild and decree data is kept: "json" (one file per store in this folder)
+     * or "h2" (one embedded database file, decrees.mv.db, with separate tables for accounts,
+     * transactions, guilds and guild members). Existing JSON data is imported into the database
+     * on the first start with "h2". Only read at server start.
+     */
+    public String storageBackend = "json";
+
+    /**
+     * How many recent transactions are kept in memory and in economy.json.
+     * Older ones are sealed into read-only binary segment files under ledger/ (fixed-width
+     * records, see {@link LedgerSegment}) that are memory-mapped and read in place on demand.
+     * 0 or less = keep every transaction in memory.
+     */
+    public int ledgerWindowSize = 10000;
+
+    /**
+     * How many transactions go into one sealed ledger segment.
+     */
+    public int ledgerSegmentSize = 5000;
+
+    /**
+     * How many transactions of one account pass between two in-memory balance checkpoints.
+     * /economy balanceat replays at most this many transactions; lower = faster queries, more memory.
+     * 0 or less = no checkpoints (queries replay the account's whole history).
+     */
+    public int balanceCheckpointInterval = 256;
+
+    /**
+     * Percentage of every /money pay (PLAYER_PAYMENT) withheld from the receiver as transfer tax.
+     * Example: 2.5 => paying 100 copper delivers 98 copper (tax rounds down).
+     * 0 or less = no transfer tax.
+     */
+    public double transferTaxPercent = 0.0;
+
+    /**
+     * Payments below this amount, in copper, are not taxed.
+     */
+    public int transferTaxExemptBelowCopper = 0;
+
+    /**
+     * Upper limit of the tax on a single payment, in copper. 0 or less = no limit.
+     */
+    public int transferTaxMaxCopper = 0;
+
+    /**
+     * Collected tax is paid into the Treasury as one transaction at most this often, in seconds.
+     */
+    public int transferTaxSettleIntervalSeconds = 300;
+
+    /**
+     * Pay collected tax into the Treasury early once this much, in copper, is pending.
+     * 0 or less = only on the interval.
+     */
+    public int transferTaxSettleThresholdCopper = 0;
+
+    /**
+     * How long, in seconds, a transfer request key is remembered. A transfer retried with
+     * the same key within this time is not applied again.
+     */
+    public int requestKeyTtlSeconds = 600;
+
+    /**
+     * Maximum number of remembered request keys; the least recently used are forgotten first.
+     */
+    public int requestKeyCacheSize = 10000;
+}
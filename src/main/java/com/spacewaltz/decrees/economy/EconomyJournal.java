@@ -0,0 +1,249 @@
+package com.spacewaltz.decrees.economy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only write-ahead journal for the economy.
+ *
+ * Every account creation, every transaction and every batch of transactions is
+ * appended as one compact JSON line to economy.journal. economy.json is only rewritten as a periodic checkpoint:
+ * when a checkpoint snapshot is taken the live journal is rotated to
+ * economy.journal.prev, and that file is deleted once the checkpoint is on disk.
+ * On load the checkpoint is read first and both journal files are replayed on top of it.
+ *
+ * A null path means the storage backend has no directory (see
+ * {@link com.spacewaltz.decrees.storage.StorageBackend#directory()}); every operation is then a no-op.
+ */
+public final class EconomyJournal {
+
+    // Compact on purpose: one record per line.
+    private static final Gson GSON = new GsonBuilder().create();
+
+    static final String KIND_ACCOUNT = "account";
+    static final String KIND_TRANSACTION = "tx";
+    static final String KIND_BATCH = "batch";
+
+    private static BufferedWriter writer;
+    private static Path writerPath;
+
+    private EconomyJournal() {
+    }
+
+    /**
+     * One journal line.
+     */
+    static final class Entry {
+        String kind;
+        EconomyAccount account;
+        EconomyTransaction tx;
+
+        /**
+         * Legs of a batch; written as one line so a crash never leaves half a batch behind.
+         */
+        List<EconomyTransaction> txs;
+
+        /**
+         * Value of {@link EconomyStore#nextAccountId} after the account was allocated.
+         */
+        int nextAccountId;
+    }
+
+    static void appendAccount(Path path, EconomyAccount account, int nextAccountId) {
+        Entry entry = new Entry();
+        entry.kind = KIND_ACCOUNT;
+        entry.account = account;
+        entry.nextAccountId = nextAccountId;
+        append(path, entry);
+    }
+
+    static void appendTransaction(Path path, EconomyTransaction tx) {
+        Entry entry = new Entry();
+        entry.kind = KIND_TRANSACTION;
+        entry.tx = tx;
+        append(path, entry);
+    }
+
+    static void appendBatch(Path path, List<EconomyTransaction> txs) {
+        Entry entry = new Entry();
+        entry.kind = KIND_BATCH;
+        entry.txs = txs;
+        append(path, entry);
+    }
+
+    private static synchronized void append(Path path, Entry entry) {
+        if (path == null) {
+            return;
+        }
+        try {
+            if (writer == null || !path.equals(writerPath)) {
+                close();
+                writer = Files.newBufferedWriter(
+                        path,
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND
+                );
+                writerPath = path;
+            }
+            writer.write(GSON.toJson(entry));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to append to economy journal " + path, e);
+        }
+    }
+
+    /**
+     * Replays every journal record on top of the given checkpoint.
+     * Records already contained in the checkpoint are skipped, so replaying
+     * after a crash between checkpoint and discard is harmless.
+     *
+     * @return number of records that were applied.
+     */
+    static int replay(Path path, EconomyStore store) {
+        if (path == null || !Files.exists(path)) {
+            return 0;
+        }
+
+        int applied = 0;
+        int lineNo = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                Entry entry;
+                try {
+                    entry = GSON.fromJson(line, Entry.class);
+                } catch (JsonParseException e) {
+                    // A torn last line after a crash; everything before it is intact.
+                    DecreesOfTheSix.LOGGER.warn(
+                            "Ignoring unreadable economy journal record at line {} of {}.", lineNo, path
+                    );
+                    break;
+                }
+                if (entry == null || entry.kind == null) continue;
+
+                if (KIND_ACCOUNT.equals(entry.kind) && entry.account != null) {
+                    if (applyAccount(store, entry)) applied++;
+                } else if (KIND_TRANSACTION.equals(entry.kind) && entry.tx != null) {
+                    if (applyTransaction(store, entry.tx)) applied++;
+                } else if (KIND_BATCH.equals(entry.kind) && entry.txs != null) {
+                    for (EconomyTransaction tx : entry.txs) {
+                        if (tx != null && applyTransaction(store, tx)) applied++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to replay economy journal " + path, e);
+        }
+        return applied;
+    }
+
+    private static boolean applyAccount(EconomyStore store, Entry entry) {
+        EconomyAccount account = entry.account;
+        if (account.id == null || store.accounts.containsKey(account.id)) {
+            return false;
+        }
+
+        store.addAccount(account);
+        if (account.type == AccountType.TREASURY) {
+            store.treasuryAccountId = account.id;
+        }
+        store.nextAccountId = Math.max(store.nextAccountId, entry.nextAccountId);
+        return true;
+    }
+
+    private static boolean applyTransaction(EconomyStore store, EconomyTransaction tx) {
+        if (tx.id < store.nextTransactionId) {
+            return false;
+        }
+
+        if (tx.fromAccountId != null) {
+            EconomyAccount from = store.accounts.get(tx.fromAccountId);
+            if (from != null) {
+                from.balanceCopper -= tx.amountCopper;
+            }
+        }
+        if (tx.toAccountId != null) {
+            EconomyAccount to = store.accounts.get(tx.toAccountId);
+            if (to != null) {
+                to.balanceCopper += tx.amountCopper - (tx.taxCopper != null ? tx.taxCopper : 0);
+            }
+        }
+
+        store.addTransaction(tx);
+        store.nextTransactionId = tx.id + 1;
+        return true;
+    }
+
+    /**
+     * Moves the live journal aside when a checkpoint snapshot is taken; new records go to a fresh file.
+     * If an older rotated journal is still waiting for its checkpoint, the live one is appended to it.
+     */
+    static synchronized void rotate(Path path, Path prevPath) {
+        close();
+        if (path == null) {
+            return;
+        }
+        try {
+            if (!Files.exists(path)) {
+                return;
+            }
+            if (Files.exists(prevPath)) {
+                try (InputStream in = Files.newInputStream(path);
+                     OutputStream out = Files.newOutputStream(prevPath, StandardOpenOption.APPEND)) {
+                    in.transferTo(out);
+                }
+                Files.delete(path);
+            } else {
+                Files.move(path, prevPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to rotate economy journal " + path, e);
+        }
+    }
+
+    /**
+     * Drops the rotated journal once the checkpoint that covers it has been written.
+     */
+    static synchronized void discard(Path prevPath) {
+        if (prevPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(prevPath);
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to delete rotated economy journal " + prevPath, e);
+        }
+    }
+
+    static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.warn("Failed to close economy journal cleanly.", e);
+        }
+        writer = null;
+        writerPath = null;
+    }
+}
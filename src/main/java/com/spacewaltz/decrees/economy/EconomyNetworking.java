@@ -1,6 +1,7 @@
 package com.spacewaltz.decrees.economy;
 
 import com.spacewaltz.decrees.DecreesOfTheSix;
+import com.spacewaltz.decrees.PlayerNames;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.server.MinecraftServer;
@@ -10,7 +11,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.UUID;
 
 /**
  * Registers economy networking and handles snapshot requests for the G-key UI.
@@ -18,7 +18,8 @@ import java.util.UUID;
  * Server side responsibilities:
  *  - Register C2S/S2C payload types.
  *  - Listen for {@link EconomySnapshotRequestC2SPayload} from a client.
- *  - Build a lightweight snapshot (current balance + recent transactions) for that player.
+ *  - Build a lightweight snapshot (current balance + recent transactions) for that player,
+ *    with only the transactions the client has not seen yet when its lines are still current.
  *  - Send it back as {@link EconomySnapshotS2CPayload}.
  */
 public final class EconomyNetworking {
@@ -61,7 +62,7 @@ public final class EconomyNetworking {
                     }
 
                     // Always hop back to the main server thread.
-                    server.execute(() -> sendSnapshotTo(player));
+                    server.execute(() -> sendSnapshotTo(player, payload));
                 }
         );
 
@@ -70,8 +71,13 @@ public final class EconomyNetworking {
 
     /**
      * Builds and sends a snapshot of the requesting player's economy state.
+     *
+     * If the request's epoch is current, the client's lines are still right: when no
+     * transaction touched the account since its lastSeenTxId it gets NOT_MODIFIED, otherwise
+     * a DELTA with just the newer entries. Anything else (first request, stale epoch, more
+     * new entries than the panel shows) gets the FULL list.
      */
-    private static void sendSnapshotTo(ServerPlayerEntity player) {
+    private static void sendSnapshotTo(ServerPlayerEntity player, EconomySnapshotRequestC2SPayload request) {
         if (player == null || player.getServer() == null) {
             return;
         }
@@ -83,41 +89,136 @@ public final class EconomyNetworking {
         EconomyAccount account = EconomyService.getOrCreatePlayerAccount(player.getUuid());
         int balanceCopper = EconomyService.getBalanceCopper(account);
 
-        // Build the last N relevant transactions for that account.
-        List<String> recentLines = buildLedgerLinesForAccount(player, account.id, 10, config, store);
+        long epoch = LedgerLineCache.epoch(config);
+        long latestTxId = store.latestTransactionIdFor(account.id);
+        long lastSeenTxId = request.lastSeenTxId();
+        int maxLines = EconomySnapshotS2CPayload.MAX_LINES;
 
-        EconomySnapshotS2CPayload payload =
-                new EconomySnapshotS2CPayload(balanceCopper, recentLines);
+        EconomySnapshotS2CPayload payload;
+        if (request.epoch() == epoch && lastSeenTxId == latestTxId) {
+            payload = new EconomySnapshotS2CPayload(EconomySnapshotS2CPayload.Kind.NOT_MODIFIED,
+                    balanceCopper, lastSeenTxId, latestTxId, epoch, Collections.emptyList());
+        } else {
+            List<String> newLines = request.epoch() == epoch && lastSeenTxId > 0L && lastSeenTxId < latestTxId
+                    ? newLedgerLinesFor(player, account.id, lastSeenTxId, latestTxId, maxLines, config, store)
+                    : null;
+            if (newLines != null) {
+                payload = new EconomySnapshotS2CPayload(EconomySnapshotS2CPayload.Kind.DELTA,
+                        balanceCopper, lastSeenTxId, latestTxId, epoch, newLines);
+            } else {
+                // The last N relevant transactions for that account, usually already formatted.
+                List<String> recentLines = fullLedgerLinesFor(player, account.id, latestTxId, maxLines, config, store);
+                payload = new EconomySnapshotS2CPayload(EconomySnapshotS2CPayload.Kind.FULL,
+                        balanceCopper, 0L, latestTxId, epoch, recentLines);
+            }
+        }
 
         ServerPlayNetworking.send(player, payload);
     }
 
     /**
-     * Collects up to {@code maxEntries} most recent transactions that involve the given account.
+     * Lines for the account's transactions after {@code afterTxId} up to {@code upToTxId},
+     * newest first, or null if there are {@code maxEntries} or more of them and the client
+     * needs the full list anyway.
      */
-    private static List<String> buildLedgerLinesForAccount(ServerPlayerEntity viewer,
-                                                           String accountId,
-                                                           int maxEntries,
-                                                           EconomyConfigData cfg,
-                                                           EconomyStore store) {
-        if (store == null || store.transactions == null || store.transactions.isEmpty() || accountId == null) {
-            return Collections.singletonList("No ledger entries yet.");
+    private static List<String> newLedgerLinesFor(ServerPlayerEntity viewer,
+                                                  String accountId,
+                                                  long afterTxId,
+                                                  long upToTxId,
+                                                  int maxEntries,
+                                                  EconomyConfigData cfg,
+                                                  EconomyStore store) {
+        List<EconomyTransaction> recent = store.transactionsFor(accountId, 0, maxEntries);
+        List<String> result = new ArrayList<>();
+        for (EconomyTransaction tx : recent) {
+            if (tx.id <= afterTxId) {
+                return result;
+            }
+            if (tx.id > upToTxId) {
+                // Added since latestTxId was read; the next request picks it up.
+                continue;
+            }
+            String line = formatTransactionForViewer(viewer, tx, accountId, cfg, store);
+            if (line != null && !line.isBlank()) {
+                result.add(line);
+            }
         }
+        // Every recent entry is new: nothing the client holds would survive the merge.
+        return null;
+    }
 
-        List<EconomyTransaction> all = store.transactions;
-        List<String> result = new ArrayList<>();
+    /**
+     * Lines for a FULL snapshot, covering exactly the account's transactions up to
+     * {@code upToTxId}: the cached lines if no transaction touched the account while they were
+     * fetched, otherwise lines built from the history before {@code upToTxId + 1}.
+     */
+    private static List<String> fullLedgerLinesFor(ServerPlayerEntity viewer,
+                                                   String accountId,
+                                                   long upToTxId,
+                                                   int maxEntries,
+                                                   EconomyConfigData cfg,
+                                                   EconomyStore store) {
+        List<String> lines = ledgerLinesFor(viewer, accountId, maxEntries, cfg, store);
+        if (store.latestTransactionIdFor(accountId) == upToTxId) {
+            return lines;
+        }
+        // A newer transaction may be in the lines; the client would then get it again as a delta.
+        return formatLedgerLines(viewer, store.transactionsBefore(accountId, upToTxId + 1, maxEntries),
+                accountId, cfg, store);
+    }
 
-        // Walk from newest to oldest.
-        for (int i = all.size() - 1; i >= 0 && result.size() < maxEntries; i--) {
-            EconomyTransaction tx = all.get(i);
-            if (tx == null) continue;
+    /**
+     * {@link #buildLedgerLinesForAccount} through the {@link LedgerLineCache}: a repeated
+     * request for an account whose ledger has not changed returns the lines built last time.
+     */
+    static List<String> ledgerLinesFor(ServerPlayerEntity viewer,
+                                       String accountId,
+                                       int maxEntries,
+                                       EconomyConfigData cfg,
+                                       EconomyStore store) {
+        if (store == null || accountId == null) {
+            return buildLedgerLinesForAccount(viewer, accountId, maxEntries, cfg, store);
+        }
+        List<String> cached = LedgerLineCache.get(accountId, maxEntries, cfg);
+        if (cached != null) {
+            return cached;
+        }
 
-            boolean involves =
-                    accountId.equals(tx.fromAccountId) ||
-                            accountId.equals(tx.toAccountId);
+        long version = LedgerLineCache.version();
+        long names = LedgerLineCache.names();
+        List<String> lines = buildLedgerLinesForAccount(viewer, accountId, maxEntries, cfg, store);
+        LedgerLineCache.put(accountId, maxEntries, cfg, names, version, lines);
+        return lines;
+    }
 
-            if (!involves) continue;
+    /**
+     * Collects up to {@code maxEntries} most recent transactions that involve the given account.
+     * Uses the per-account transaction index, so the cost does not depend on the ledger size.
+     * Package-private for the benchmarks; {@code viewer} may be null.
+     */
+    static List<String> buildLedgerLinesForAccount(ServerPlayerEntity viewer,
+                                                   String accountId,
+                                                   int maxEntries,
+                                                   EconomyConfigData cfg,
+                                                   EconomyStore store) {
+        if (store == null || accountId == null) {
+            return Collections.singletonList("No ledger entries yet.");
+        }
 
+        // Newest to oldest, straight from the index.
+        return formatLedgerLines(viewer, store.transactionsFor(accountId, 0, maxEntries), accountId, cfg, store);
+    }
+
+    /**
+     * Formats transactions (newest first) for the viewer, or a placeholder line if there are none.
+     */
+    private static List<String> formatLedgerLines(ServerPlayerEntity viewer,
+                                                  List<EconomyTransaction> transactions,
+                                                  String accountId,
+                                                  EconomyConfigData cfg,
+                                                  EconomyStore store) {
+        List<String> result = new ArrayList<>();
+        for (EconomyTransaction tx : transactions) {
             String line = formatTransactionForViewer(viewer, tx, accountId, cfg, store);
             if (line != null && !line.isBlank()) {
                 result.add(line);
@@ -138,7 +239,7 @@ public final class EconomyNetworking {
      *  "+1G 0S 0C Scales from Spacewaltz08 (payment)"
      *  "-0G 5S 0C Scales to Guild Treasury (seizure)"
      */
-    private static String formatTransactionForViewer(ServerPlayerEntity viewer,
+    static String formatTransactionForViewer(ServerPlayerEntity viewer,
                                                      EconomyTransaction tx,
                                                      String viewerAccountId,
                                                      EconomyConfigData cfg,
@@ -147,11 +248,13 @@ public final class EconomyNetworking {
                 ? "Coins"
                 : cfg.currencyName;
 
-        int amount = Math.max(0, tx.amountCopper);
-
         boolean isSender = viewerAccountId != null && viewerAccountId.equals(tx.fromAccountId);
         boolean isReceiver = viewerAccountId != null && viewerAccountId.equals(tx.toAccountId);
 
+        // The receiver of a taxed payment only got the amount after tax.
+        int tax = tx.taxCopper != null ? tx.taxCopper : 0;
+        int amount = Math.max(0, isReceiver && !isSender ? tx.amountCopper - tax : tx.amountCopper);
+
         String amountText = formatAmountGSC(amount, currencyName, cfg);
 
         String signedAmount;
@@ -172,6 +275,8 @@ public final class EconomyNetworking {
             case ADMIN_MINT -> typeLabel = "grant";
             case ADMIN_BURN -> typeLabel = "burn";
             case ADMIN_SEIZURE -> typeLabel = "seizure";
+            case SCHEDULED_PAYMENT -> typeLabel = "scheduled";
+            case TRANSFER_TAX -> typeLabel = "tax";
             default -> typeLabel = tx.type.name().toLowerCase(Locale.ROOT);
         }
 
@@ -216,6 +321,8 @@ public final class EconomyNetworking {
             return switch (tx.type) {
                 case ADMIN_MINT -> "System (grant)";
                 case ADMIN_BURN -> "System (burn)";
+                case SCHEDULED_PAYMENT -> "System (scheduled)";
+                case TRANSFER_TAX -> "System (transfer tax)";
                 case ADMIN_SEIZURE -> "Treasury";
                 default -> "System";
             };
@@ -226,23 +333,12 @@ public final class EconomyNetworking {
             return shortenId(otherId);
         }
 
-        // Player account: try to resolve to an in-game name.
+        // Player account: resolve to an in-game name.
         if (other.type == AccountType.PLAYER && other.ownerId != null) {
-            try {
-                UUID uuid = UUID.fromString(other.ownerId);
-                if (viewer != null && viewer.getServer() != null) {
-                    ServerPlayerEntity otherPlayer =
-                            viewer.getServer().getPlayerManager().getPlayer(uuid);
-                    if (otherPlayer != null) {
-                        return otherPlayer.getName().getString();
-                    }
-                }
-            } catch (IllegalArgumentException ignored) {
-                // ownerId was not a UUID – fall through to generic label.
-            }
+            String name = PlayerNames.get(viewer != null ? viewer.getServer() : null, other.ownerId);
 
             // Fallback: short form of the UUID string.
-            return shortenId(other.ownerId);
+            return name != null ? name : shortenId(other.ownerId);
         }
 
         // Treasury account, if you have a dedicated type.
@@ -250,9 +346,10 @@ public final class EconomyNetworking {
             return "Treasury";
         }
 
-        // System account: use its ownerId as human label if present.
+        // System account: the guild for a guild treasury, otherwise its ownerId.
         if (other.type == AccountType.SYSTEM && other.ownerId != null && !other.ownerId.isBlank()) {
-            return other.ownerId;
+            String guild = EconomyService.guildTreasuryLabel(other);
+            return guild != null ? guild : other.ownerId;
         }
 
         return shortenId(otherId);
@@ -1,17 +1,85 @@
 package com.spacewaltz.decrees.economy;
 
 import com.spacewaltz.decrees.DecreesOfTheSix;
+import com.spacewaltz.decrees.guilds.Guild;
+import com.spacewaltz.decrees.guilds.GuildStore;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 /**
  * Core helpers for creating accounts and performing balance operations.
+ *
+ * All methods are safe to call from any thread. Balance changes lock the stripes of the
+ * accounts they touch (see {@link AccountLocks}), so transfers between unrelated accounts
+ * run in parallel; the resulting transactions are appended to the ledger in id order by
+ * {@link EconomyStore#appendTransaction(EconomyTransaction)}.
+ *
+ * Player payments may be taxed (see {@link EconomyConfigData#transferTaxPercent}). The tax is
+ * withheld from the receiver and recorded on the payment itself; what accumulates is paid into
+ * the Treasury periodically as a single {@link TransactionType#TRANSFER_TAX} transaction by
+ * {@link #tickTransferTax()}, so taxing does not add a ledger entry per payment.
  */
 public final class EconomyService {
 
+    private static final AccountLocks ACCOUNT_LOCKS = new AccountLocks(64);
+
+    private static final Object ACCOUNT_CREATION_LOCK = new Object();
+
+    private static final Object TAX_SETTLEMENT_LOCK = new Object();
+
+    private static volatile long lastTaxSettlementMillis = System.currentTimeMillis();
+
     private EconomyService() {
     }
 
+    /**
+     * Outcome of a transfer made with a request key.
+     */
+    public enum TransferResult {
+        /** The transfer was applied now. */
+        APPLIED,
+        /** The key was used before; the earlier transfer stands and nothing was moved again. */
+        DUPLICATE,
+        /** Invalid arguments or insufficient funds; nothing was moved and the key was not used up. */
+        REJECTED;
+
+        /**
+         * True if the money has been moved, now or by the original request.
+         */
+        public boolean succeeded() {
+            return this != REJECTED;
+        }
+    }
+
+    /**
+     * One money movement inside a {@link #transferBatch(List)}.
+     * A null {@code from} mints, a null {@code to} burns.
+     */
+    public record Leg(EconomyAccount from,
+                      EconomyAccount to,
+                      int amountCopper,
+                      TransactionType type,
+                      String description) {
+
+        public static Leg transfer(EconomyAccount from, EconomyAccount to, int amountCopper,
+                                   TransactionType type, String description) {
+            return new Leg(from, to, amountCopper, type, description);
+        }
+
+        public static Leg mint(EconomyAccount to, int amountCopper, String description) {
+            return new Leg(null, to, amountCopper, TransactionType.ADMIN_MINT, description);
+        }
+
+        public static Leg burn(EconomyAccount from, int amountCopper, String description) {
+            return new Leg(from, null, amountCopper, TransactionType.ADMIN_BURN, description);
+        }
+    }
+
     public static EconomyAccount getOrCreatePlayerAccount(UUID playerUuid) {
         if (playerUuid == null) {
             return null;
@@ -20,49 +88,57 @@ public final class EconomyService {
         EconomyStore store = EconomyStore.get();
         String ownerId = playerUuid.toString();
 
-        // Search for existing account
-        for (EconomyAccount acc : store.accounts.values()) {
-            if (acc.type == AccountType.PLAYER && ownerId.equals(acc.ownerId)) {
-                return acc;
-            }
+        EconomyAccount existing = store.findAccountByOwner(AccountType.PLAYER, ownerId);
+        if (existing != null) {
+            return existing;
         }
 
-        // Create new
-        EconomyAccount acc = new EconomyAccount();
-        acc.id = store.generateAccountId();
-        acc.type = AccountType.PLAYER;
-        acc.ownerId = ownerId;
-        acc.balanceCopper = EconomyConfig.get().startingBalanceCopper;
-
-        store.accounts.put(acc.id, acc);
-        EconomyStore.save();
-        return acc;
+        return createAccount(AccountType.PLAYER, ownerId, EconomyConfig.get().startingBalanceCopper, true);
     }
 
     public static EconomyAccount getTreasuryAccount() {
         EconomyStore store = EconomyStore.get();
-        if (store.treasuryAccountId != null) {
-            EconomyAccount existing = store.accounts.get(store.treasuryAccountId);
-            if (existing != null && existing.type == AccountType.TREASURY) {
+        EconomyAccount existing = currentTreasury(store);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (ACCOUNT_CREATION_LOCK) {
+            // Another thread may have repaired it while we waited.
+            existing = currentTreasury(store);
+            if (existing != null) {
                 return existing;
             }
+
+            // Fallback: create a new one
+            DecreesOfTheSix.LOGGER.warn("Treasury account missing or invalid, creating a new one.");
+            EconomyAccount treasury = createAccount(AccountType.TREASURY, "TREASURY", 0, false);
+            EconomyStore.get().treasuryAccountId = treasury.id;
+            return treasury;
         }
+    }
 
-        // Fallback: create a new one
-        DecreesOfTheSix.LOGGER.warn("Treasury account missing or invalid, creating a new one.");
-        EconomyAccount treasury = new EconomyAccount();
-        treasury.id = store.generateAccountId();
-        treasury.type = AccountType.TREASURY;
-        treasury.ownerId = "TREASURY";
-        treasury.balanceCopper = 0;
-        store.accounts.put(treasury.id, treasury);
-        store.treasuryAccountId = treasury.id;
-        EconomyStore.save();
-        return treasury;
+    private static EconomyAccount currentTreasury(EconomyStore store) {
+        String id = store.treasuryAccountId;
+        EconomyAccount account = id != null ? store.accounts.get(id) : null;
+        return account != null && account.type == AccountType.TREASURY ? account : null;
+    }
+
+    /**
+     * Looks up a SYSTEM account by its owner identifier, e.g. "GUILD:<id>".
+     *
+     * @return the account, or null if none exists.
+     */
+    public static EconomyAccount findSystemAccount(String ownerId) {
+        if (ownerId == null || ownerId.isBlank()) {
+            return null;
+        }
+        return EconomyStore.get().findAccountByOwner(AccountType.SYSTEM, ownerId);
     }
 
     /**
      * Creates a non-player SYSTEM account, used for things like guild treasuries.
+     * If a SYSTEM account already exists for the owner, that account is returned instead.
      *
      * @param ownerId logical owner identifier, e.g. "GUILD:<id>".
      */
@@ -74,16 +150,64 @@ public final class EconomyService {
 
         EconomyStore store = EconomyStore.get();
 
-        EconomyAccount account = new EconomyAccount();
-        account.id = store.generateAccountId();
-        account.type = AccountType.SYSTEM;
-        account.ownerId = ownerId;
-        account.balanceCopper = 0;
+        EconomyAccount existing = store.findAccountByOwner(AccountType.SYSTEM, ownerId);
+        if (existing != null) {
+            DecreesOfTheSix.LOGGER.warn("System account for {} already exists ({}); reusing it.", ownerId, existing.id);
+            return existing;
+        }
+
+        return createAccount(AccountType.SYSTEM, ownerId, 0, true);
+    }
+
+    /**
+     * Label of a guild treasury account for ledger lines and leaderboards: "[Guild] name",
+     * or "[Guild] GUILD:&lt;id&gt;" once the guild is gone. Null for any other account.
+     * Looked up every time: guilds can be renamed, and the guild list is small.
+     */
+    public static String guildTreasuryLabel(EconomyAccount account) {
+        Integer guildId = EconomyStore.guildIdOf(account);
+        if (guildId == null) {
+            return null;
+        }
+        Guild guild = GuildStore.findById(guildId);
+        return "[Guild] " + (guild != null && guild.name != null ? guild.name : account.ownerId);
+    }
+
+    /**
+     * Allocates, journals and indexes a new account. Serialized so two threads asking for the
+     * same owner get the same account and account ids are never handed out twice.
+     *
+     * @param reuseExisting return an account already indexed for (type, ownerId) instead of creating one
+     */
+    private static EconomyAccount createAccount(AccountType type,
+                                                String ownerId,
+                                                int balanceCopper,
+                                                boolean reuseExisting) {
+        EconomyStore store = EconomyStore.lockForChange();
+        try {
+            synchronized (ACCOUNT_CREATION_LOCK) {
+                if (reuseExisting) {
+                    EconomyAccount existing = store.findAccountByOwner(type, ownerId);
+                    if (existing != null) {
+                        return existing;
+                    }
+                }
 
-        store.accounts.put(account.id, account);
-        EconomyStore.save();
+                EconomyAccount account = new EconomyAccount();
+                account.id = store.generateAccountId();
+                account.type = type;
+                account.ownerId = ownerId;
+                account.balanceCopper = balanceCopper;
 
-        return account;
+                // Journaled before anyone can see it: the record must hold the opening balance
+                // and precede every transaction that touches the account.
+                EconomyStore.journalAccount(account);
+                store.addAccount(account);
+                return account;
+            }
+        } finally {
+            store.unlockChange();
+        }
     }
 
     /**
@@ -103,6 +227,9 @@ public final class EconomyService {
         return account != null ? account.balanceCopper : 0;
     }
 
+    /**
+     * Advisory check; the balance may change before a later {@link #transfer}, which re-checks it under lock.
+     */
     public static boolean canTransfer(EconomyAccount from, int amountCopper) {
         if (from == null) return false;
         if (amountCopper <= 0) return false;
@@ -114,15 +241,120 @@ public final class EconomyService {
                                    int amountCopper,
                                    TransactionType type,
                                    String description) {
-        if (from == null || to == null) return false;
-        if (amountCopper <= 0) return false;
-        if (from.balanceCopper < amountCopper) return false;
+        return transfer(from, to, amountCopper, type, description, null) == TransferResult.APPLIED;
+    }
 
-        from.balanceCopper -= amountCopper;
-        to.balanceCopper += amountCopper;
+    /**
+     * Transfer with an optional idempotency key (e.g. a client-generated request id).
+     *
+     * The first successful transfer under a key is remembered, per paying account, for
+     * {@link EconomyConfigData#requestKeyTtlSeconds}; repeating the request within that time
+     * returns {@link TransferResult#DUPLICATE} without moving money again. The key is checked
+     * under the payer's lock, so concurrent retries cannot both go through.
+     *
+     * @param requestKey idempotency key, or null for an ordinary transfer
+     */
+    public static TransferResult transfer(EconomyAccount from,
+                                          EconomyAccount to,
+                                          int amountCopper,
+                                          TransactionType type,
+                                          String description,
+                                          String requestKey) {
+        if (from == null || to == null) return TransferResult.REJECTED;
+        if (amountCopper <= 0) return TransferResult.REJECTED;
 
-        recordTransaction(from.id, to.id, amountCopper, type, description);
-        return true;
+        Long keyHash = requestKey != null && !requestKey.isBlank()
+                ? RequestKeyCache.hash(from.id, requestKey)
+                : null;
+        int taxCopper = transferTaxFor(to, amountCopper, type);
+        TransferResult[] result = {TransferResult.REJECTED};
+        withLocks(() -> {
+            EconomyStore store = EconomyStore.get();
+            if (keyHash != null && store.findRequest(keyHash) != null) {
+                result[0] = TransferResult.DUPLICATE;
+                return false;
+            }
+            if (from.balanceCopper < amountCopper) return false;
+
+            from.balanceCopper -= amountCopper;
+            to.balanceCopper += amountCopper - taxCopper;
+
+            EconomyTransaction tx = newTransaction(from.id, to.id, amountCopper, taxCopper, type, description);
+            tx.requestKey = keyHash;
+            store.appendTransaction(tx);
+            result[0] = TransferResult.APPLIED;
+            return true;
+        }, from, to);
+        return result[0];
+    }
+
+    /**
+     * Transfer tax withheld from a payment of {@code amountCopper} to {@code to}, in copper.
+     * Only player payments are taxed, and never payments into the Treasury.
+     */
+    public static int transferTaxFor(EconomyAccount to, int amountCopper, TransactionType type) {
+        EconomyConfigData cfg = EconomyConfig.get();
+        if (type != TransactionType.PLAYER_PAYMENT || cfg.transferTaxPercent <= 0.0
+                || amountCopper <= 0 || amountCopper < cfg.transferTaxExemptBelowCopper
+                || (to != null && to.type == AccountType.TREASURY)) {
+            return 0;
+        }
+        long tax = (long) Math.floor(amountCopper * Math.min(cfg.transferTaxPercent, 100.0) / 100.0);
+        if (cfg.transferTaxMaxCopper > 0) {
+            tax = Math.min(tax, cfg.transferTaxMaxCopper);
+        }
+        return (int) Math.max(0L, Math.min(tax, amountCopper));
+    }
+
+    /**
+     * Called every server tick. Pays the withheld transfer tax into the Treasury once
+     * {@code transferTaxSettleIntervalSeconds} have passed since the last settlement, or
+     * earlier when {@code transferTaxSettleThresholdCopper} is pending.
+     */
+    public static void tickTransferTax() {
+        EconomyConfigData cfg = EconomyConfig.get();
+        long now = System.currentTimeMillis();
+        if (now - lastTaxSettlementMillis < Math.max(1, cfg.transferTaxSettleIntervalSeconds) * 1000L
+                && (cfg.transferTaxSettleThresholdCopper <= 0
+                || EconomyStore.get().aggregates().pendingTaxCopper() < cfg.transferTaxSettleThresholdCopper)) {
+            return;
+        }
+        lastTaxSettlementMillis = now;
+        settleTransferTax();
+    }
+
+    /**
+     * Pays all withheld transfer tax into the Treasury as one TRANSFER_TAX transaction
+     * (less, if the Treasury balance would overflow; the rest stays pending).
+     * The pending amount is derived from the ledger, so tax withheld before a crash or
+     * restart is still settled afterwards. Settlements pay off taxed payments oldest first.
+     *
+     * @return the amount paid in, in copper (0 if nothing was pending).
+     */
+    public static long settleTransferTax() {
+        synchronized (TAX_SETTLEMENT_LOCK) {
+            EconomyStore store = EconomyStore.get();
+            EconomyAccount treasury = getTreasuryAccount();
+            if (treasury == null || store.aggregates().pendingTaxCopper() <= 0L) {
+                return 0L;
+            }
+
+            long[] settled = {0L};
+            withLocks(() -> {
+                // Payments taxed from now on queue behind these and stay pending.
+                EconomyAggregates.TaxSettlement due = EconomyStore.get().aggregates()
+                        .pendingTaxUpTo((long) Integer.MAX_VALUE - treasury.balanceCopper);
+                int amount = (int) due.amountCopper();
+                if (amount <= 0) return false;
+
+                treasury.balanceCopper += amount;
+                recordTransaction(null, treasury.id, amount, 0, TransactionType.TRANSFER_TAX,
+                        "Transfer tax from " + due.payments() + " payment(s).");
+                settled[0] = amount;
+                return true;
+            }, treasury);
+            return settled[0];
+        }
     }
 
     public static boolean mint(EconomyAccount target,
@@ -131,9 +363,11 @@ public final class EconomyService {
         if (target == null) return false;
         if (amountCopper <= 0) return false;
 
-        target.balanceCopper += amountCopper;
-        recordTransaction(null, target.id, amountCopper, TransactionType.ADMIN_MINT, description);
-        return true;
+        return withLocks(() -> {
+            target.balanceCopper += amountCopper;
+            recordTransaction(null, target.id, amountCopper, 0, TransactionType.ADMIN_MINT, description);
+            return true;
+        }, target);
     }
 
     public static boolean burn(EconomyAccount target,
@@ -141,11 +375,14 @@ public final class EconomyService {
                                String description) {
         if (target == null) return false;
         if (amountCopper <= 0) return false;
-        if (target.balanceCopper < amountCopper) return false;
 
-        target.balanceCopper -= amountCopper;
-        recordTransaction(target.id, null, amountCopper, TransactionType.ADMIN_BURN, description);
-        return true;
+        return withLocks(() -> {
+            if (target.balanceCopper < amountCopper) return false;
+
+            target.balanceCopper -= amountCopper;
+            recordTransaction(target.id, null, amountCopper, 0, TransactionType.ADMIN_BURN, description);
+            return true;
+        }, target);
     }
 
     /**
@@ -158,23 +395,139 @@ public final class EconomyService {
         return transfer(from, treasury, amountCopper, TransactionType.ADMIN_SEIZURE, description);
     }
 
+    /**
+     * Applies all legs or none of them.
+     *
+     * Balances are checked up front by replaying the legs, in order, against projected
+     * balances, so a leg may spend money credited by an earlier leg of the same batch.
+     * The legs are recorded as consecutive transactions sharing one batch id (the id of
+     * the first leg) and written to the journal as a single record. Player payment legs
+     * are taxed like {@link #transfer}.
+     *
+     * @return the batch id, or -1 if the batch is empty or any leg is invalid or unfunded.
+     */
+    public static long transferBatch(List<Leg> legs) {
+        if (legs == null || legs.isEmpty()) {
+            return -1L;
+        }
+
+        List<EconomyAccount> involved = new ArrayList<>(legs.size() * 2);
+        for (Leg leg : legs) {
+            if (leg != null) {
+                involved.add(leg.from());
+                involved.add(leg.to());
+            }
+        }
+
+        long[] batchId = {-1L};
+        withLocks(() -> {
+            // Checked under the locks, so no concurrent transfer can invalidate the projection.
+            if (findShortfall(legs) >= 0) {
+                return false;
+            }
+
+            List<EconomyTransaction> recorded = new ArrayList<>(legs.size());
+            for (Leg leg : legs) {
+                int taxCopper = leg.from() != null ? transferTaxFor(leg.to(), leg.amountCopper(), leg.type()) : 0;
+                if (leg.from() != null) {
+                    leg.from().balanceCopper -= leg.amountCopper();
+                }
+                if (leg.to() != null) {
+                    leg.to().balanceCopper += leg.amountCopper() - taxCopper;
+                }
+                recorded.add(newTransaction(
+                        leg.from() != null ? leg.from().id : null,
+                        leg.to() != null ? leg.to().id : null,
+                        leg.amountCopper(),
+                        taxCopper,
+                        leg.type(),
+                        leg.description()
+                ));
+            }
+
+            batchId[0] = EconomyStore.get().appendBatch(recorded);
+            return true;
+        }, involved.toArray(new EconomyAccount[0]));
+        return batchId[0];
+    }
+
+    /**
+     * Checks a batch without applying it.
+     *
+     * @return the index of the first leg that is invalid or would overdraw its source
+     *         (or overflow its target), or -1 if the whole batch can be applied.
+     */
+    public static int findShortfall(List<Leg> legs) {
+        Map<EconomyAccount, Long> projected = new HashMap<>();
+        for (int i = 0; i < legs.size(); i++) {
+            Leg leg = legs.get(i);
+            if (leg == null || leg.amountCopper() <= 0 || leg.type() == null
+                    || (leg.from() == null && leg.to() == null)) {
+                return i;
+            }
+
+            if (leg.from() != null) {
+                long balance = projected.getOrDefault(leg.from(), (long) leg.from().balanceCopper);
+                if (balance < leg.amountCopper()) {
+                    return i;
+                }
+                projected.put(leg.from(), balance - leg.amountCopper());
+            }
+            if (leg.to() != null) {
+                long balance = projected.getOrDefault(leg.to(), (long) leg.to().balanceCopper);
+                if (balance + leg.amountCopper() > Integer.MAX_VALUE) {
+                    return i;
+                }
+                projected.put(leg.to(), balance + leg.amountCopper());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs a balance change while holding the current store's change lock (shared) and the
+     * lock stripes of every account involved. Refused if an account is not one the current
+     * store holds, i.e. it was looked up before a reload.
+     */
+    private static boolean withLocks(BooleanSupplier change, EconomyAccount... accounts) {
+        EconomyStore store = EconomyStore.lockForChange();
+        try (AccountLocks.Held ignored = ACCOUNT_LOCKS.lock(accounts)) {
+            if (!store.holds(accounts)) {
+                // Looked up before a reload replaced the store; the change would not be kept.
+                DecreesOfTheSix.LOGGER.warn("Rejected an economy change on accounts from before a reload.");
+                return false;
+            }
+            return change.getAsBoolean();
+        } finally {
+            store.unlockChange();
+        }
+    }
+
     private static void recordTransaction(String fromId,
                                           String toId,
                                           int amountCopper,
+                                          int taxCopper,
                                           TransactionType type,
                                           String description) {
-        EconomyStore store = EconomyStore.get();
+        EconomyStore.get().appendTransaction(newTransaction(fromId, toId, amountCopper, taxCopper, type, description));
+    }
 
+    /**
+     * Builds a transaction; its id and timestamp are assigned when the store appends it.
+     */
+    private static EconomyTransaction newTransaction(String fromId,
+                                                     String toId,
+                                                     int amountCopper,
+                                                     int taxCopper,
+                                                     TransactionType type,
+                                                     String description) {
         EconomyTransaction tx = new EconomyTransaction();
-        tx.id = store.nextTransactionId++;
         tx.fromAccountId = fromId;
         tx.toAccountId = toId;
         tx.amountCopper = amountCopper;
+        tx.taxCopper = taxCopper > 0 ? taxCopper : null;
         tx.type = type;
-        tx.timestamp = System.currentTimeMillis();
         tx.description = description;
-
-        store.transactions.add(tx);
-        EconomyStore.save();
+        return tx;
     }
-}
\ No newline at end of file
+}
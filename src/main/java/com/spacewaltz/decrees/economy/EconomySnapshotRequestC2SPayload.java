@@ -8,9 +8,19 @@ import net.minecraft.util.Identifier;
 
 /**
  * Client → Server: asks for a fresh economy snapshot.
- * No fields, it's just a ping.
+ *
+ * Carries what the client already has, so the server can answer with only the newer
+ * ledger lines (or nothing):
+ * - lastSeenTxId: newest transaction id of the client's lines, 0 if it has none
+ * - epoch: the {@link EconomySnapshotS2CPayload#epoch()} those lines were sent under, 0 if none
  */
-public record EconomySnapshotRequestC2SPayload() implements CustomPayload {
+public record EconomySnapshotRequestC2SPayload(long lastSeenTxId,
+                                               long epoch) implements CustomPayload {
+
+    /**
+     * Request from a client with nothing cached; always answered with a full snapshot.
+     */
+    public static final EconomySnapshotRequestC2SPayload FULL = new EconomySnapshotRequestC2SPayload(0L, 0L);
 
     public static final Identifier RAW_ID =
             Identifier.of(DecreesOfTheSix.MOD_ID, "economy_snapshot_request");
@@ -18,9 +28,19 @@ public record EconomySnapshotRequestC2SPayload() implements CustomPayload {
     public static final CustomPayload.Id<EconomySnapshotRequestC2SPayload> ID =
             new CustomPayload.Id<>(RAW_ID);
 
-    // No data → unit codec is enough.
     public static final PacketCodec<RegistryByteBuf, EconomySnapshotRequestC2SPayload> CODEC =
-            PacketCodec.unit(new EconomySnapshotRequestC2SPayload());
+            PacketCodec.of(EconomySnapshotRequestC2SPayload::write, EconomySnapshotRequestC2SPayload::read);
+
+    private static EconomySnapshotRequestC2SPayload read(RegistryByteBuf buf) {
+        long lastSeenTxId = buf.readVarLong();
+        long epoch = buf.readLong();
+        return new EconomySnapshotRequestC2SPayload(lastSeenTxId, epoch);
+    }
+
+    private void write(RegistryByteBuf buf) {
+        buf.writeVarLong(this.lastSeenTxId);
+        buf.writeLong(this.epoch);
+    }
 
     @Override
     public CustomPayload.Id<? extends CustomPayload> getId() {
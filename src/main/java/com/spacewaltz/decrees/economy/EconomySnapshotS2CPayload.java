@@ -7,16 +7,39 @@ import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Server → Client snapshot:
+ * - kind: whether recentLines replace the client's lines, go in front of them, or are absent
  * - balance in base units (e.g. copper)
- * - up to N formatted ledger lines.
+ * - sinceTxId: for a DELTA, the lastSeenTxId of the request it answers
+ * - latestTxId: newest transaction id of the account once the lines are applied
+ * - epoch: changes when lines already sent would now be formatted differently
+ * - up to {@link #MAX_LINES} formatted ledger lines, newest first.
  */
-public record EconomySnapshotS2CPayload(long balanceCopper,
+public record EconomySnapshotS2CPayload(Kind kind,
+                                        long balanceCopper,
+                                        long sinceTxId,
+                                        long latestTxId,
+                                        long epoch,
                                         List<String> recentLines) implements CustomPayload {
 
+    /**
+     * Ledger lines the G-key panel shows.
+     */
+    public static final int MAX_LINES = 10;
+
+    public enum Kind {
+        /** recentLines are the whole list. */
+        FULL,
+        /** recentLines are the entries after sinceTxId; older ones are kept. */
+        DELTA,
+        /** The client's lines are current; only the balance is sent. */
+        NOT_MODIFIED
+    }
+
     public static final Identifier RAW_ID =
             Identifier.of(DecreesOfTheSix.MOD_ID, "economy_snapshot");
 
@@ -27,7 +50,15 @@ public record EconomySnapshotS2CPayload(long balanceCopper,
             PacketCodec.of(EconomySnapshotS2CPayload::write, EconomySnapshotS2CPayload::read);
 
     private static EconomySnapshotS2CPayload read(RegistryByteBuf buf) {
+        Kind kind = buf.readEnumConstant(Kind.class);
         long balance = buf.readVarLong();
+        long sinceTxId = buf.readVarLong();
+        long latestTxId = buf.readVarLong();
+        long epoch = buf.readLong();
+
+        if (kind == Kind.NOT_MODIFIED) {
+            return new EconomySnapshotS2CPayload(kind, balance, sinceTxId, latestTxId, epoch, Collections.emptyList());
+        }
 
         int size = buf.readVarInt();
         List<String> lines = new ArrayList<>(size);
@@ -35,11 +66,19 @@ public record EconomySnapshotS2CPayload(long balanceCopper,
             lines.add(buf.readString());
         }
 
-        return new EconomySnapshotS2CPayload(balance, lines);
+        return new EconomySnapshotS2CPayload(kind, balance, sinceTxId, latestTxId, epoch, lines);
     }
 
     private void write(RegistryByteBuf buf) {
+        buf.writeEnumConstant(this.kind);
         buf.writeVarLong(this.balanceCopper);
+        buf.writeVarLong(this.sinceTxId);
+        buf.writeVarLong(this.latestTxId);
+        buf.writeLong(this.epoch);
+
+        if (this.kind == Kind.NOT_MODIFIED) {
+            return;
+        }
 
         buf.writeVarInt(this.recentLines.size());
         for (String line : this.recentLines) {
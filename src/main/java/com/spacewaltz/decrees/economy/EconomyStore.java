@@ -2,20 +2,49 @@ package com.spacewaltz.decrees.economy;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import com.spacewaltz.decrees.DecreesOfTheSix;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.DurableFiles;
+import com.spacewaltz.decrees.storage.JsonFiles;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
+import com.spacewaltz.decrees.storage.StorageBackend;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
- * Stores all economy data (accounts + transactions) in economy.json on disk.
+ * Stores all economy data (accounts + transactions) in economy.json, through the
+ * {@link Storage} backend.
+ *
+ * economy.json is a checkpoint; changes made since the last checkpoint live in
+ * economy.journal (see {@link EconomyJournal}) and are replayed on load.
+ * Only a window of recent transactions is kept here; older ones are sealed into
+ * the binary ledger/ segment archive (see {@link LedgerArchive}).
+ *
+ * Thread safety: the store may be read and changed from any thread.
+ * <ul>
+ *   <li>Balance changes hold the state lock (shared, {@link #lockForChange()}) for their whole
+ *       duration; a checkpoint snapshot or a reload takes it exclusively, so neither sees half
+ *       a transfer.</li>
+ *   <li>Transaction ids are allocated and appended to the window, the indexes and the
+ *       journal in one short critical section ({@link #appendTransaction(EconomyTransaction)}),
+ *       which keeps the ledger in id order without a global transfer lock.</li>
+ *   <li>Ledger queries take the ledger read lock; accounts live in concurrent maps.</li>
+ * </ul>
  */
 public class EconomyStore {
 
@@ -23,14 +52,38 @@ public class EconomyStore {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
+    private static final String STORE_NAME = "economy.json";
 
-    private static final Path STORE_PATH = CONFIG_DIR.resolve("economy.json");
+    private static final String JOURNAL_NAME = "economy.journal";
 
-    // Singleton instance
-    private static EconomyStore INSTANCE = new EconomyStore();
+    private static final String PREV_JOURNAL_NAME = "economy.journal.prev";
+
+    static final String ACCOUNT_ID_PREFIX = "acc-";
+
+    /**
+     * Owner prefix of guild treasury SYSTEM accounts ("GUILD:&lt;id&gt;").
+     */
+    public static final String GUILD_OWNER_PREFIX = "GUILD:";
+
+    private static final DateTimeFormatter EXPORT_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final String LEDGER_DIR_NAME = "ledger";
+
+    /**
+     * After a failed seal, wait this long before trying again instead of retrying on every transaction.
+     */
+    private static final long SEAL_RETRY_MILLIS = 60_000L;
+
+    private static final PersistenceScheduler.Handle<Checkpoint> PERSISTENCE = PersistenceScheduler.register(
+            "economy store",
+            EconomyStore::snapshot,
+            EconomyStore::writeCheckpoint,
+            () -> EconomyConfig.get().journalCheckpointInterval,
+            () -> EconomyConfig.get().checkpointIntervalSeconds
+    );
+
+    // Singleton instance; replaced by a reload while the old one's state lock is held exclusively.
+    private static volatile EconomyStore INSTANCE = new EconomyStore();
 
     /**
      * Account id of the Treasury.
@@ -38,84 +91,540 @@ public class EconomyStore {
     public String treasuryAccountId;
 
     /**
-     * Next numeric part of account id (acc-<n>).
+     * Next numeric part of account id (acc-<n>). Guarded by the account creation lock in {@link EconomyService}.
      */
     public int nextAccountId = 1;
 
     /**
-     * Next transaction id.
+     * Next transaction id. Only advanced inside the ledger write lock.
      */
     public long nextTransactionId = 1L;
 
     /**
-     * All accounts, keyed by internal id.
+     * All accounts, keyed by internal id. A concurrent map once loaded.
      */
-    public Map<String, EconomyAccount> accounts = new HashMap<>();
+    public Map<String, EconomyAccount> accounts = new ConcurrentHashMap<>();
 
     /**
-     * All transactions, in chronological order.
-     * (Phase 1: no rolling buffer; can be added later.)
+     * Recent transactions, in chronological (= ascending id) order.
+     * Older transactions live in the segment archive; see {@link EconomyConfigData#ledgerWindowSize}.
+     * Append through {@link #addTransaction(EconomyTransaction)} so the indexes stay in sync.
      */
     public List<EconomyTransaction> transactions = new ArrayList<>();
 
+    /**
+     * Transfer request keys still within their TTL. Only set while a checkpoint is written
+     * or read; the live cache is {@link #requestKeys}.
+     */
+    private List<RequestKeyCache.Entry> recentRequests;
+
+    /**
+     * Secondary index: account type -> ownerId -> account.
+     * Not serialized; rebuilt on load and maintained by {@link #addAccount(EconomyAccount)}.
+     */
+    private transient Map<AccountType, Map<String, EconomyAccount>> accountsByOwner = newOwnerIndex();
+
+    /**
+     * Secondary index: account id -> ids of the transactions touching it, ascending.
+     * Not serialized; rebuilt on load and maintained by {@link #addTransaction(EconomyTransaction)}.
+     */
+    private transient Map<String, LongList> transactionIdsByAccount = new HashMap<>();
+
+    /**
+     * Sealed transactions that no longer fit in {@link #transactions}. Null until {@link #load()}.
+     */
+    private transient LedgerArchive archive;
+
+    /**
+     * Live and rotated journal files in the backend's directory; null (no journal) for a
+     * backend without one, or until {@link #load()}.
+     */
+    private transient Path journalPath;
+    private transient Path prevJournalPath;
+
+    /**
+     * Per-account balance checkpoints for point-in-time queries.
+     * Not serialized; rebuilt on load and maintained by {@link #addTransaction(EconomyTransaction)}.
+     */
+    private transient BalanceCheckpoints balanceCheckpoints = new BalanceCheckpoints(0);
+
+    /**
+     * Per-type and time indexes for {@link #query(LedgerQuery)}.
+     * Not serialized; rebuilt on load and maintained by {@link #addTransaction(EconomyTransaction)}.
+     */
+    private transient LedgerIndex ledgerIndex = new LedgerIndex();
+
+    /**
+     * Running totals and per-day rollups. Not serialized; rebuilt on load.
+     */
+    private transient EconomyAggregates aggregates = new EconomyAggregates(ZoneId.systemDefault());
+
+    /**
+     * Player and guild treasury accounts by balance. Not serialized; built once the store
+     * is loaded (null until then) and kept current as transactions are added.
+     */
+    private transient BalanceRanking ranking;
+
+    /**
+     * Recently used transfer request keys. Restored from {@link #recentRequests} on load and
+     * maintained by {@link #addTransaction(EconomyTransaction)}.
+     */
+    private transient RequestKeyCache requestKeys = new RequestKeyCache();
+
+    private transient long sealRetryAtMillis = 0L;
+
+    /**
+     * Newest timestamp in the ledger. New transactions are never stamped earlier, so
+     * timestamps ascend with the ids even if the clock steps back. Guarded by the ledger lock.
+     */
+    private transient long lastTimestamp = 0L;
+
+    /**
+     * Shared by balance changes, exclusive for checkpoint snapshots.
+     */
+    private final transient ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    /**
+     * Guards {@link #transactions}, {@link #transactionIdsByAccount}, the archive and {@link #nextTransactionId}.
+     */
+    private final transient ReentrantReadWriteLock ledgerLock = new ReentrantReadWriteLock();
+
     public static EconomyStore get() {
         return INSTANCE;
     }
 
+    /**
+     * Loads (or reloads) the store: reads the checkpoint, replays the journals into a new
+     * instance and only then publishes it.
+     *
+     * Background checkpoint writes are held off, and so is every balance change on the
+     * current store, until the new one is in place; a change that was waiting then runs
+     * against the new store (see {@link #lockForChange()}).
+     */
     public static void load() {
+        PERSISTENCE.exclusive(() -> {
+            EconomyStore previous = INSTANCE;
+            previous.stateLock.writeLock().lock();
+            try {
+                // A reload must not keep appending to a journal we are about to replay.
+                EconomyJournal.close();
+                boolean needsCheckpoint = replace();
+                if (needsCheckpoint) {
+                    save();
+                }
+            } finally {
+                previous.stateLock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Builds the store from the backend and publishes it.
+     *
+     * @return whether it should be folded into a fresh checkpoint right away.
+     */
+    private static boolean replace() {
+        StorageBackend backend = Storage.backend();
+        Path dir = backend.directory();
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            if (dir != null && !Files.exists(dir)) {
+                Files.createDirectories(dir);
             }
 
-            if (!Files.exists(STORE_PATH)) {
-                INSTANCE = new EconomyStore();
-                INSTANCE.ensureTreasuryAccount();
-                save();
-                return;
+            long start = System.nanoTime();
+            EconomyStore loaded;
+            try {
+                loaded = backend.read(STORE_NAME, GSON, EconomyStore.class);
+            } catch (IOException e) {
+                // Never silently start over on top of a damaged ledger: keep the file and say so loudly.
+                DecreesOfTheSix.LOGGER.error("No readable economy checkpoint " + STORE_NAME + " in " + backend
+                        + "; rebuilding from the journal alone.", e);
+                backend.quarantine(STORE_NAME);
+                loaded = null;
             }
+            EconomyStore store = loaded != null ? loaded : new EconomyStore();
+            store.requestKeys.restore(store.recentRequests);
+            store.recentRequests = null;
+            store.attachStorage(dir);
 
-            String json = Files.readString(STORE_PATH, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) {
-                INSTANCE = new EconomyStore();
-                INSTANCE.ensureTreasuryAccount();
-                return;
+            int replayed = EconomyJournal.replay(store.prevJournalPath, store)
+                    + EconomyJournal.replay(store.journalPath, store);
+            // Segments may be ahead of the checkpoint, but their balance effects were only in the journal.
+            if (store.archive != null) {
+                store.nextTransactionId = Math.max(store.nextTransactionId, store.archive.lastId() + 1);
             }
+            store.balanceCheckpoints.settle(store.accounts);
+            store.aggregates.settle(store.accounts);
+            store.rebuildRanking();
+            boolean treasuryCreated = store.ensureTreasuryAccount();
+            // Shrinks a ledger saved before the window existed (or with a larger window).
+            int sealed = store.sealOverflow();
 
-            EconomyStore loaded = GSON.fromJson(json, EconomyStore.class);
-            if (loaded == null) {
-                INSTANCE = new EconomyStore();
-            } else {
-                INSTANCE = loaded;
+            JsonFiles.logLoaded(STORE_NAME, start, store.accounts.size() + " accounts, "
+                    + store.transactions.size() + " recent and "
+                    + (store.archive != null ? store.archive.size() : 0) + " archived transactions, "
+                    + replayed + " journal records replayed");
+
+            if (sealed > 0) {
+                DecreesOfTheSix.LOGGER.info("Sealed {} economy ledger segment(s) into {}.", sealed,
+                        dir.resolve(LEDGER_DIR_NAME));
             }
-            INSTANCE.ensureTreasuryAccount();
+
+            INSTANCE = store;
+            // Fold the replayed tail (or a brand-new store) into a fresh checkpoint.
+            return replayed > 0 || sealed > 0 || treasuryCreated || !backend.exists(STORE_NAME);
         } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to load economy store from " + STORE_PATH, e);
-            INSTANCE = new EconomyStore();
-            INSTANCE.ensureTreasuryAccount();
+            DecreesOfTheSix.LOGGER.error("Failed to load economy store from " + backend, e);
+            EconomyStore store = new EconomyStore();
+            store.attachStorage(dir);
+            if (store.archive != null) {
+                store.nextTransactionId = store.archive.lastId() + 1;
+            }
+            store.balanceCheckpoints.settle(store.accounts);
+            store.aggregates.settle(store.accounts);
+            store.rebuildRanking();
+            store.ensureTreasuryAccount();
+            INSTANCE = store;
+            return false;
         }
     }
 
+    /**
+     * Writes a full checkpoint of the store to economy.json right now and drops the covered journal.
+     * Normal operation only journals; checkpoints are taken in the background by {@link PersistenceScheduler}.
+     */
     public static void save() {
+        PERSISTENCE.flushNow();
+    }
+
+    /**
+     * Copies the persisted state under the exclusive state lock and rotates the journal, so
+     * records appended from now on are not covered by this checkpoint. Only plain values are
+     * copied here; they are serialized on the writer thread, outside the lock.
+     */
+    private static Checkpoint snapshot() {
+        EconomyStore store = INSTANCE;
+        store.stateLock.writeLock().lock();
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+            Checkpoint checkpoint = new Checkpoint();
+            checkpoint.treasuryAccountId = store.treasuryAccountId;
+            checkpoint.nextAccountId = store.nextAccountId;
+            checkpoint.accounts = new LinkedHashMap<>(store.accounts.size() * 4 / 3 + 1);
+            for (Map.Entry<String, EconomyAccount> entry : store.accounts.entrySet()) {
+                checkpoint.accounts.put(entry.getKey(), copyOf(entry.getValue()));
+            }
+            store.ledgerLock.readLock().lock();
+            try {
+                checkpoint.nextTransactionId = store.nextTransactionId;
+                // Transactions are not changed once appended; sharing them is safe.
+                checkpoint.transactions = new ArrayList<>(store.transactions);
+            } finally {
+                store.ledgerLock.readLock().unlock();
+            }
+            checkpoint.recentRequests = store.requestKeys.snapshot();
+            EconomyJournal.rotate(store.journalPath, store.prevJournalPath);
+            return checkpoint;
+        } finally {
+            store.stateLock.writeLock().unlock();
+        }
+    }
+
+    private static void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Storage.backend().write(STORE_NAME, GSON, checkpoint, Checkpoint.class);
+        EconomyJournal.discard(INSTANCE.prevJournalPath);
+    }
+
+    private static EconomyAccount copyOf(EconomyAccount account) {
+        EconomyAccount copy = new EconomyAccount();
+        copy.id = account.id;
+        copy.type = account.type;
+        copy.ownerId = account.ownerId;
+        copy.balanceCopper = account.balanceCopper;
+        return copy;
+    }
+
+    /**
+     * The serialized fields of the store as of one checkpoint, owned by the writer thread.
+     * Same names and order as the fields above, so economy.json keeps its layout.
+     */
+    private static final class Checkpoint {
+        String treasuryAccountId;
+        int nextAccountId;
+        long nextTransactionId;
+        Map<String, EconomyAccount> accounts;
+        List<EconomyTransaction> transactions;
+        List<RequestKeyCache.Entry> recentRequests;
+    }
+
+    /**
+     * Appends a newly created account to the journal. Call before the account is added, so
+     * the record holds its opening balance; replay applies later credits from their own records.
+     */
+    public static void journalAccount(EconomyAccount account) {
+        EconomyJournal.appendAccount(INSTANCE.journalPath, copyOf(account), INSTANCE.nextAccountId);
+        PERSISTENCE.markDirty();
+    }
+
+    /**
+     * Takes the lock every balance change must hold (shared) from its balance check until its
+     * transaction is appended, on the current store, and returns that store. Checkpoint
+     * snapshots and reloads take the exclusive side; a caller that waited while a reload
+     * replaced the store retries on the new one. Release with {@link #unlockChange()}.
+     */
+    static EconomyStore lockForChange() {
+        while (true) {
+            EconomyStore store = INSTANCE;
+            store.stateLock.readLock().lock();
+            if (store == INSTANCE) {
+                return store;
+            }
+            store.stateLock.readLock().unlock();
+        }
+    }
+
+    void unlockChange() {
+        stateLock.readLock().unlock();
+    }
+
+    /**
+     * Whether every given account (nulls aside) is the instance this store holds under its id.
+     * An account looked up before a reload is not, and changing it would be lost.
+     */
+    boolean holds(EconomyAccount... held) {
+        for (EconomyAccount account : held) {
+            if (account != null && accounts.get(account.id) != account) {
+                return false;
             }
-            String json = GSON.toJson(INSTANCE);
-            Files.writeString(STORE_PATH, json, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to save economy store to " + STORE_PATH, e);
+        }
+        return true;
+    }
+
+    /**
+     * Assigns the next id and the timestamp to a new transaction, journals it and adds it to
+     * the ledger, atomically with respect to other appenders.
+     */
+    public void appendTransaction(EconomyTransaction tx) {
+        ledgerLock.writeLock().lock();
+        try {
+            tx.id = nextTransactionId++;
+            tx.timestamp = nextTimestamp();
+            // Journal first: adding may seal the oldest window entries into the archive.
+            EconomyJournal.appendTransaction(journalPath, tx);
+            addTransaction(tx);
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+        PERSISTENCE.markDirty();
+    }
+
+    /**
+     * The current time, or the newest ledger timestamp if the clock is behind it.
+     * Call under the ledger write lock.
+     */
+    private long nextTimestamp() {
+        return Math.max(System.currentTimeMillis(), lastTimestamp);
+    }
+
+    /**
+     * Id of the transaction recorded under a transfer request key hash, or null if the key
+     * is unknown or has expired. See {@link EconomyService#transfer(EconomyAccount, EconomyAccount, int, TransactionType, String, String)}.
+     */
+    Long findRequest(long requestKeyHash) {
+        return requestKeys.find(requestKeyHash);
+    }
+
+    /**
+     * Appends the legs of a batch as consecutive transactions with one timestamp, journaled as one record.
+     *
+     * @return the batch id (the id of the first leg).
+     */
+    public long appendBatch(List<EconomyTransaction> txs) {
+        long batchId;
+        ledgerLock.writeLock().lock();
+        try {
+            batchId = nextTransactionId;
+            long timestamp = nextTimestamp();
+            for (EconomyTransaction tx : txs) {
+                tx.id = nextTransactionId++;
+                tx.timestamp = timestamp;
+                tx.batchId = batchId;
+            }
+            EconomyJournal.appendBatch(journalPath, txs);
+            for (EconomyTransaction tx : txs) {
+                addTransaction(tx);
+            }
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+        PERSISTENCE.markDirty();
+        return batchId;
+    }
+
+    /**
+     * Writes the whole ledger (archived segments + in-memory window) as a JSON array of
+     * transactions to exports/ledger-&lt;timestamp&gt;.json, for admins and external tools.
+     *
+     * @return the file that was written.
+     */
+    public static Path exportLedgerJson() throws IOException {
+        EconomyStore store = INSTANCE;
+        Path dir = Storage.backend().directory();
+        if (dir == null) {
+            throw new IOException("Storage backend " + Storage.backend() + " cannot hold exports.");
+        }
+        Path target = dir.resolve("exports")
+                .resolve("ledger-" + EXPORT_STAMP.format(LocalDateTime.now()) + ".json");
+
+        DurableFiles.write(target, out -> {
+            JsonWriter writer = new JsonWriter(out);
+            writer.setIndent("  ");
+            writer.beginArray();
+            // One short-lived object per archived record; a write failure surfaces as JsonIOException.
+            store.forEachTransaction(tx -> GSON.toJson(tx, EconomyTransaction.class, writer));
+            writer.endArray();
+            writer.flush();
+        });
+        return target;
+    }
+
+    /**
+     * Passes every transaction, archived ones included, to {@code action} in id order.
+     * The window is copied first and archived records are materialized one at a time,
+     * so the ledger lock is not held while {@code action} runs.
+     */
+    public void forEachTransaction(Consumer<EconomyTransaction> action) {
+        List<EconomyTransaction> window;
+        long windowStart;
+        ledgerLock.readLock().lock();
+        try {
+            window = new ArrayList<>(transactions);
+            windowStart = window.isEmpty() ? nextTransactionId : window.get(0).id;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+
+        // Segments are immutable once sealed.
+        if (archive != null) {
+            archive.scan((segment, i) -> {
+                if (segment.id(i) < windowStart) {
+                    action.accept(segment.materialize(i));
+                }
+            });
+        }
+        for (EconomyTransaction tx : window) {
+            action.accept(tx);
+        }
+    }
+
+    /**
+     * Money supply, minted/burned totals and per-type volume, all-time and per day.
+     * Maintained as transactions are added; reading it never scans the ledger.
+     */
+    public EconomyAggregates aggregates() {
+        return aggregates;
+    }
+
+    /**
+     * One page of the wealth leaderboard (player accounts and guild treasuries), highest balance first.
+     *
+     * @param offset 0-based position of the first row
+     */
+    public List<RankedAccount> topAccounts(int offset, int limit) {
+        ledgerLock.readLock().lock();
+        try {
+            return ranking != null ? ranking.page(offset, limit) : new ArrayList<>();
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based leaderboard rank of an account, or -1 if it is not ranked.
+     */
+    public int rankOf(String accountId) {
+        ledgerLock.readLock().lock();
+        try {
+            return ranking != null && accountId != null ? ranking.rankOf(accountId) : -1;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of accounts on the leaderboard.
+     */
+    public int rankedCount() {
+        ledgerLock.readLock().lock();
+        try {
+            return ranking != null ? ranking.size() : 0;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether an account takes part in the leaderboard: players and guild treasuries.
+     */
+    static boolean isRanked(EconomyAccount account) {
+        return account != null && (account.type == AccountType.PLAYER
+                || (account.type == AccountType.SYSTEM && account.ownerId != null
+                && account.ownerId.startsWith(GUILD_OWNER_PREFIX)));
+    }
+
+    /**
+     * Guild id of a guild treasury account, or null for any other account.
+     */
+    public static Integer guildIdOf(EconomyAccount account) {
+        if (account == null || account.type != AccountType.SYSTEM || account.ownerId == null
+                || !account.ownerId.startsWith(GUILD_OWNER_PREFIX)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(account.ownerId.substring(GUILD_OWNER_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void rebuildRanking() {
+        ledgerLock.writeLock().lock();
+        try {
+            BalanceRanking built = new BalanceRanking();
+            for (EconomyAccount account : accounts.values()) {
+                if (isRanked(account)) {
+                    built.put(account.id, account.balanceCopper);
+                }
+            }
+            ranking = built;
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-keys one account after its balance changed. The caller holds the ledger write lock,
+     * and a live balance change still holds the account's lock, so the balance read is current.
+     */
+    private void updateRanking(String accountId) {
+        if (ranking == null || accountId == null) {
+            return;
+        }
+        EconomyAccount account = accounts.get(accountId);
+        if (isRanked(account)) {
+            ranking.put(account.id, account.balanceCopper);
         }
     }
 
     /**
      * Ensure we always have a Treasury account present.
+     *
+     * @return true if a new Treasury account had to be created.
      */
-    private void ensureTreasuryAccount() {
+    private boolean ensureTreasuryAccount() {
         if (treasuryAccountId != null && accounts.containsKey(treasuryAccountId)) {
             EconomyAccount acc = accounts.get(treasuryAccountId);
             if (acc != null && acc.type == AccountType.TREASURY) {
-                return;
+                return false;
             }
         }
 
@@ -126,15 +635,555 @@ public class EconomyStore {
         treasury.ownerId = "TREASURY";
         treasury.balanceCopper = 0;
 
-        accounts.put(treasury.id, treasury);
+        addAccount(treasury);
         treasuryAccountId = treasury.id;
+        return true;
+    }
+
+    /**
+     * Adds an account and indexes it by owner.
+     */
+    public void addAccount(EconomyAccount account) {
+        account.id = LedgerStrings.accountId(account.id);
+        accounts.put(account.id, account);
+        indexByOwner(account);
+
+        ledgerLock.writeLock().lock();
+        try {
+            balanceCheckpoints.open(account.id, account.balanceCopper);
+            aggregates.accountOpened(account.balanceCopper);
+            updateRanking(account.id);
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops an empty account from the store and its indexes, e.g. the treasury of a guild
+     * that no longer exists. Its past transactions stay in the ledger. Not journaled: if the
+     * server stops before the next checkpoint, the account comes back from the previous one.
+     *
+     * @return false if there is no such account, it still holds money or it is the Treasury.
+     */
+    public boolean removeAccount(String accountId) {
+        EconomyAccount account = accountId != null ? accounts.get(accountId) : null;
+        if (account == null || account.balanceCopper != 0 || accountId.equals(treasuryAccountId)) {
+            return false;
+        }
+
+        ledgerLock.writeLock().lock();
+        try {
+            accounts.remove(accountId);
+            if (account.type != null && account.ownerId != null) {
+                Map<String, EconomyAccount> byOwner = accountsByOwner.get(account.type);
+                if (byOwner.remove(account.ownerId, account)) {
+                    // Legacy data may hold a second account for the same owner; it takes over.
+                    for (EconomyAccount other : accounts.values()) {
+                        if (other.type == account.type && account.ownerId.equals(other.ownerId)) {
+                            byOwner.putIfAbsent(other.ownerId, other);
+                            break;
+                        }
+                    }
+                }
+            }
+            if (ranking != null) {
+                ranking.remove(accountId);
+            }
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+        PERSISTENCE.markDirty();
+        return true;
+    }
+
+    /**
+     * O(1) lookup of an account by its type and owner, e.g. (PLAYER, uuid) or (SYSTEM, "GUILD:3").
+     *
+     * @return the account, or null if none exists.
+     */
+    public EconomyAccount findAccountByOwner(AccountType type, String ownerId) {
+        if (type == null || ownerId == null) {
+            return null;
+        }
+        return accountsByOwner.get(type).get(ownerId);
+    }
+
+    /**
+     * Appends a transaction to the ledger and indexes it under both accounts.
+     * Transactions must be added in ascending id order.
+     */
+    public void addTransaction(EconomyTransaction tx) {
+        ledgerLock.writeLock().lock();
+        try {
+            if (archive != null && tx.id <= archive.lastId()) {
+                // Replaying a journal record that was sealed before the last checkpoint; already indexed.
+                return;
+            }
+            LedgerStrings.intern(tx);
+            transactions.add(tx);
+            indexTransaction(tx);
+            LedgerLineCache.invalidate(tx.fromAccountId, tx.toAccountId);
+            if (tx.requestKey != null) {
+                requestKeys.remember(tx.requestKey, tx.id, tx.timestamp);
+            }
+            sealOverflow();
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Seals the oldest part of the window into a new archive segment once the window
+     * has grown by a full segment. The segment is on disk before the transactions leave
+     * memory, and the next checkpoint no longer carries them.
+     */
+    private int sealOverflow() {
+        EconomyConfigData cfg = EconomyConfig.get();
+        int window = cfg.ledgerWindowSize;
+        if (archive == null || window <= 0) {
+            return 0;
+        }
+        int segmentSize = Math.max(1, cfg.ledgerSegmentSize);
+        int sealed = 0;
+        while (transactions.size() >= window + segmentSize) {
+            long now = System.currentTimeMillis();
+            if (now < sealRetryAtMillis) {
+                break;
+            }
+
+            List<EconomyTransaction> oldest = transactions.subList(0, segmentSize);
+            try {
+                archive.seal(oldest);
+            } catch (IOException e) {
+                DecreesOfTheSix.LOGGER.error("Failed to seal economy ledger segment; keeping transactions in memory.", e);
+                sealRetryAtMillis = now + SEAL_RETRY_MILLIS;
+                break;
+            }
+            oldest.clear();
+            sealed++;
+            PERSISTENCE.markDirty();
+        }
+        return sealed;
+    }
+
+    /**
+     * Total number of transactions, archived ones included.
+     */
+    public long transactionCount() {
+        ledgerLock.readLock().lock();
+        try {
+            return (archive != null ? archive.size() : 0L) + transactions.size();
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The newest transactions of the whole ledger, newest first, paging into the archive if needed.
+     */
+    public List<EconomyTransaction> latestTransactions(int limit) {
+        ledgerLock.readLock().lock();
+        try {
+            List<EconomyTransaction> result = new ArrayList<>(Math.max(0, limit));
+            for (int i = transactions.size() - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(transactions.get(i));
+            }
+            if (result.size() < limit && archive != null && !archive.isEmpty()) {
+                long beforeId = transactions.isEmpty() ? Long.MAX_VALUE : transactions.get(0).id;
+                result.addAll(archive.latest(beforeId, limit - result.size()));
+            }
+            return result;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a transaction by id: binary search in the window, then in the archive.
+     *
+     * @return the transaction, or null if it is not in the ledger.
+     */
+    public EconomyTransaction findTransaction(long id) {
+        ledgerLock.readLock().lock();
+        try {
+            if (archive != null && (transactions.isEmpty() || id < transactions.get(0).id)) {
+                return archive.find(id);
+            }
+
+            return findInWindow(id);
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    private EconomyTransaction findInWindow(long id) {
+        int lo = 0;
+        int hi = transactions.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = transactions.get(mid).id;
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return transactions.get(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of transactions that involve the given account.
+     */
+    public int countTransactionsFor(String accountId) {
+        ledgerLock.readLock().lock();
+        try {
+            LongList ids = accountId != null ? transactionIdsByAccount.get(accountId) : null;
+            return ids != null ? ids.size() : 0;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Id of the newest transaction that involves the given account, or 0 if there is none.
+     */
+    public long latestTransactionIdFor(String accountId) {
+        ledgerLock.readLock().lock();
+        try {
+            LongList ids = accountId != null ? transactionIdsByAccount.get(accountId) : null;
+            return ids != null && ids.size() > 0 ? ids.get(ids.size() - 1) : 0L;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transactions involving an account, newest first, skipping the newest {@code offset} of them.
+     * Cost is proportional to {@code limit}, not to the size of the ledger.
+     */
+    public List<EconomyTransaction> transactionsFor(String accountId, int offset, int limit) {
+        ledgerLock.readLock().lock();
+        try {
+            LongList ids = accountId != null ? transactionIdsByAccount.get(accountId) : null;
+            if (ids == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+            return collectNewestFirst(ids, ids.size() - 1 - Math.max(0, offset), limit);
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transactions involving an account with an id strictly below {@code beforeId}, newest first.
+     * Use the id of the last returned transaction as the cursor for the next page.
+     */
+    public List<EconomyTransaction> transactionsBefore(String accountId, long beforeId, int limit) {
+        ledgerLock.readLock().lock();
+        try {
+            LongList ids = accountId != null ? transactionIdsByAccount.get(accountId) : null;
+            if (ids == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+            return collectNewestFirst(ids, ids.countBelow(beforeId) - 1, limit);
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * An account's balance as of {@code timeMillis}: the balance after every transaction
+     * touching it that was recorded at or before that time.
+     *
+     * Starts from the newest balance checkpoint at or before the time and replays only the
+     * account's transactions after it (at most {@link EconomyConfigData#balanceCheckpointInterval}).
+     *
+     * @return the balance in copper, or null if the account is unknown.
+     */
+    public Long balanceAt(String accountId, long timeMillis) {
+        if (accountId == null) {
+            return null;
+        }
+        ledgerLock.readLock().lock();
+        try {
+            BalanceCheckpoints.Start start = balanceCheckpoints.startAt(accountId, timeMillis);
+            if (start == null) {
+                EconomyAccount account = accounts.get(accountId);
+                return account != null ? (long) account.balanceCopper : null;
+            }
+
+            long balance = start.balance();
+            LongList ids = transactionIdsByAccount.get(accountId);
+            if (ids == null) {
+                return balance;
+            }
+            for (int i = ids.countBelow(start.txId() + 1); i < ids.size(); i++) {
+                EconomyTransaction tx = findTransaction(ids.get(i));
+                if (tx == null) {
+                    continue;
+                }
+                if (tx.timestamp > timeMillis) {
+                    break;
+                }
+                if (accountId.equals(tx.fromAccountId)) {
+                    balance -= tx.amountCopper;
+                }
+                if (accountId.equals(tx.toAccountId)) {
+                    balance += tx.amountCopper - (tx.taxCopper != null ? tx.taxCopper : 0);
+                }
+            }
+            return balance;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a filtered ledger query, newest first, over the window and the archive.
+     *
+     * The scan walks the smallest applicable index (account, counterparty or a single type),
+     * or the ledger itself if no such filter is set, inside the id range implied by the time
+     * filters and the cursor. Archived records are tested in place; only matches are materialized.
+     */
+    public LedgerQuery.Page query(LedgerQuery query) {
+        ledgerLock.readLock().lock();
+        try {
+            long hi = Math.min(query.beforeId - 1, nextTransactionId - 1);
+            long lo = 0L;
+            if (query.fromMillis != Long.MIN_VALUE) {
+                lo = ledgerIndex.lowestIdSince(query.fromMillis);
+            }
+            if (query.toMillis != Long.MAX_VALUE) {
+                hi = Math.min(hi, ledgerIndex.highestIdUntil(query.toMillis));
+            }
+
+            LongList candidates = null;
+            if (query.accountId != null) {
+                candidates = indexedIdsFor(query.accountId);
+            }
+            if (query.counterpartyId != null) {
+                candidates = smaller(candidates, indexedIdsFor(query.counterpartyId));
+            }
+            if (query.types != null && query.types.size() == 1) {
+                candidates = smaller(candidates, ledgerIndex.idsFor(query.types.iterator().next()));
+            }
+
+            List<EconomyTransaction> result = new ArrayList<>(Math.min(query.limit, 64));
+            long windowStart = transactions.isEmpty() ? Long.MAX_VALUE : transactions.get(0).id;
+            LedgerArchive.RecordTest collect = (segment, i) -> {
+                if (query.matches(segment, i)) {
+                    result.add(segment.materialize(i));
+                }
+                return result.size() < query.limit;
+            };
+
+            if (candidates != null) {
+                for (int i = candidates.countBelow(hi + 1) - 1; i >= 0 && result.size() < query.limit; i--) {
+                    long id = candidates.get(i);
+                    if (id < lo) {
+                        break;
+                    }
+                    if (id >= windowStart) {
+                        EconomyTransaction tx = findInWindow(id);
+                        if (query.matches(tx)) {
+                            result.add(tx);
+                        }
+                    } else if (archive != null) {
+                        archive.test(id, collect);
+                    }
+                }
+            } else {
+                for (int i = transactions.size() - 1; i >= 0 && result.size() < query.limit; i--) {
+                    EconomyTransaction tx = transactions.get(i);
+                    if (tx.id > hi) {
+                        continue;
+                    }
+                    if (tx.id < lo) {
+                        break;
+                    }
+                    if (query.matches(tx)) {
+                        result.add(tx);
+                    }
+                }
+                if (result.size() < query.limit && archive != null && lo < windowStart) {
+                    archive.scanBackward(Math.min(hi, windowStart - 1), lo, collect);
+                }
+            }
+
+            long nextCursor = result.size() >= query.limit ? result.get(result.size() - 1).id : 0L;
+            return new LedgerQuery.Page(result, nextCursor);
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    private LongList indexedIdsFor(String accountId) {
+        LongList ids = transactionIdsByAccount.get(accountId);
+        return ids != null ? ids : new LongList(1);
+    }
+
+    private static LongList smaller(LongList a, LongList b) {
+        return a == null || b.size() < a.size() ? b : a;
+    }
+
+    private List<EconomyTransaction> collectNewestFirst(LongList ids, int startIndex, int limit) {
+        List<EconomyTransaction> result = new ArrayList<>(Math.min(limit, Math.max(0, startIndex + 1)));
+        for (int i = startIndex; i >= 0 && result.size() < limit; i--) {
+            EconomyTransaction tx = findTransaction(ids.get(i));
+            if (tx != null) {
+                result.add(tx);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Points the journal at {@code dir} and attaches its segment archive, dropping window
+     * entries the archive already holds (a crash between sealing and the next checkpoint),
+     * then rebuilds the indexes. With no directory there is no journal and no archive:
+     * the whole ledger stays in the window.
+     */
+    private void attachStorage(Path dir) {
+        if (dir != null) {
+            journalPath = dir.resolve(JOURNAL_NAME);
+            prevJournalPath = dir.resolve(PREV_JOURNAL_NAME);
+            archive = LedgerArchive.open(dir.resolve(LEDGER_DIR_NAME));
+            long archivedUpTo = archive.lastId();
+            if (archivedUpTo > 0L) {
+                transactions.removeIf(tx -> tx == null || tx.id <= archivedUpTo);
+            }
+        }
+        rebuildIndexes();
+    }
+
+    /**
+     * Rebuilds the transient indexes from {@link #accounts}, the archive and {@link #transactions}.
+     */
+    void rebuildIndexes() {
+        if (!(accounts instanceof ConcurrentHashMap)) {
+            // Gson fills the declared Map type with its own non-concurrent map.
+            accounts = accounts != null ? new ConcurrentHashMap<>(accounts) : new ConcurrentHashMap<>();
+        }
+
+        accountsByOwner = newOwnerIndex();
+        for (EconomyAccount account : accounts.values()) {
+            indexByOwner(account);
+        }
+
+        transactionIdsByAccount = new HashMap<>();
+        LedgerLineCache.clear();
+        balanceCheckpoints = new BalanceCheckpoints(EconomyConfig.get().balanceCheckpointInterval);
+        ledgerIndex = new LedgerIndex();
+        aggregates = new EconomyAggregates(ZoneId.systemDefault());
+        if (archive != null) {
+            // Read the mapped records in place; account ids come from the shared per-ordinal cache.
+            archive.scan((segment, i) -> {
+                int from = segment.fromOrdinal(i);
+                int to = segment.toOrdinal(i);
+                indexTransaction(
+                        segment.id(i),
+                        segment.timestamp(i),
+                        from >= 0 ? accountIdFor(from) : null,
+                        to >= 0 ? accountIdFor(to) : null,
+                        segment.amountCopper(i),
+                        segment.taxCopper(i),
+                        segment.type(i)
+                );
+            });
+        }
+        for (EconomyTransaction tx : transactions) {
+            if (tx != null) {
+                LedgerStrings.intern(tx);
+            }
+            indexTransaction(tx);
+        }
+    }
+
+    private void indexTransaction(EconomyTransaction tx) {
+        if (tx != null) {
+            indexTransaction(tx.id, tx.timestamp, tx.fromAccountId, tx.toAccountId, tx.amountCopper,
+                    tx.taxCopper != null ? tx.taxCopper : 0, tx.type);
+        }
+    }
+
+    private void indexTransaction(long txId,
+                                  long timestamp,
+                                  String fromAccountId,
+                                  String toAccountId,
+                                  int amountCopper,
+                                  int taxCopper,
+                                  TransactionType type) {
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        ledgerIndex.add(txId, timestamp, type);
+        balanceCheckpoints.record(txId, timestamp, fromAccountId, toAccountId, amountCopper, taxCopper);
+        aggregates.record(timestamp, fromAccountId, toAccountId, amountCopper, taxCopper, type);
+        updateRanking(fromAccountId);
+        updateRanking(toAccountId);
+        if (fromAccountId != null) {
+            transactionIdsByAccount.computeIfAbsent(fromAccountId, k -> new LongList()).add(txId);
+        }
+        if (toAccountId != null && !toAccountId.equals(fromAccountId)) {
+            transactionIdsByAccount.computeIfAbsent(toAccountId, k -> new LongList()).add(txId);
+        }
+    }
+
+    private void indexByOwner(EconomyAccount account) {
+        if (account == null || account.type == null || account.ownerId == null) {
+            return;
+        }
+        // First account wins, matching the old linear scan if legacy data holds duplicates.
+        accountsByOwner.get(account.type).putIfAbsent(account.ownerId, account);
+    }
+
+    /**
+     * One concurrent map per account type, created up front so the outer map is never modified.
+     */
+    private static Map<AccountType, Map<String, EconomyAccount>> newOwnerIndex() {
+        Map<AccountType, Map<String, EconomyAccount>> index = new EnumMap<>(AccountType.class);
+        for (AccountType type : AccountType.values()) {
+            index.put(type, new ConcurrentHashMap<>());
+        }
+        return index;
     }
 
     /**
      * Allocate a new account id.
      */
     public String generateAccountId() {
-        int id = nextAccountId++;
-        return "acc-" + id;
+        return accountIdFor(nextAccountId++);
+    }
+
+    /**
+     * Account id for a numeric ordinal (123 -> "acc-123"); the same shared instance every time.
+     */
+    static String accountIdFor(int ordinal) {
+        return LedgerStrings.accountIdFor(ordinal);
+    }
+
+    /**
+     * Numeric ordinal of a generated account id ("acc-123" -> 123), or -1 if the id has another form.
+     */
+    static int accountOrdinal(String accountId) {
+        if (accountId == null || !accountId.startsWith(ACCOUNT_ID_PREFIX)) {
+            return -1;
+        }
+        // Only canonical ids round-trip ("acc-007" or "acc-+7" would not).
+        int start = ACCOUNT_ID_PREFIX.length();
+        if (accountId.length() == start || (accountId.charAt(start) == '0' && accountId.length() > start + 1)) {
+            return -1;
+        }
+        for (int i = start; i < accountId.length(); i++) {
+            char c = accountId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Integer.parseInt(accountId, start, accountId.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 }
\ No newline at end of file
@@ -39,4 +39,24 @@ public class EconomyTransaction {
      * Optional free-form description or metadata.
      */
     public String description;
+
+    /**
+     * Id of the batch this transaction was recorded in (the id of the batch's first
+     * transaction), or null for a standalone transaction.
+     * See {@link EconomyService#transferBatch(java.util.List)}.
+     */
+    public Long batchId;
+
+    /**
+     * Transfer tax withheld from this payment, in copper, or null if untaxed.
+     * The receiver was credited {@code amountCopper - taxCopper}; the tax is paid into the
+     * Treasury later, together with other payments' tax, as one {@link TransactionType#TRANSFER_TAX}.
+     */
+    public Integer taxCopper;
+
+    /**
+     * Hash of the idempotency key the transfer was requested with, or null.
+     * Only kept while the transaction is in the journal or the in-memory window.
+     */
+    public Long requestKey;
 }
@@ -0,0 +1,299 @@
+package com.spacewaltz.decrees.economy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Immutable segments of old economy transactions.
+ *
+ * {@link EconomyStore} keeps only a window of recent transactions in memory. Once the window
+ * overflows, its oldest transactions are sealed into ledger/segment-&lt;firstId&gt;-&lt;lastId&gt;.bin
+ * (see {@link LedgerSegment} for the format) and dropped from economy.json. Segments are never
+ * rewritten; they are memory-mapped and read record by record, so scanning the archive does not
+ * create transaction objects and the OS page cache decides what stays in memory.
+ */
+final class LedgerArchive {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)-(\\d+)\\.bin");
+
+    // Segments written by earlier builds as gzip-compressed JSON; converted on open.
+    private static final Pattern LEGACY_SEGMENT_NAME = Pattern.compile("segment-(\\d+)-(\\d+)\\.json\\.gz");
+
+    private static final Gson GSON = new GsonBuilder().create();
+
+    /**
+     * Visits one record in place.
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(LedgerSegment segment, int index);
+    }
+
+    /**
+     * Tests one record in place; returning false stops a scan.
+     */
+    @FunctionalInterface
+    interface RecordTest {
+        boolean test(LedgerSegment segment, int index);
+    }
+
+    private final Path dir;
+
+    /**
+     * Sealed segments, ascending and non-overlapping. Copy-on-write so scans (exports) can run
+     * without the store's ledger lock while new segments are sealed.
+     */
+    private final List<LedgerSegment> segments = new CopyOnWriteArrayList<>();
+
+    private volatile long size = 0L;
+
+    private LedgerArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Opens and maps every segment in {@code dir}.
+     */
+    static LedgerArchive open(Path dir) {
+        LedgerArchive archive = new LedgerArchive(dir);
+        if (!Files.isDirectory(dir)) {
+            return archive;
+        }
+
+        convertLegacySegments(dir);
+
+        List<LedgerSegment> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "segment-*.bin")) {
+            for (Path path : stream) {
+                if (!SEGMENT_NAME.matcher(path.getFileName().toString()).matches()) {
+                    continue;
+                }
+                try {
+                    found.add(LedgerSegment.open(path));
+                } catch (IOException e) {
+                    DecreesOfTheSix.LOGGER.error("Failed to open ledger segment " + path
+                            + "; its transactions are missing from history.", e);
+                }
+            }
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to list ledger segments in " + dir, e);
+        }
+
+        found.sort(Comparator.comparingLong(s -> s.firstId));
+        List<LedgerSegment> accepted = new ArrayList<>();
+        long total = 0L;
+        for (LedgerSegment segment : found) {
+            if (segment.count() == 0) {
+                continue;
+            }
+            if (!accepted.isEmpty() && segment.firstId <= accepted.get(accepted.size() - 1).lastId) {
+                DecreesOfTheSix.LOGGER.warn("Ignoring ledger segment {} overlapping an earlier one.",
+                        segment.path.getFileName());
+                continue;
+            }
+            accepted.add(segment);
+            total += segment.count();
+        }
+        archive.segments.addAll(accepted);
+        archive.size = total;
+        return archive;
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Id of the newest archived transaction, or 0 if nothing is archived.
+     */
+    long lastId() {
+        return segments.isEmpty() ? 0L : segments.get(segments.size() - 1).lastId;
+    }
+
+    /**
+     * Number of archived transactions.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Writes the given transactions (ascending ids, all newer than {@link #lastId()}) as a new segment.
+     * Once this returns, the caller may drop them from memory.
+     */
+    void seal(List<EconomyTransaction> txs) throws IOException {
+        if (txs.isEmpty()) {
+            return;
+        }
+        long firstId = txs.get(0).id;
+        long lastId = txs.get(txs.size() - 1).id;
+        if (firstId <= lastId()) {
+            throw new IOException("Segment starting at #" + firstId + " overlaps the archive (last #" + lastId() + ")");
+        }
+
+        Path path = segmentPath(dir, firstId, lastId);
+        LedgerSegment.write(path, txs);
+        LedgerSegment segment = LedgerSegment.open(path);
+        segments.add(segment);
+        size += segment.count();
+    }
+
+    /**
+     * Looks up an archived transaction by id.
+     *
+     * @return the transaction, or null if no segment holds it.
+     */
+    EconomyTransaction find(long id) {
+        LedgerSegment segment = segmentFor(id);
+        if (segment == null) {
+            return null;
+        }
+        int index = segment.indexOf(id);
+        return index >= 0 ? segment.materialize(index) : null;
+    }
+
+    /**
+     * Archived transactions with an id strictly below {@code beforeId}, newest first.
+     * Only the returned records are materialized.
+     */
+    List<EconomyTransaction> latest(long beforeId, int limit) {
+        List<EconomyTransaction> result = new ArrayList<>();
+        for (int s = segments.size() - 1; s >= 0 && result.size() < limit; s--) {
+            LedgerSegment segment = segments.get(s);
+            if (segment.firstId >= beforeId) {
+                continue;
+            }
+            for (int i = segment.countBelow(beforeId) - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(segment.materialize(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits every archived record in ascending id order, reading the mapped segments in place.
+     */
+    void scan(RecordVisitor visitor) {
+        for (LedgerSegment segment : segments) {
+            for (int i = 0, n = segment.count(); i < n; i++) {
+                visitor.visit(segment, i);
+            }
+        }
+    }
+
+    /**
+     * Runs the test on the archived record with the given id, if there is one.
+     *
+     * @return the test's result, or true if no segment holds the id.
+     */
+    boolean test(long id, RecordTest test) {
+        LedgerSegment segment = segmentFor(id);
+        if (segment == null) {
+            return true;
+        }
+        int index = segment.indexOf(id);
+        return index < 0 || test.test(segment, index);
+    }
+
+    /**
+     * Visits archived records with ids in [lowId, highId], newest first, until the test returns false.
+     */
+    void scanBackward(long highId, long lowId, RecordTest test) {
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            LedgerSegment segment = segments.get(s);
+            if (segment.firstId > highId) {
+                continue;
+            }
+            if (segment.lastId < lowId) {
+                return;
+            }
+            for (int i = segment.countBelow(highId + 1) - 1; i >= 0; i--) {
+                if (segment.id(i) < lowId || !test.test(segment, i)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private LedgerSegment segmentFor(long id) {
+        int lo = 0;
+        int hi = segments.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            LedgerSegment segment = segments.get(mid);
+            if (segment.lastId < id) {
+                lo = mid + 1;
+            } else if (segment.firstId > id) {
+                hi = mid - 1;
+            } else {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private static Path segmentPath(Path dir, long firstId, long lastId) {
+        return dir.resolve("segment-" + firstId + "-" + lastId + ".bin");
+    }
+
+    /**
+     * Rewrites gzip JSON segments from earlier builds in the binary format.
+     * The JSON file is only deleted once its binary replacement is on disk.
+     */
+    private static void convertLegacySegments(Path dir) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "segment-*.json.gz")) {
+            for (Path legacy : stream) {
+                Matcher m = LEGACY_SEGMENT_NAME.matcher(legacy.getFileName().toString());
+                if (!m.matches()) {
+                    continue;
+                }
+                Path target = segmentPath(dir, Long.parseLong(m.group(1)), Long.parseLong(m.group(2)));
+                try {
+                    if (!Files.exists(target)) {
+                        LedgerSegment.write(target, readLegacy(legacy));
+                    }
+                    Files.delete(legacy);
+                    DecreesOfTheSix.LOGGER.info("Converted ledger segment {} to {}.",
+                            legacy.getFileName(), target.getFileName());
+                } catch (IOException | RuntimeException e) {
+                    DecreesOfTheSix.LOGGER.error("Failed to convert ledger segment " + legacy, e);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to list legacy ledger segments in " + dir, e);
+        }
+    }
+
+    private static List<EconomyTransaction> readLegacy(Path path) throws IOException {
+        List<EconomyTransaction> txs = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path));
+             JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                EconomyTransaction tx = GSON.fromJson(reader, EconomyTransaction.class);
+                if (tx != null) {
+                    txs.add(tx);
+                }
+            }
+            reader.endArray();
+        }
+        return txs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-type and time indexes over the whole ledger (window and archive), used by
+ * {@link EconomyStore#query(LedgerQuery)} next to the per-account index.
+ *
+ * The type index lists the ids of each {@link TransactionType}, ascending. The time index
+ * does not store every timestamp: ids and timestamps both ascend, so it samples every
+ * {@link #TIME_SAMPLE_EVERY}th transaction and turns a time bound into an id bound that is
+ * at most one sample too wide; queries check exact timestamps on the few extra rows.
+ *
+ * Not thread-safe; {@link EconomyStore} guards it with its ledger lock.
+ */
+final class LedgerIndex {
+
+    static final int TIME_SAMPLE_EVERY = 64;
+
+    private static final LongList EMPTY = new LongList(1);
+
+    private final Map<TransactionType, LongList> idsByType = new EnumMap<>(TransactionType.class);
+
+    private final LongList sampleIds = new LongList();
+
+    // Running maximum, so the list stays sorted even if the clock stepped back.
+    private final LongList sampleMaxTimestamps = new LongList();
+
+    private long maxTimestamp = Long.MIN_VALUE;
+    private long sinceSample = 0L;
+
+    /**
+     * Adds one transaction; calls must come in ascending id order.
+     */
+    void add(long txId, long timestamp, TransactionType type) {
+        if (type != null) {
+            idsByType.computeIfAbsent(type, t -> new LongList()).add(txId);
+        }
+
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        if (sinceSample++ % TIME_SAMPLE_EVERY == 0) {
+            sampleIds.add(txId);
+            sampleMaxTimestamps.add(maxTimestamp);
+        }
+    }
+
+    /**
+     * Ids of all transactions of a type, ascending. Do not modify.
+     */
+    LongList idsFor(TransactionType type) {
+        LongList ids = idsByType.get(type);
+        return ids != null ? ids : EMPTY;
+    }
+
+    /**
+     * Lowest id that may have a timestamp at or after {@code fromMillis}; every smaller id is older.
+     */
+    long lowestIdSince(long fromMillis) {
+        int k = sampleMaxTimestamps.countBelow(fromMillis) - 1;
+        return k >= 0 ? sampleIds.get(k) + 1 : 0L;
+    }
+
+    /**
+     * Highest id that may have a timestamp at or before {@code toMillis}.
+     */
+    long highestIdUntil(long toMillis) {
+        int k = sampleMaxTimestamps.countBelow(toMillis + 1);
+        return k < sampleIds.size() ? sampleIds.get(k) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,144 @@
+package com.spacewaltz.decrees.economy;
+
+import com.spacewaltz.decrees.PlayerNames;
+import com.spacewaltz.decrees.guilds.GuildStore;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The G-key panel's formatted recent-ledger lines per account, so a repeated snapshot
+ * request does not format the same transactions again.
+ *
+ * An account's entry is dropped when a transaction touching it is added to the ledger, and
+ * all entries when the store reloads. An entry built under another {@link EconomyConfigData}
+ * instance (the currency settings were reloaded) or before a player or guild was renamed
+ * ({@link #names()}) is not served. Bounded LRU of {@link #MAX_ACCOUNTS}
+ * accounts. Thread-safe.
+ *
+ * Also hands out the snapshot epoch ({@link #epoch}), which changes on exactly those events,
+ * so a client holding lines from an older epoch is sent the full list again.
+ */
+final class LedgerLineCache {
+
+    static final int MAX_ACCOUNTS = 4096;
+
+    private record Entry(List<String> lines, int maxEntries, EconomyConfigData config, long names) {
+    }
+
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ACCOUNTS;
+        }
+    };
+
+    /**
+     * Bumped by every invalidation, so lines built while the ledger changed are not stored.
+     */
+    private static long version = 0L;
+
+    /**
+     * Starts from the clock so a client cannot mistake a restarted server's epoch for the one
+     * its lines came from.
+     */
+    private static long epoch = System.currentTimeMillis();
+    private static EconomyConfigData epochConfig;
+    private static long epochNames;
+
+    private LedgerLineCache() {
+    }
+
+    /**
+     * Cached lines for the account, or null if they have to be built.
+     */
+    static List<String> get(String accountId, int maxEntries, EconomyConfigData config) {
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(accountId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.maxEntries() != maxEntries || entry.config() != config
+                    || entry.names() != names()) {
+                ENTRIES.remove(accountId);
+                return null;
+            }
+            return entry.lines();
+        }
+    }
+
+    /**
+     * Changes whenever a player or guild name in the lines may have changed. Both
+     * generations only grow, so their sum changes when either does.
+     */
+    static long names() {
+        return PlayerNames.generation() + GuildStore.nameGeneration();
+    }
+
+    /**
+     * Current version; take it before reading the ledger and pass it to {@link #put}.
+     */
+    static long version() {
+        synchronized (ENTRIES) {
+            return version;
+        }
+    }
+
+    /**
+     * Current snapshot epoch. Lines formatted under one epoch look the same when formatted
+     * again under it; a config reload, a player or guild rename or a store reload starts a new one.
+     */
+    static long epoch(EconomyConfigData config) {
+        synchronized (ENTRIES) {
+            long names = names();
+            if (config != epochConfig || names != epochNames) {
+                if (epochConfig != null) {
+                    epoch++;
+                }
+                epochConfig = config;
+                epochNames = names;
+            }
+            return epoch;
+        }
+    }
+
+    /**
+     * Stores freshly built lines, unless the ledger changed since {@code builtAt} was taken.
+     *
+     * @param names {@link #names()} taken before the lines were built
+     */
+    static void put(String accountId, int maxEntries, EconomyConfigData config, long names,
+                    long builtAt, List<String> lines) {
+        synchronized (ENTRIES) {
+            if (builtAt == version) {
+                ENTRIES.put(accountId, new Entry(List.copyOf(lines), maxEntries, config, names));
+            }
+        }
+    }
+
+    /**
+     * Drops the entries of the accounts on either side of a new transaction.
+     */
+    static void invalidate(String fromAccountId, String toAccountId) {
+        synchronized (ENTRIES) {
+            version++;
+            if (!ENTRIES.isEmpty()) {
+                if (fromAccountId != null) {
+                    ENTRIES.remove(fromAccountId);
+                }
+                if (toAccountId != null) {
+                    ENTRIES.remove(toAccountId);
+                }
+            }
+        }
+    }
+
+    static void clear() {
+        synchronized (ENTRIES) {
+            version++;
+            epoch++;
+            ENTRIES.clear();
+        }
+    }
+}
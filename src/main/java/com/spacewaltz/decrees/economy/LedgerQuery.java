@@ -0,0 +1,199 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filter over the economy ledger, run by {@link EconomyStore#query(LedgerQuery)}.
+ *
+ * Every filter is optional; unset filters match everything. Results come newest first.
+ * To page, pass the {@link Page#nextCursor()} of one page as {@link Builder#before(long)}
+ * of the next query.
+ *
+ * <pre>
+ *   LedgerQuery.builder()
+ *           .account(playerAccount.id)
+ *           .types(TransactionType.PLAYER_PAYMENT)
+ *           .since(yesterday)
+ *           .minAmount(1000)
+ *           .limit(20)
+ *           .build();
+ * </pre>
+ */
+public final class LedgerQuery {
+
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Transactions touching this account (either side), or null for any.
+     */
+    final String accountId;
+
+    /**
+     * Transactions touching this account as well (with {@link #accountId}: between the two), or null.
+     */
+    final String counterpartyId;
+
+    /**
+     * Allowed types, or null for any.
+     */
+    final Set<TransactionType> types;
+
+    final long fromMillis;
+    final long toMillis;
+    final int minAmount;
+    final int maxAmount;
+
+    /**
+     * Only transactions with an id strictly below this (the paging cursor).
+     */
+    final long beforeId;
+
+    final int limit;
+
+    // Segment records store account ordinals; resolved once per query.
+    private final int accountOrdinal;
+    private final int counterpartyOrdinal;
+
+    private LedgerQuery(Builder b) {
+        this.accountId = b.accountId;
+        this.counterpartyId = b.counterpartyId;
+        this.types = b.types;
+        this.fromMillis = b.fromMillis;
+        this.toMillis = b.toMillis;
+        this.minAmount = b.minAmount;
+        this.maxAmount = b.maxAmount;
+        this.beforeId = b.beforeId;
+        this.limit = b.limit;
+        this.accountOrdinal = EconomyStore.accountOrdinal(accountId);
+        this.counterpartyOrdinal = EconomyStore.accountOrdinal(counterpartyId);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * One page of results.
+     *
+     * @param transactions matches, newest first
+     * @param nextCursor   value for {@link Builder#before(long)} to fetch the next page, or 0 if there is none
+     */
+    public record Page(List<EconomyTransaction> transactions, long nextCursor) {
+    }
+
+    boolean matches(EconomyTransaction tx) {
+        if (tx == null) {
+            return false;
+        }
+        return matches(tx.timestamp, tx.amountCopper, tx.type)
+                && touches(tx, accountId)
+                && touches(tx, counterpartyId);
+    }
+
+    /**
+     * Tests an archived record in place. Account ids that cannot be stored in a
+     * segment (see {@link EconomyStore#accountOrdinal(String)}) never match one.
+     */
+    boolean matches(LedgerSegment segment, int index) {
+        return matches(segment.timestamp(index), segment.amountCopper(index), segment.type(index))
+                && touches(segment, index, accountId, accountOrdinal)
+                && touches(segment, index, counterpartyId, counterpartyOrdinal);
+    }
+
+    private boolean matches(long timestamp, int amountCopper, TransactionType type) {
+        return timestamp >= fromMillis && timestamp <= toMillis
+                && amountCopper >= minAmount && amountCopper <= maxAmount
+                && (types == null || (type != null && types.contains(type)));
+    }
+
+    private static boolean touches(EconomyTransaction tx, String accountId) {
+        return accountId == null || accountId.equals(tx.fromAccountId) || accountId.equals(tx.toAccountId);
+    }
+
+    private static boolean touches(LedgerSegment segment, int index, String accountId, int ordinal) {
+        if (accountId == null) {
+            return true;
+        }
+        return ordinal >= 0 && (segment.fromOrdinal(index) == ordinal || segment.toOrdinal(index) == ordinal);
+    }
+
+    public static final class Builder {
+        private String accountId;
+        private String counterpartyId;
+        private Set<TransactionType> types;
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+        private int minAmount = Integer.MIN_VALUE;
+        private int maxAmount = Integer.MAX_VALUE;
+        private long beforeId = Long.MAX_VALUE;
+        private int limit = 10;
+
+        private Builder() {
+        }
+
+        public Builder account(String accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Builder counterparty(String accountId) {
+            this.counterpartyId = accountId;
+            return this;
+        }
+
+        public Builder types(TransactionType first, TransactionType... rest) {
+            this.types = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public Builder types(Set<TransactionType> types) {
+            this.types = types == null || types.isEmpty() ? null : EnumSet.copyOf(types);
+            return this;
+        }
+
+        /**
+         * Only transactions at or after this time (epoch millis).
+         */
+        public Builder since(long fromMillis) {
+            this.fromMillis = fromMillis;
+            return this;
+        }
+
+        /**
+         * Only transactions at or before this time (epoch millis).
+         */
+        public Builder until(long toMillis) {
+            this.toMillis = toMillis;
+            return this;
+        }
+
+        public Builder minAmount(int copper) {
+            this.minAmount = copper;
+            return this;
+        }
+
+        public Builder maxAmount(int copper) {
+            this.maxAmount = copper;
+            return this;
+        }
+
+        public Builder before(long cursor) {
+            this.beforeId = cursor > 0L ? cursor : Long.MAX_VALUE;
+            return this;
+        }
+
+        /**
+         * Page size, clamped to 1..{@link #MAX_LIMIT}.
+         */
+        public Builder limit(int limit) {
+            this.limit = Math.max(1, Math.min(MAX_LIMIT, limit));
+            return this;
+        }
+
+        public LedgerQuery build() {
+            return new LedgerQuery(this);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.spacewaltz.decrees.economy;
+
+import com.spacewaltz.decrees.storage.DurableFiles;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One sealed ledger segment in the compact binary format, read through a memory mapping.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header  (40 bytes)  magic, version, record size, record count, dictionary size,
+ *                       first id, last id, dictionary offset
+ *   records (48 bytes each, ascending id)
+ *           id:long, timestamp:long, from:int, to:int, amount:int,
+ *           type:short, reserved:short, description:int, batch:long (0 = none), tax:int
+ *   dictionary          per distinct description: length:int, UTF-8 bytes
+ * </pre>
+ * Accounts are stored as their numeric ordinal ("acc-123" -> 123, -1 = none) and descriptions
+ * as an index into the segment's own dictionary (-1 = none), so records are fixed width and
+ * can be read in place by index without creating {@link EconomyTransaction} objects.
+ * Version 1 (36-byte records, no batch id) and version 2 segments (44-byte records, no tax)
+ * are still readable.
+ */
+final class LedgerSegment {
+
+    static final int MAGIC = 0x444C4731; // "DLG1"
+    static final short VERSION = 3;
+
+    static final int HEADER_BYTES = 40;
+    static final int RECORD_BYTES = 48;
+
+    private static final int V1_RECORD_BYTES = 36;
+    private static final int V2_RECORD_BYTES = 44;
+
+    static final int NONE = -1;
+
+    private static final int OFF_ID = 0;
+    private static final int OFF_TIMESTAMP = 8;
+    private static final int OFF_FROM = 16;
+    private static final int OFF_TO = 20;
+    private static final int OFF_AMOUNT = 24;
+    private static final int OFF_TYPE = 28;
+    private static final int OFF_DESCRIPTION = 32;
+    private static final int OFF_BATCH = 36;
+    private static final int OFF_TAX = 44;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    final Path path;
+    final long firstId;
+    final long lastId;
+
+    private final MappedByteBuffer buffer;
+    private final int recordBytes;
+    private final int count;
+    private final int dictionarySize;
+    private final long dictionaryOffset;
+
+    private String[] descriptions; // decoded on first use
+
+    private LedgerSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a ledger segment: " + path);
+        }
+        short version = buffer.getShort(4);
+        this.recordBytes = buffer.getShort(6);
+        if (!(version == VERSION && recordBytes == RECORD_BYTES)
+                && !(version == 2 && recordBytes == V2_RECORD_BYTES)
+                && !(version == 1 && recordBytes == V1_RECORD_BYTES)) {
+            throw new IOException("Unsupported ledger segment version " + version + " in " + path);
+        }
+        this.count = buffer.getInt(8);
+        this.dictionarySize = buffer.getInt(12);
+        this.firstId = buffer.getLong(16);
+        this.lastId = buffer.getLong(24);
+        this.dictionaryOffset = buffer.getLong(32);
+        if (count < 0 || dictionaryOffset != HEADER_BYTES + (long) count * recordBytes
+                || dictionaryOffset > buffer.capacity()) {
+            throw new IOException("Truncated ledger segment " + path);
+        }
+    }
+
+    /**
+     * Maps an existing segment file read-only and validates its header.
+     */
+    static LedgerSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LedgerSegment(path, buffer);
+        }
+    }
+
+    /**
+     * Writes the given transactions (ascending ids) as a new segment file.
+     *
+     * @throws IOException if an account id is not of the generated "acc-N" form.
+     */
+    static void write(Path path, List<EconomyTransaction> txs) throws IOException {
+        Map<String, Integer> dictionaryIds = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] descriptionIds = new int[txs.size()];
+        for (int i = 0; i < txs.size(); i++) {
+            String description = txs.get(i).description;
+            if (description == null) {
+                descriptionIds[i] = NONE;
+                continue;
+            }
+            descriptionIds[i] = dictionaryIds.computeIfAbsent(description, d -> {
+                dictionary.add(d);
+                return dictionary.size() - 1;
+            });
+        }
+
+        long firstId = txs.isEmpty() ? 0L : txs.get(0).id;
+        long lastId = txs.isEmpty() ? 0L : txs.get(txs.size() - 1).id;
+
+        DurableFiles.writeBytes(path, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(RECORD_BYTES);
+            out.writeInt(txs.size());
+            out.writeInt(dictionary.size());
+            out.writeLong(firstId);
+            out.writeLong(lastId);
+            out.writeLong(HEADER_BYTES + (long) txs.size() * RECORD_BYTES);
+
+            for (int i = 0; i < txs.size(); i++) {
+                EconomyTransaction tx = txs.get(i);
+                out.writeLong(tx.id);
+                out.writeLong(tx.timestamp);
+                out.writeInt(ordinalOf(tx.fromAccountId));
+                out.writeInt(ordinalOf(tx.toAccountId));
+                out.writeInt(tx.amountCopper);
+                out.writeShort(tx.type != null ? tx.type.ordinal() : NONE);
+                out.writeShort(0);
+                out.writeInt(descriptionIds[i]);
+                out.writeLong(tx.batchId != null ? tx.batchId : 0L);
+                out.writeInt(tx.taxCopper != null ? tx.taxCopper : 0);
+            }
+
+            for (String description : dictionary) {
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+        });
+    }
+
+    private static int ordinalOf(String accountId) throws IOException {
+        if (accountId == null) {
+            return NONE;
+        }
+        int ordinal = EconomyStore.accountOrdinal(accountId);
+        if (ordinal < 0) {
+            throw new IOException("Account id '" + accountId + "' cannot be stored in a ledger segment");
+        }
+        return ordinal;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long id(int index) {
+        return buffer.getLong(offset(index) + OFF_ID);
+    }
+
+    long timestamp(int index) {
+        return buffer.getLong(offset(index) + OFF_TIMESTAMP);
+    }
+
+    /**
+     * Account ordinal of the source, or {@link #NONE} for minting.
+     */
+    int fromOrdinal(int index) {
+        return buffer.getInt(offset(index) + OFF_FROM);
+    }
+
+    /**
+     * Account ordinal of the destination, or {@link #NONE} for burning.
+     */
+    int toOrdinal(int index) {
+        return buffer.getInt(offset(index) + OFF_TO);
+    }
+
+    int amountCopper(int index) {
+        return buffer.getInt(offset(index) + OFF_AMOUNT);
+    }
+
+    TransactionType type(int index) {
+        short ordinal = buffer.getShort(offset(index) + OFF_TYPE);
+        return ordinal >= 0 && ordinal < TYPES.length ? TYPES[ordinal] : null;
+    }
+
+    String description(int index) {
+        int id = buffer.getInt(offset(index) + OFF_DESCRIPTION);
+        if (id < 0) {
+            return null;
+        }
+        String[] dictionary = descriptions();
+        return id < dictionary.length ? dictionary[id] : null;
+    }
+
+    /**
+     * Batch id of the record, or 0 if it was not part of a batch.
+     */
+    long batchId(int index) {
+        return recordBytes >= OFF_BATCH + 8 ? buffer.getLong(offset(index) + OFF_BATCH) : 0L;
+    }
+
+    /**
+     * Transfer tax withheld from the record's receiver, or 0.
+     */
+    int taxCopper(int index) {
+        return recordBytes >= OFF_TAX + 4 ? buffer.getInt(offset(index) + OFF_TAX) : 0;
+    }
+
+    /**
+     * Index of the first record with an id of at least {@code id} (binary search).
+     */
+    int countBelow(long id) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (id(mid) < id) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the record with the given id, or -1.
+     */
+    int indexOf(long id) {
+        int index = countBelow(id);
+        return index < count && id(index) == id ? index : NONE;
+    }
+
+    /**
+     * Creates a standalone transaction object for one record.
+     */
+    EconomyTransaction materialize(int index) {
+        EconomyTransaction tx = new EconomyTransaction();
+        tx.id = id(index);
+        tx.timestamp = timestamp(index);
+        int from = fromOrdinal(index);
+        int to = toOrdinal(index);
+        tx.fromAccountId = from >= 0 ? EconomyStore.accountIdFor(from) : null;
+        tx.toAccountId = to >= 0 ? EconomyStore.accountIdFor(to) : null;
+        tx.amountCopper = amountCopper(index);
+        tx.type = type(index);
+        tx.description = description(index);
+        long batch = batchId(index);
+        tx.batchId = batch != 0L ? batch : null;
+        int tax = taxCopper(index);
+        tx.taxCopper = tax != 0 ? tax : null;
+        return tx;
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " out of bounds for " + count);
+        }
+        return HEADER_BYTES + index * recordBytes;
+    }
+
+    private synchronized String[] descriptions() {
+        if (descriptions == null) {
+            String[] decoded = new String[dictionarySize];
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) dictionaryOffset);
+            for (int i = 0; i < dictionarySize; i++) {
+                byte[] bytes = new byte[view.getInt()];
+                view.get(bytes);
+                decoded[i] = LedgerStrings.description(new String(bytes, StandardCharsets.UTF_8));
+            }
+            descriptions = decoded;
+        }
+        return descriptions;
+    }
+}
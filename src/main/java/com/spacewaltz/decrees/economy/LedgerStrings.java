@@ -0,0 +1,100 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared instances of the strings the ledger repeats on every transaction.
+ *
+ * Almost every description is one of a few literals and every account id is "acc-N", so
+ * without sharing each of millions of in-memory transactions carries its own copies.
+ * Transactions entering the ledger (created, replayed, loaded from a checkpoint or read
+ * back from a segment) have their strings swapped for the canonical instance, which makes
+ * the window and materialized history cost one reference per field.
+ *
+ * Account ids are kept in an array indexed by ordinal; descriptions in a dictionary that
+ * stops growing at {@link #MAX_DESCRIPTIONS} entries, so one-off free text does not pile up.
+ * Thread-safe.
+ */
+final class LedgerStrings {
+
+    static final int MAX_DESCRIPTIONS = 4096;
+
+    /**
+     * Ordinals past this are not cached, so a stray huge id cannot blow up the array.
+     */
+    private static final int MAX_CACHED_ORDINAL = 1 << 22;
+
+    private static final ConcurrentHashMap<String, String> DESCRIPTIONS = new ConcurrentHashMap<>();
+
+    private static volatile String[] accountIds = new String[256];
+
+    private LedgerStrings() {
+    }
+
+    /**
+     * The shared "acc-N" string for an account ordinal.
+     */
+    static String accountIdFor(int ordinal) {
+        String[] ids = accountIds;
+        if (ordinal < ids.length) {
+            String id = ids[ordinal];
+            if (id != null) {
+                return id;
+            }
+        }
+        if (ordinal >= MAX_CACHED_ORDINAL) {
+            return EconomyStore.ACCOUNT_ID_PREFIX + ordinal;
+        }
+        return cacheAccountId(ordinal);
+    }
+
+    private static synchronized String cacheAccountId(int ordinal) {
+        String[] ids = accountIds;
+        if (ordinal >= ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, ordinal + 1));
+        }
+        String id = ids[ordinal];
+        if (id == null) {
+            id = EconomyStore.ACCOUNT_ID_PREFIX + ordinal;
+            ids[ordinal] = id;
+        }
+        accountIds = ids;
+        return id;
+    }
+
+    /**
+     * Canonical instance of an account id; ids not of the generated form are returned as is.
+     */
+    static String accountId(String accountId) {
+        int ordinal = EconomyStore.accountOrdinal(accountId);
+        return ordinal >= 0 ? accountIdFor(ordinal) : accountId;
+    }
+
+    /**
+     * Canonical instance of a description, or the description itself once the dictionary is full.
+     */
+    static String description(String description) {
+        if (description == null) {
+            return null;
+        }
+        String shared = DESCRIPTIONS.get(description);
+        if (shared != null) {
+            return shared;
+        }
+        if (DESCRIPTIONS.size() >= MAX_DESCRIPTIONS) {
+            return description;
+        }
+        shared = DESCRIPTIONS.putIfAbsent(description, description);
+        return shared != null ? shared : description;
+    }
+
+    /**
+     * Replaces the transaction's strings with the shared instances.
+     */
+    static void intern(EconomyTransaction tx) {
+        tx.fromAccountId = accountId(tx.fromAccountId);
+        tx.toAccountId = accountId(tx.toAccountId);
+        tx.description = description(tx.description);
+    }
+}
@@ -0,0 +1,65 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.Arrays;
+
+/**
+ * Minimal growable list of primitive longs, kept sorted by the callers that append to it.
+ * Used for the ledger indexes so millions of transaction ids do not become boxed Longs.
+ */
+final class LongList {
+
+    private long[] values;
+    private int size;
+
+    LongList() {
+        this(4);
+    }
+
+    LongList(int capacity) {
+        this.values = new long[Math.max(1, capacity)];
+    }
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long last() {
+        return get(size - 1);
+    }
+
+    /**
+     * Number of values strictly lower than {@code key}, assuming ascending order.
+     * This is also the index where {@code key} would be inserted.
+     */
+    int countBelow(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,7 @@
+package com.spacewaltz.decrees.economy;
+
+/**
+ * One leaderboard row: an account's 1-based rank and balance.
+ */
+public record RankedAccount(int rank, String accountId, long balanceCopper) {
+}
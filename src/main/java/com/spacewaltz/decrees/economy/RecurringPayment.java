@@ -0,0 +1,58 @@
+package com.spacewaltz.decrees.economy;
+
+/**
+ * A payment that repeats on a fixed interval, e.g. a council salary or guild upkeep.
+ * Stored in recurring_payments.json and run by {@link RecurringPayments}.
+ */
+public class RecurringPayment {
+
+    /**
+     * Internal numeric id.
+     */
+    public int id;
+
+    /**
+     * Paying account id, or null to mint the money.
+     */
+    public String fromAccountId;
+
+    /**
+     * Receiving account id.
+     */
+    public String toAccountId;
+
+    /**
+     * Amount per run, in copper units.
+     */
+    public int amountCopper;
+
+    /**
+     * Time between runs, in seconds.
+     */
+    public long intervalSeconds;
+
+    /**
+     * Epoch millis of the next run.
+     */
+    public long nextDueMillis;
+
+    /**
+     * Runs left before the schedule removes itself, or -1 to repeat forever.
+     */
+    public int remainingRuns = -1;
+
+    /**
+     * Shown in the ledger entry of every run.
+     */
+    public String description;
+
+    /**
+     * Successful runs so far.
+     */
+    public int completedRuns;
+
+    /**
+     * Runs skipped because the payer could not cover the amount or an account was missing.
+     */
+    public int failedRuns;
+}
@@ -0,0 +1,260 @@
+package com.spacewaltz.decrees.economy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.spacewaltz.decrees.DecreesConfig;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+import com.spacewaltz.decrees.storage.JsonFiles;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent recurring payments (salaries, upkeep, periodic taxes), fired from END_SERVER_TICK.
+ *
+ * Serialized as config/decrees_of_the_six/recurring_payments.json. Pending runs sit in a
+ * {@link TimerWheel} with one slot per 50 ms of wall-clock time, so a tick with nothing due
+ * costs a slot lookup however many schedules exist. Everything that falls due in one tick is
+ * paid through a single {@link EconomyService#transferBatch(List)}; a schedule whose payer
+ * is short is left out of the batch and counted as a failed run instead of blocking the rest.
+ *
+ * Runs missed while the server was down are not made up: an overdue schedule pays once on
+ * startup and continues from there. Only used from the server thread.
+ */
+public final class RecurringPayments {
+
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .create();
+
+    private static final String STORE_NAME = "recurring_payments.json";
+
+    /**
+     * Wheel resolution; one server tick at 20 TPS.
+     */
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private static final PersistenceScheduler.Handle<JsonElement> PERSISTENCE = PersistenceScheduler.register(
+            "recurring payments",
+            RecurringPayments::snapshot,
+            RecurringPayments::write,
+            () -> DecreesConfig.get().saveDirtyThreshold,
+            () -> DecreesConfig.get().saveIntervalSeconds
+    );
+
+    private static RecurringPayments INSTANCE = new RecurringPayments(new Data());
+
+    /**
+     * On-disk shape of recurring_payments.json.
+     */
+    private static final class Data {
+        int nextId = 1;
+        List<RecurringPayment> payments = new ArrayList<>();
+    }
+
+    private final Data data;
+    private final TimerWheel<RecurringPayment> wheel = new TimerWheel<>(currentTick());
+    private final Map<Integer, TimerWheel.Timer<RecurringPayment>> timers = new HashMap<>();
+
+    private RecurringPayments(Data data) {
+        this.data = data;
+        for (RecurringPayment payment : data.payments) {
+            if (payment != null) {
+                arm(payment);
+            }
+        }
+    }
+
+    public static void load() {
+        long start = System.nanoTime();
+        Data loaded;
+        try {
+            loaded = Storage.backend().read(STORE_NAME, GSON, Data.class);
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to load recurring payments from " + STORE_NAME, e);
+            Storage.backend().quarantine(STORE_NAME);
+            loaded = null;
+        }
+
+        if (loaded != null) {
+            if (loaded.payments == null) {
+                loaded.payments = new ArrayList<>();
+            }
+            loaded.payments.removeIf(p -> p == null || p.toAccountId == null
+                    || p.amountCopper <= 0 || p.intervalSeconds <= 0);
+            INSTANCE = new RecurringPayments(loaded);
+            JsonFiles.logLoaded(STORE_NAME, start, loaded.payments.size() + " schedules");
+            return;
+        }
+
+        INSTANCE = new RecurringPayments(new Data());
+    }
+
+    public static void save() {
+        PERSISTENCE.flushNow();
+    }
+
+    private static JsonElement snapshot() {
+        return GSON.toJsonTree(INSTANCE.data);
+    }
+
+    private static void write(JsonElement tree) throws IOException {
+        Storage.backend().write(STORE_NAME, GSON, tree);
+    }
+
+    /**
+     * All schedules, in creation order. Do not modify.
+     */
+    public static List<RecurringPayment> all() {
+        return INSTANCE.data.payments;
+    }
+
+    /**
+     * Adds a schedule whose first run is one interval from now.
+     *
+     * @param from         payer, or null to mint
+     * @param runs         number of runs, or -1 for no limit
+     */
+    public static RecurringPayment create(EconomyAccount from,
+                                          EconomyAccount to,
+                                          int amountCopper,
+                                          long intervalSeconds,
+                                          int runs,
+                                          String description) {
+        if (to == null || amountCopper <= 0 || intervalSeconds <= 0 || runs == 0) {
+            return null;
+        }
+
+        RecurringPayment payment = new RecurringPayment();
+        payment.id = INSTANCE.data.nextId++;
+        payment.fromAccountId = from != null ? from.id : null;
+        payment.toAccountId = to.id;
+        payment.amountCopper = amountCopper;
+        payment.intervalSeconds = intervalSeconds;
+        payment.nextDueMillis = System.currentTimeMillis() + intervalSeconds * 1000L;
+        payment.remainingRuns = runs;
+        payment.description = description;
+
+        INSTANCE.data.payments.add(payment);
+        INSTANCE.arm(payment);
+        PERSISTENCE.markDirty();
+        return payment;
+    }
+
+    /**
+     * @return false if no schedule has that id.
+     */
+    public static boolean remove(int id) {
+        RecurringPayments self = INSTANCE;
+        boolean removed = self.data.payments.removeIf(p -> p.id == id);
+        TimerWheel.Timer<RecurringPayment> timer = self.timers.remove(id);
+        if (timer != null) {
+            timer.cancel();
+        }
+        if (removed) {
+            PERSISTENCE.markDirty();
+        }
+        return removed;
+    }
+
+    /**
+     * Called from END_SERVER_TICK.
+     */
+    public static void tick(MinecraftServer server) {
+        RecurringPayments self = INSTANCE;
+        long target = currentTick();
+        if (target <= self.wheel.now()) {
+            return;
+        }
+
+        List<RecurringPayment> due = new ArrayList<>();
+        self.wheel.advance(target, due::add);
+        if (!due.isEmpty()) {
+            self.run(due);
+        }
+    }
+
+    private void run(List<RecurringPayment> due) {
+        long now = System.currentTimeMillis();
+
+        List<EconomyService.Leg> legs = new ArrayList<>(due.size());
+        List<RecurringPayment> paying = new ArrayList<>(due.size());
+        for (RecurringPayment payment : due) {
+            timers.remove(payment.id);
+            EconomyAccount to = EconomyService.getAccountById(payment.toAccountId);
+            EconomyAccount from = payment.fromAccountId != null
+                    ? EconomyService.getAccountById(payment.fromAccountId)
+                    : null;
+            if (to == null || (payment.fromAccountId != null && from == null)) {
+                payment.failedRuns++;
+                continue;
+            }
+            legs.add(new EconomyService.Leg(from, to, payment.amountCopper,
+                    TransactionType.SCHEDULED_PAYMENT, describe(payment)));
+            paying.add(payment);
+        }
+
+        // Drop the legs that cannot be paid, then apply the rest as one batch.
+        // transferBatch re-checks under the account locks, hence the bounded retry.
+        for (int attempt = 0; attempt < 3 && !legs.isEmpty(); attempt++) {
+            int shortfall;
+            while ((shortfall = EconomyService.findShortfall(legs)) >= 0) {
+                legs.remove(shortfall);
+                paying.remove(shortfall).failedRuns++;
+            }
+            if (legs.isEmpty() || EconomyService.transferBatch(legs) >= 0) {
+                break;
+            }
+            if (attempt == 2) {
+                DecreesOfTheSix.LOGGER.warn("Skipped {} recurring payment(s) after repeated balance races.", legs.size());
+                for (RecurringPayment payment : paying) {
+                    payment.failedRuns++;
+                }
+                paying.clear();
+            }
+        }
+        for (RecurringPayment payment : paying) {
+            payment.completedRuns++;
+        }
+
+        for (RecurringPayment payment : due) {
+            if (payment.remainingRuns > 0) {
+                payment.remainingRuns--;
+            }
+            if (payment.remainingRuns == 0) {
+                data.payments.remove(payment);
+                continue;
+            }
+            payment.nextDueMillis += payment.intervalSeconds * 1000L;
+            if (payment.nextDueMillis <= now) {
+                // Behind by more than one interval (server was down): skip the missed runs.
+                payment.nextDueMillis = now + payment.intervalSeconds * 1000L;
+            }
+            arm(payment);
+        }
+        PERSISTENCE.markDirty();
+    }
+
+    private void arm(RecurringPayment payment) {
+        long dueTick = Math.floorDiv(payment.nextDueMillis, MILLIS_PER_TICK);
+        timers.put(payment.id, wheel.schedule(payment, dueTick));
+    }
+
+    private static String describe(RecurringPayment payment) {
+        String base = "Recurring payment #" + payment.id;
+        return payment.description != null && !payment.description.isBlank()
+                ? base + ": " + payment.description
+                : base;
+    }
+
+    private static long currentTick() {
+        return Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_TICK);
+    }
+}
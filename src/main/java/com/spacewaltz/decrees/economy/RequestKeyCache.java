@@ -0,0 +1,125 @@
+package com.spacewaltz.decrees.economy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Recently used transfer request keys, so a retried or double-submitted transfer is
+ * recognised instead of moving the money twice.
+ *
+ * Keys are kept as 64-bit hashes of (payer account id, key) in an access-ordered map:
+ * lookups and inserts are constant time, the least recently used key is evicted once
+ * {@link EconomyConfigData#requestKeyCacheSize} is reached, and a key older than
+ * {@link EconomyConfigData#requestKeyTtlSeconds} counts as unknown.
+ *
+ * The live entries are written into the economy checkpoint; keys used since then are
+ * recovered from the journaled transactions that carry them ({@link EconomyTransaction#requestKey}).
+ */
+final class RequestKeyCache {
+
+    /**
+     * One remembered key: the transaction it produced and when it stops counting.
+     */
+    static final class Entry {
+        long hash;
+        long txId;
+        long expiresAtMillis;
+
+        Entry(long hash, long txId, long expiresAtMillis) {
+            this.hash = hash;
+            this.txId = txId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * Hash of a request key, scoped to the paying account so players cannot collide with each other.
+     */
+    static long hash(String accountId, String key) {
+        // 64-bit FNV-1a over "accountId\nkey".
+        long h = 0xcbf29ce484222325L;
+        for (byte b : (accountId + "\n" + key).getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * @return the id of the transaction recorded under this key, or null if the key is unknown or expired.
+     */
+    synchronized Long find(long hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(hash);
+            return null;
+        }
+        return entry.txId;
+    }
+
+    /**
+     * Remembers the transaction a key produced; {@code timestamp} is the transaction's.
+     */
+    synchronized void remember(long hash, long txId, long timestamp) {
+        long expiresAt = timestamp + Math.max(0, EconomyConfig.get().requestKeyTtlSeconds) * 1000L;
+        long now = System.currentTimeMillis();
+        if (expiresAt > now) {
+            entries.put(hash, new Entry(hash, txId, expiresAt));
+        }
+        trim(now);
+    }
+
+    /**
+     * Drops least recently used entries while over capacity or expired. Each entry is
+     * removed at most once, so this is amortized constant time per insert.
+     */
+    private void trim(long now) {
+        int capacity = Math.max(1, EconomyConfig.get().requestKeyCacheSize);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (entries.size() <= capacity && entry.expiresAtMillis > now) {
+                break;
+            }
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Live entries, least recently used first, for the checkpoint.
+     */
+    synchronized List<Entry> snapshot() {
+        long now = System.currentTimeMillis();
+        List<Entry> live = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (entry.expiresAtMillis > now) {
+                live.add(entry);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Re-adds entries read from a checkpoint; expired ones are skipped.
+     */
+    synchronized void restore(List<Entry> saved) {
+        if (saved == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Entry entry : saved) {
+            if (entry != null && entry.expiresAtMillis > now) {
+                entries.put(entry.hash, entry);
+            }
+        }
+        trim(now);
+    }
+}
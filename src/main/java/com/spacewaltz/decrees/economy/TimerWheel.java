@@ -0,0 +1,148 @@
+package com.spacewaltz.decrees.economy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel: four levels of 64 slots with 64 ticks, 64^2, 64^3 and 64^4 ticks
+ * of reach. A timer is dropped into the coarsest slot that still separates it from "now" and
+ * moves down a level each time its slot comes round, so advancing one tick only touches the
+ * one level-0 slot for that tick (plus, every 64th tick, one slot per higher level).
+ * Idle ticks cost a couple of array reads no matter how many timers are pending.
+ *
+ * Timers further away than the top level's reach are parked in its last slot and re-placed
+ * when it cascades. Not thread-safe.
+ */
+final class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * A scheduled timer. Cancelling only flags it; it is dropped when its slot is processed.
+     */
+    static final class Timer<T> {
+        final T value;
+        final long dueTick;
+        private boolean cancelled;
+
+        private Timer(T value, long dueTick) {
+            this.value = value;
+            this.dueTick = dueTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final List<Timer<T>>[][] slots = new List[LEVELS][SLOTS];
+
+    private long now;
+    private int size;
+
+    /**
+     * @param startTick the tick the wheel is at; timers due at or before it fire on the next advance
+     */
+    TimerWheel(long startTick) {
+        this.now = startTick;
+    }
+
+    long now() {
+        return now;
+    }
+
+    /**
+     * Number of timers in the wheel, cancelled ones included until their slot is processed.
+     */
+    int size() {
+        return size;
+    }
+
+    Timer<T> schedule(T value, long dueTick) {
+        Timer<T> timer = new Timer<>(value, dueTick);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Moves the wheel forward to {@code tick}, handing every timer that came due to {@code fire}
+     * in due order (timers due on the same tick in scheduling order).
+     */
+    void advance(long tick, Consumer<T> fire) {
+        while (now < tick) {
+            now++;
+            // Cascade from the top so a timer can fall through several levels in one tick.
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((now >>> (BITS * level)) & MASK));
+                }
+            }
+
+            List<Timer<T>> due = slots[0][(int) (now & MASK)];
+            if (due == null || due.isEmpty()) {
+                continue;
+            }
+            slots[0][(int) (now & MASK)] = null;
+            for (Timer<T> timer : due) {
+                size--;
+                if (timer.cancelled) {
+                    continue;
+                }
+                if (timer.dueTick > now) {
+                    // Only possible for timers parked beyond the wheel's reach.
+                    place(timer);
+                    size++;
+                    continue;
+                }
+                fire.accept(timer.value);
+            }
+        }
+    }
+
+    private void cascade(int level, int index) {
+        List<Timer<T>> timers = slots[level][index];
+        if (timers == null) {
+            return;
+        }
+        slots[level][index] = null;
+        for (Timer<T> timer : timers) {
+            if (timer.cancelled) {
+                size--;
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        // Overdue timers fire on the next tick.
+        long due = Math.max(timer.dueTick, now + 1);
+        long delta = due - now;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta >= (1L << (BITS * LEVELS))) {
+            due = now + (1L << (BITS * LEVELS)) - 1;
+        }
+
+        int index = (int) ((due >>> (BITS * level)) & MASK);
+        List<Timer<T>> slot = slots[level][index];
+        if (slot == null) {
+            slot = new ArrayList<>(4);
+            slots[level][index] = slot;
+        }
+        slot.add(timer);
+    }
+}
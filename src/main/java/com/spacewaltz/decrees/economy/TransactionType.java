@@ -1,10 +1,16 @@
 package com.spacewaltz.decrees.economy;
 
+/**
+ * Kind of money movement. Ordinals are stored in binary ledger segments,
+ * so new constants must only ever be appended.
+ */
 public enum TransactionType {
     PLAYER_PAYMENT,
     ADMIN_MINT,
     ADMIN_BURN,
     ADMIN_SEIZURE,
     GUILD_DEPOSIT,
-    GUILD_WITHDRAW
+    GUILD_WITHDRAW,
+    SCHEDULED_PAYMENT,
+    TRANSFER_TAX
 }
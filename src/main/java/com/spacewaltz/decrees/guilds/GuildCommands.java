@@ -6,6 +6,7 @@ import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
+import com.spacewaltz.decrees.PlayerNames;
 import com.spacewaltz.decrees.council.CouncilUtil;
 import com.spacewaltz.decrees.council.Messenger;
 import com.spacewaltz.decrees.council.SeatDefinition;
@@ -78,7 +79,7 @@ public final class GuildCommands {
                         // /guild balance
                         .then(CommandManager.literal("balance")
                                 .executes(GuildCommands::balance))
-                        // /guild deposit <gold> <silver> <copper>
+                        // /guild deposit <gold> <silver> <copper> [requestKey]
                         .then(CommandManager.literal("deposit")
                                 .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
                                         .then(CommandManager.argument("silver", IntegerArgumentType.integer(0))
@@ -87,7 +88,15 @@ public final class GuildCommands {
                                                                 ctx,
                                                                 IntegerArgumentType.getInteger(ctx, "gold"),
                                                                 IntegerArgumentType.getInteger(ctx, "silver"),
-                                                                IntegerArgumentType.getInteger(ctx, "copper")))))))
+                                                                IntegerArgumentType.getInteger(ctx, "copper"),
+                                                                null))
+                                                        .then(CommandManager.argument("requestKey", StringArgumentType.word())
+                                                                .executes(ctx -> deposit(
+                                                                        ctx,
+                                                                        IntegerArgumentType.getInteger(ctx, "gold"),
+                                                                        IntegerArgumentType.getInteger(ctx, "silver"),
+                                                                        IntegerArgumentType.getInteger(ctx, "copper"),
+                                                                        StringArgumentType.getString(ctx, "requestKey"))))))))
                         // /guild withdraw <gold> <silver> <copper>
                         .then(CommandManager.literal("withdraw")
                                 .then(CommandManager.argument("gold", IntegerArgumentType.integer(0))
@@ -182,7 +191,7 @@ public final class GuildCommands {
         Messenger.info(src, "  /guild leave                     - leave your current guild.");
         Messenger.info(src, "  /guild kick <player>             - remove a member (Leader/Officers only).");
         Messenger.info(src, "  /guild balance                   - view your guild Treasury balance.");
-        Messenger.info(src, "  /guild deposit <G> <S> <C>       - deposit Gold/Silver/Copper into Treasury.");
+        Messenger.info(src, "  /guild deposit <G> <S> <C> [key] - deposit Gold/Silver/Copper into Treasury.");
         Messenger.info(src, "  /guild withdraw <G> <S> <C>      - leader withdraws from Treasury.");
         Messenger.info(src, "  /guild disband                   - leader disbands the guild.");
         Messenger.info(src, "  /guild promote|demote <player>   - adjust member rank.");
@@ -508,7 +517,8 @@ public final class GuildCommands {
     private static int deposit(CommandContext<ServerCommandSource> ctx,
                                int gold,
                                int silver,
-                               int copper) {
+                               int copper,
+                               String requestKey) {
         ServerCommandSource src = ctx.getSource();
         ServerPlayerEntity player;
         try {
@@ -547,18 +557,22 @@ public final class GuildCommands {
             return 0;
         }
 
-        if (!EconomyService.canTransfer(from, amountCopper)) {
-            Messenger.error(src, "You do not have enough funds.");
-            return 0;
-        }
-
-        EconomyService.transfer(
+        EconomyService.TransferResult result = EconomyService.transfer(
                 from,
                 to,
                 amountCopper,
                 TransactionType.GUILD_DEPOSIT,
-                "Guild deposit into treasury via /guild deposit."
+                "Guild deposit into treasury via /guild deposit.",
+                requestKey
         );
+        if (result == EconomyService.TransferResult.DUPLICATE) {
+            Messenger.info(src, "Request '" + requestKey + "' was already deposited; nothing was charged again.");
+            return 1;
+        }
+        if (result == EconomyService.TransferResult.REJECTED) {
+            Messenger.error(src, "You do not have enough funds.");
+            return 0;
+        }
 
         String amountLabel = formatAmountGSCWithName(amountCopper);
         Messenger.info(src, "Deposited " + amountLabel + " into the guild Treasury.");
@@ -756,7 +770,7 @@ public final class GuildCommands {
         }
 
         guild.members.put(targetKey, newRole);
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Promoted §e" + targetProfile.getName() + "§r to §b" + newTitle + "§r.");
         return 1;
@@ -837,7 +851,7 @@ public final class GuildCommands {
         String newTitle = getTitleFor(guild, newRole);
 
         guild.members.put(targetKey, newRole);
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Demoted §e" + targetProfile.getName() + "§r to §b" + newTitle + "§r.");
         return 1;
@@ -868,7 +882,7 @@ public final class GuildCommands {
         }
 
         guild.motd = motd.trim();
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Guild MOTD updated.");
         return 1;
@@ -898,7 +912,7 @@ public final class GuildCommands {
         }
 
         guild.openJoin = open;
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Guild open-join setting set to: " + (open ? "OPEN" : "INVITE-ONLY") + ".");
         return 1;
@@ -928,7 +942,7 @@ public final class GuildCommands {
         }
 
         guild.maxMembers = maxMembers;
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Guild maximum members set to " + maxMembers +
                 (maxMembers == 0 ? " (no limit)." : "."));
@@ -977,7 +991,7 @@ public final class GuildCommands {
             case RECRUIT -> guild.recruitTitle = normalized;
         }
 
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Set title for " + targetRole.name() + " to §b" + normalized + "§r.");
         return 1;
@@ -1061,7 +1075,7 @@ public final class GuildCommands {
         }
 
         guild.leaderUuid = newLeaderKey;
-        GuildStore.save();
+        GuildStore.markDirty();
 
         Messenger.info(src, "Set §e" + targetProfile.getName() + "§r as leader of guild §e" + guild.name + "§r.");
         return 1;
@@ -1122,8 +1136,7 @@ public final class GuildCommands {
             return 0;
         }
 
-        guild.name = newName;
-        GuildStore.save();
+        GuildStore.renameGuild(guild, newName);
         Messenger.info(src, "Renamed guild to §e" + guild.name + "§r.");
         return 1;
     }
@@ -1156,16 +1169,9 @@ public final class GuildCommands {
 
         // Leader display: try to resolve name if possible, otherwise UUID.
         if (guild.leaderUuid != null && !guild.leaderUuid.isBlank()) {
-            String leaderDisplay = guild.leaderUuid;
-            try {
-                UUID leaderUuid = UUID.fromString(guild.leaderUuid);
-                GameProfile gp = src.getServer().getUserCache()
-                        .getByUuid(leaderUuid)
-                        .orElse(null);
-                if (gp != null && gp.getName() != null) {
-                    leaderDisplay = gp.getName();
-                }
-            } catch (IllegalArgumentException ignored) {
+            String leaderDisplay = PlayerNames.get(src.getServer(), guild.leaderUuid);
+            if (leaderDisplay == null) {
+                leaderDisplay = guild.leaderUuid;
             }
             Messenger.info(src, "Leader: §e" + leaderDisplay + "§r");
         }
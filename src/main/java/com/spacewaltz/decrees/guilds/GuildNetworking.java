@@ -1,6 +1,7 @@
 package com.spacewaltz.decrees.guilds;
 
 import com.spacewaltz.decrees.DecreesOfTheSix;
+import com.spacewaltz.decrees.PlayerNames;
 import com.spacewaltz.decrees.economy.EconomyAccount;
 import com.spacewaltz.decrees.economy.EconomyService;
 import com.spacewaltz.decrees.economy.EconomyStore;
@@ -138,19 +139,11 @@ public final class GuildNetworking {
                 return viewer.getName().getString();
             }
 
-            MinecraftServer server = viewer.getServer();
-            if (server != null) {
-                ServerPlayerEntity leaderOnline = server.getPlayerManager().getPlayer(leaderUuid);
-                if (leaderOnline != null) {
-                    return leaderOnline.getName().getString();
-                }
-
-                var profileOpt = server.getUserCache().getByUuid(leaderUuid);
-                if (profileOpt.isPresent() && profileOpt.get().getName() != null) {
-                    return profileOpt.get().getName();
-                }
+            String name = PlayerNames.get(viewer.getServer(), leaderUuid);
+            if (name != null) {
+                return name;
             }
-        } catch (Exception ignored) {
+        } catch (IllegalArgumentException ignored) {
         }
 
         return "";
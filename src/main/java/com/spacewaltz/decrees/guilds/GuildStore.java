@@ -2,15 +2,16 @@ package com.spacewaltz.decrees.guilds;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.spacewaltz.decrees.DecreesConfig;
 import com.spacewaltz.decrees.DecreesOfTheSix;
 import com.spacewaltz.decrees.economy.EconomyAccount;
 import com.spacewaltz.decrees.economy.EconomyService;
-import net.fabricmc.loader.api.FabricLoader;
+import com.spacewaltz.decrees.storage.JsonFiles;
+import com.spacewaltz.decrees.storage.PersistenceScheduler;
+import com.spacewaltz.decrees.storage.Storage;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -24,15 +25,26 @@ public class GuildStore {
             .setPrettyPrinting()
             .create();
 
-    private static final Path CONFIG_DIR = FabricLoader.getInstance()
-            .getConfigDir()
-            .resolve(DecreesOfTheSix.MOD_ID);
+    private static final String STORE_NAME = "guilds.json";
 
-    private static final Path STORE_PATH = CONFIG_DIR.resolve("guilds.json");
+    private static final PersistenceScheduler.Handle<JsonElement> PERSISTENCE = PersistenceScheduler.register(
+            "guild store",
+            () -> GSON.toJsonTree(get()),
+            GuildStore::write,
+            () -> DecreesConfig.get().saveDirtyThreshold,
+            () -> DecreesConfig.get().saveIntervalSeconds
+    );
 
     // Singleton instance
     private static GuildStore INSTANCE = new GuildStore();
 
+    /**
+     * Changes whenever a guild name shown elsewhere may have changed: a rename, a disband
+     * or a reload. Caches of text built from guild names compare it, like
+     * {@link com.spacewaltz.decrees.PlayerNames#generation()}.
+     */
+    private static volatile long nameGeneration = 0L;
+
     /**
      * Next numeric guild id.
      */
@@ -59,45 +71,51 @@ public class GuildStore {
     }
 
     public static void load() {
+        nameGeneration++;
+        long start = System.nanoTime();
+        GuildStore loaded;
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-
-            if (!Files.exists(STORE_PATH)) {
-                INSTANCE = new GuildStore();
-                save();
-                return;
-            }
+            loaded = Storage.backend().read(STORE_NAME, GSON, GuildStore.class);
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to load guilds from " + STORE_NAME, e);
+            Storage.backend().quarantine(STORE_NAME);
+            loaded = null;
+        }
 
-            String json = Files.readString(STORE_PATH, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) {
-                INSTANCE = new GuildStore();
-                return;
-            }
+        if (loaded != null) {
+            INSTANCE = loaded;
+            JsonFiles.logLoaded(STORE_NAME, start,
+                    loaded.guilds.size() + " guilds, " + loaded.playerGuild.size() + " members");
+            return;
+        }
 
-            GuildStore loaded = GSON.fromJson(json, GuildStore.class);
-            if (loaded == null) {
-                INSTANCE = new GuildStore();
-            } else {
-                INSTANCE = loaded;
-            }
-        } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to load guilds from " + STORE_PATH, e);
-            INSTANCE = new GuildStore();
+        INSTANCE = new GuildStore();
+        if (!Storage.backend().exists(STORE_NAME)) {
+            save();
         }
     }
 
+    /**
+     * Writes the store to disk right now, on the calling thread.
+     * Mutations should call {@link #markDirty()} instead and let the background writer coalesce them.
+     */
     public static void save() {
-        try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-            String json = GSON.toJson(INSTANCE);
-            Files.writeString(STORE_PATH, json, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            DecreesOfTheSix.LOGGER.error("Failed to save guilds to " + STORE_PATH, e);
-        }
+        PERSISTENCE.flushNow();
+    }
+
+    /**
+     * Records an unsaved change; the store is written in the background shortly after.
+     */
+    public static void markDirty() {
+        PERSISTENCE.markDirty();
+    }
+
+    public static long nameGeneration() {
+        return nameGeneration;
+    }
+
+    private static void write(JsonElement tree) throws IOException {
+        Storage.backend().write(STORE_NAME, GSON, tree);
     }
 
     // ---------------------------------------------------------------------
@@ -148,7 +166,7 @@ public class GuildStore {
         } else {
             store.playerGuild.put(key, guildId);
         }
-        save();
+        markDirty();
     }
 
     // ---------------------------------------------------------------------
@@ -188,10 +206,17 @@ public class GuildStore {
         }
 
         store.guilds.add(guild);
-        save();
+        markDirty();
         return guild;
     }
 
+    public static void renameGuild(Guild guild, String newName) {
+        if (guild == null || newName == null) return;
+        guild.name = newName;
+        nameGeneration++;
+        markDirty();
+    }
+
     public static void removeMember(Guild guild, UUID playerUuid) {
         if (guild == null || playerUuid == null) return;
         String key = playerUuid.toString();
@@ -203,7 +228,7 @@ public class GuildStore {
         if (existing != null && existing == guild.id) {
             store.playerGuild.remove(key);
         }
-        save();
+        markDirty();
     }
 
     public static int getPendingInviteCount(UUID playerUuid) {
@@ -222,7 +247,7 @@ public class GuildStore {
 
         guild.members.put(key, role);
         get().playerGuild.put(key, guild.id);
-        save();
+        markDirty();
     }
 
     public static void disbandGuild(Guild guild) {
@@ -241,7 +266,8 @@ public class GuildStore {
         // so we only drop the record here.
         store.guilds.removeIf(g -> g.id == guild.id);
 
-        save();
+        nameGeneration++;
+        markDirty();
     }
 
     // ---------------------------------------------------------------------
@@ -252,7 +278,7 @@ public class GuildStore {
         if (targetUuid == null || guild == null) return;
         GuildStore store = get();
         store.pendingInvites.put(targetUuid.toString(), guild.id);
-        save();
+        markDirty();
     }
 
     public static Guild consumeInvite(UUID targetUuid) {
@@ -263,7 +289,7 @@ public class GuildStore {
         if (guildId == null) {
             return null;
         }
-        save();
+        markDirty();
         return findById(guildId);
     }
 }
@@ -0,0 +1,34 @@
+package com.spacewaltz.decrees.storage;
+
+import com.spacewaltz.decrees.DecreesOfTheSix;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.nio.file.Path;
+
+/**
+ * Location of the mod's config and data files.
+ *
+ * Normally config/decrees_of_the_six under the Fabric config directory. Tools that run
+ * without a game instance (the JMH benchmarks, offline maintenance) point it elsewhere
+ * with the {@code decrees.dataDir} system property, set before any store class loads.
+ */
+public final class DataPaths {
+
+    /**
+     * System property overriding the data directory.
+     */
+    public static final String DATA_DIR_PROPERTY = "decrees.dataDir";
+
+    private DataPaths() {
+    }
+
+    public static Path dataDir() {
+        String override = System.getProperty(DATA_DIR_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return Path.of(override);
+        }
+        return FabricLoader.getInstance()
+                .getConfigDir()
+                .resolve(DecreesOfTheSix.MOD_ID);
+    }
+}
@@ -0,0 +1,281 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the data stores in one embedded H2 database file, decrees.mv.db, in the data directory.
+ *
+ * economy.json and guilds.json are split into tables (see {@link EconomyTables} and
+ * {@link GuildTables}) so a checkpoint only writes the rows that changed; every other document
+ * is one JSON row in the documents table. Each write is one database transaction.
+ *
+ * On open, data files that have no counterpart in the database yet are imported and renamed to
+ * "&lt;name&gt;.migrated". The economy journal, ledger segments, exports and config files stay
+ * plain files in {@link #directory()}. Thread-safe.
+ */
+public final class DatabaseStorage implements StorageBackend {
+
+    /**
+     * Value of {@code storageBackend} in economy_config.json that selects this backend.
+     */
+    public static final String KIND = "h2";
+
+    /**
+     * Name of the database file H2 creates in the data directory.
+     */
+    public static final String FILE_NAME = "decrees.mv.db";
+
+    private static final String DRIVER = "org.h2.Driver";
+
+    // Rows are read by code, not people.
+    private static final Gson GSON = new Gson();
+
+    /**
+     * The data documents the stores keep, by name. Each is imported from its JSON file the
+     * first time the database is opened.
+     */
+    public static final List<String> DATA_FILES = List.of(
+            "economy.json",
+            "guilds.json",
+            "decrees.json",
+            "decree_history.json",
+            "recurring_payments.json"
+    );
+
+    private final Path dir;
+    private final String url;
+    private final Map<String, DocumentTables> tables;
+    private Connection connection;
+
+    private DatabaseStorage(Path dir) {
+        this.dir = dir;
+        this.url = "jdbc:h2:file:" + dir.resolve("decrees").toAbsolutePath();
+        this.tables = Stream.of(new EconomyTables(), new GuildTables())
+                .collect(Collectors.toUnmodifiableMap(DocumentTables::name, Function.identity()));
+    }
+
+    /**
+     * Opens (or creates) the database in {@code dir}, creates missing tables and
+     * imports existing JSON data files.
+     *
+     * @throws IOException if the database cannot be opened or a data file cannot be imported;
+     *                     starting on an empty store instead would hide the real data.
+     */
+    public static DatabaseStorage open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        DatabaseStorage storage = new DatabaseStorage(dir);
+        synchronized (storage) {
+            try {
+                Connection connection = storage.connection();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS documents ("
+                            + "name VARCHAR(255) PRIMARY KEY, "
+                            + "body CLOB NOT NULL)");
+                    for (DocumentTables mapping : storage.tables.values()) {
+                        mapping.createSchema(statement);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                storage.close();
+                throw new IOException("Failed to open database " + storage.url, e);
+            }
+            storage.importFiles();
+        }
+        return storage;
+    }
+
+    @Override
+    public synchronized <T> T read(String name, Gson gson, Type type) throws IOException {
+        try {
+            String body = readDocument(name);
+            if (body == null) {
+                return null;
+            }
+            DocumentTables mapping = tables.get(name);
+            if (mapping == null) {
+                return gson.fromJson(body, type);
+            }
+            JsonObject tree = JsonParser.parseString(body).getAsJsonObject();
+            mapping.read(connection(), tree);
+            return gson.fromJson(tree, type);
+        } catch (SQLException e) {
+            throw new IOException("Failed to read " + name + " from " + url, e);
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Unreadable document " + name + " in " + url, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(String name, Gson gson, JsonElement tree) throws IOException {
+        DocumentTables mapping = tree.isJsonObject() ? tables.get(name) : null;
+        try {
+            Connection connection = connection();
+            JsonElement rest = mapping != null ? mapping.write(connection, tree.getAsJsonObject()) : tree;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "MERGE INTO documents (name, body) KEY (name) VALUES (?, ?)")) {
+                statement.setString(1, name);
+                statement.setString(2, GSON.toJson(rest));
+                statement.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Failed to write " + name + " to " + url, e);
+        }
+    }
+
+    @Override
+    public void write(String name, Gson gson, Object value, Type type) throws IOException {
+        write(name, gson, gson.toJsonTree(value, type));
+    }
+
+    @Override
+    public synchronized boolean exists(String name) {
+        try {
+            return readDocument(name) != null;
+        } catch (SQLException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to look up " + name + " in " + url, e);
+            // Claiming it exists keeps callers from overwriting data we could not see.
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized void quarantine(String name) {
+        String aside = name + ".corrupt-" + System.currentTimeMillis();
+        try (PreparedStatement statement = connection().prepareStatement(
+                "UPDATE documents SET name = ? WHERE name = ?")) {
+            statement.setString(1, aside);
+            statement.setString(2, name);
+            if (statement.executeUpdate() > 0) {
+                DecreesOfTheSix.LOGGER.error("Renamed unreadable document {} to {} in {}.", name, aside, FILE_NAME);
+            }
+            connection().commit();
+        } catch (SQLException e) {
+            rollback();
+            DecreesOfTheSix.LOGGER.error("Failed to set unreadable document " + name + " aside", e);
+        }
+        DocumentTables mapping = tables.get(name);
+        if (mapping != null) {
+            mapping.reset();
+        }
+    }
+
+    @Override
+    public Path directory() {
+        return dir;
+    }
+
+    /**
+     * Closes the connection; the next access reopens it.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            DecreesOfTheSix.LOGGER.warn("Failed to close " + url + " cleanly.", e);
+        }
+        connection = null;
+    }
+
+    @Override
+    public String toString() {
+        return dir.resolve(FILE_NAME).toString();
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                // Registers the driver from the mod's class loader; DriverManager alone may not see it.
+                Class.forName(DRIVER, true, DatabaseStorage.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("H2 driver " + DRIVER + " is not on the classpath", e);
+            }
+            connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            for (DocumentTables mapping : tables.values()) {
+                mapping.reset();
+            }
+        }
+        return connection;
+    }
+
+    private String readDocument(String name) throws SQLException {
+        try (PreparedStatement statement = connection().prepareStatement(
+                "SELECT body FROM documents WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+
+    private void rollback() {
+        try {
+            if (connection != null) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            DecreesOfTheSix.LOGGER.warn("Failed to roll back " + url, e);
+        }
+        for (DocumentTables mapping : tables.values()) {
+            mapping.reset();
+        }
+    }
+
+    /**
+     * Copies every data file that is not in the database yet, then renames all of its
+     * generations so the JSON backend cannot pick up stale data if it is selected again.
+     */
+    private void importFiles() throws IOException {
+        for (String name : DATA_FILES) {
+            Path file = dir.resolve(name);
+            if (!DurableFiles.exists(file) || exists(name)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            JsonElement tree = JsonFiles.read(file, GSON, JsonElement.class);
+            if (tree == null) {
+                continue;
+            }
+            write(name, GSON, tree);
+
+            for (Path generation : List.of(file, DurableFiles.tempPath(file), DurableFiles.backupPath(file))) {
+                if (Files.exists(generation)) {
+                    Files.move(generation, generation.resolveSibling(generation.getFileName() + ".migrated"),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            DecreesOfTheSix.LOGGER.info("Imported {} into {} in {} ms.", name, FILE_NAME, millis);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.JsonObject;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Maps the bulky members of one document onto dedicated tables in a
+ * {@link DatabaseStorage}; the rest of the document is kept as a JSON row.
+ *
+ * Implementations remember what they last wrote, so saving a snapshot only touches the
+ * rows that changed since the previous save.
+ */
+interface DocumentTables {
+
+    /**
+     * Name of the document this mapping handles, e.g. "economy.json".
+     */
+    String name();
+
+    void createSchema(Statement statement) throws SQLException;
+
+    /**
+     * Adds the table-backed members to {@code rest}, the document's JSON remainder.
+     */
+    void read(Connection connection, JsonObject rest) throws SQLException;
+
+    /**
+     * Writes the table-backed members of a snapshot. Runs inside the caller's transaction.
+     *
+     * @return the members left to store as JSON.
+     */
+    JsonObject write(Connection connection, JsonObject tree) throws SQLException;
+
+    /**
+     * Forgets what was last written, after a rolled back transaction; the next write
+     * rewrites everything.
+     */
+    void reset();
+}
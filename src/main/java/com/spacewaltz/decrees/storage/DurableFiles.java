@@ -0,0 +1,211 @@
+package com.spacewaltz.decrees.storage;
+
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Crash-consistent file writes shared by every store and config file.
+ *
+ * A write goes to a sibling "&lt;name&gt;.tmp", is forced to disk, the current file is
+ * kept as "&lt;name&gt;.bak" and the temp file is atomically moved into place.
+ * At no point is the only copy of the data a half-written file.
+ *
+ * Reads pick the newest generation (live, temp or backup) that parses, so a crash
+ * at any step of a write is recovered on the next load.
+ */
+public final class DurableFiles {
+
+    /**
+     * Read buffer size; large enough that parsing a big store is not dominated by small reads.
+     */
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private DurableFiles() {
+    }
+
+    /**
+     * Streams content into the temp file.
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Streams raw bytes into the temp file.
+     */
+    @FunctionalInterface
+    public interface BinaryContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Parses one generation. Returning null or throwing marks the generation as invalid.
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        T parse(Reader reader) throws IOException;
+    }
+
+    public static Path tempPath(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    public static Path backupPath(Path target) {
+        return target.resolveSibling(target.getFileName() + ".bak");
+    }
+
+    /**
+     * True if any generation of the file exists.
+     */
+    public static boolean exists(Path target) {
+        return Files.exists(target) || Files.exists(tempPath(target)) || Files.exists(backupPath(target));
+    }
+
+    public static void writeString(Path target, String content) throws IOException {
+        write(target, writer -> writer.write(content));
+    }
+
+    /**
+     * Atomically replaces {@code target} with the given content, keeping the previous file as a backup.
+     */
+    public static void write(Path target, Content content) throws IOException {
+        writeBytes(target, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Binary variant of {@link #write(Path, Content)}.
+     */
+    public static void writeBytes(Path target, BinaryContent content) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null && !Files.exists(dir)) {
+            Files.createDirectories(dir);
+        }
+
+        Path tmp = tempPath(target);
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            content.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+
+        if (Files.exists(target)) {
+            move(target, backupPath(target));
+        }
+        move(tmp, target);
+        syncDirectory(dir);
+    }
+
+    /**
+     * Reads the newest generation of {@code target} that the parser accepts.
+     *
+     * @return the parsed value, or null if no generation exists at all.
+     * @throws IOException if generations exist but none of them is valid.
+     */
+    public static <T> T read(Path target, Parser<T> parser) throws IOException {
+        List<Path> candidates = new ArrayList<>();
+        for (Path p : List.of(target, tempPath(target), backupPath(target))) {
+            if (Files.exists(p)) {
+                candidates.add(p);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        // Newest first; the sort is stable, so the live file wins ties.
+        candidates.sort(Comparator.comparing(DurableFiles::lastModified).reversed());
+
+        for (Path candidate : candidates) {
+            T value;
+            try (FileChannel channel = FileChannel.open(candidate, StandardOpenOption.READ);
+                 Reader reader = new BufferedReader(
+                         Channels.newReader(channel, StandardCharsets.UTF_8), READ_BUFFER_CHARS)) {
+                value = parser.parse(reader);
+            } catch (IOException | RuntimeException e) {
+                DecreesOfTheSix.LOGGER.warn("Ignoring unreadable generation {}: {}", candidate, e.toString());
+                continue;
+            }
+            if (value == null) {
+                DecreesOfTheSix.LOGGER.warn("Ignoring empty generation {}.", candidate);
+                continue;
+            }
+            if (!candidate.equals(target)) {
+                DecreesOfTheSix.LOGGER.warn("Recovered {} from {}.", target.getFileName(), candidate.getFileName());
+            }
+            return value;
+        }
+
+        throw new IOException("No valid generation of " + target + " could be read");
+    }
+
+    /**
+     * Moves an unreadable file aside so starting over does not destroy it.
+     */
+    public static void quarantine(Path target) {
+        if (!Files.exists(target)) {
+            return;
+        }
+        Path aside = target.resolveSibling(target.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(target, aside);
+            DecreesOfTheSix.LOGGER.error("Moved unreadable {} to {}.", target, aside.getFileName());
+        } catch (IOException e) {
+            DecreesOfTheSix.LOGGER.error("Failed to move unreadable " + target + " aside", e);
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        // Makes the rename itself durable on POSIX filesystems; not supported everywhere.
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * economy.json as tables: one row per account and one per transaction.
+ *
+ * Rows are only looked up by primary key; every other lookup runs on the in-memory store
+ * loaded from them, so there are no secondary indexes to maintain on write. A checkpoint
+ * only upserts the accounts whose row changed and inserts the transactions newer than the last
+ * one stored; transactions are never rewritten, so the table keeps the full history from the
+ * first database checkpoint on while economy.json itself only carries the recent window.
+ */
+final class EconomyTables implements DocumentTables {
+
+    private static final String ACCOUNTS = "accounts";
+    private static final String TRANSACTIONS = "transactions";
+
+    /**
+     * Id of the first transaction in the checkpoint's window, kept in the JSON remainder.
+     */
+    private static final String WINDOW_START = "windowStartId";
+
+    /**
+     * Last written row of every account as "type|owner|balance"; null if unknown.
+     */
+    private Map<String, String> writtenAccounts;
+
+    /**
+     * Highest transaction id in the table; -1 if unknown.
+     */
+    private long lastTransactionId = -1L;
+
+    @Override
+    public String name() {
+        return "economy.json";
+    }
+
+    @Override
+    public void createSchema(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE IF NOT EXISTS economy_accounts ("
+                + "id VARCHAR(64) PRIMARY KEY, "
+                + "type VARCHAR(16) NOT NULL, "
+                + "owner_id VARCHAR(255), "
+                + "balance_copper INT NOT NULL)");
+
+        statement.execute("CREATE TABLE IF NOT EXISTS economy_transactions ("
+                + "id BIGINT PRIMARY KEY, "
+                + "timestamp_millis BIGINT NOT NULL, "
+                + "from_account VARCHAR(64), "
+                + "to_account VARCHAR(64), "
+                + "amount_copper INT NOT NULL, "
+                + "type VARCHAR(32), "
+                + "description VARCHAR, "
+                + "batch_id BIGINT, "
+                + "tax_copper INT, "
+                + "request_key BIGINT)");
+
+        // Created by earlier builds but never queried; they only slowed down inserts.
+        statement.execute("DROP INDEX IF EXISTS economy_accounts_owner");
+        statement.execute("DROP INDEX IF EXISTS economy_transactions_from");
+        statement.execute("DROP INDEX IF EXISTS economy_transactions_to");
+        statement.execute("DROP INDEX IF EXISTS economy_transactions_time");
+    }
+
+    @Override
+    public void read(Connection connection, JsonObject rest) throws SQLException {
+        JsonElement windowStart = rest.remove(WINDOW_START);
+
+        JsonObject accounts = new JsonObject();
+        Map<String, String> written = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT id, type, owner_id, balance_copper FROM economy_accounts")) {
+            while (rows.next()) {
+                JsonObject account = new JsonObject();
+                account.addProperty("id", rows.getString(1));
+                account.addProperty("type", rows.getString(2));
+                account.addProperty("ownerId", rows.getString(3));
+                account.addProperty("balanceCopper", rows.getInt(4));
+                accounts.add(rows.getString(1), account);
+                written.put(rows.getString(1), signature(account));
+            }
+        }
+
+        JsonArray transactions = new JsonArray();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, timestamp_millis, from_account, to_account, amount_copper, type, description, "
+                        + "batch_id, tax_copper, request_key FROM economy_transactions WHERE id >= ? ORDER BY id")) {
+            statement.setLong(1, windowStart != null ? windowStart.getAsLong() : 0L);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    JsonObject tx = new JsonObject();
+                    tx.addProperty("id", rows.getLong(1));
+                    tx.addProperty("timestamp", rows.getLong(2));
+                    tx.addProperty("fromAccountId", rows.getString(3));
+                    tx.addProperty("toAccountId", rows.getString(4));
+                    tx.addProperty("amountCopper", rows.getInt(5));
+                    tx.addProperty("type", rows.getString(6));
+                    tx.addProperty("description", rows.getString(7));
+                    tx.addProperty("batchId", (Long) rows.getObject(8, Long.class));
+                    tx.addProperty("taxCopper", (Integer) rows.getObject(9, Integer.class));
+                    tx.addProperty("requestKey", (Long) rows.getObject(10, Long.class));
+                    transactions.add(tx);
+                }
+            }
+        }
+
+        rest.add(ACCOUNTS, accounts);
+        rest.add(TRANSACTIONS, transactions);
+        writtenAccounts = written;
+        lastTransactionId = maxTransactionId(connection);
+    }
+
+    @Override
+    public JsonObject write(Connection connection, JsonObject tree) throws SQLException {
+        JsonObject accounts = tree.has(ACCOUNTS) ? tree.getAsJsonObject(ACCOUNTS) : new JsonObject();
+        JsonArray transactions = tree.has(TRANSACTIONS) ? tree.getAsJsonArray(TRANSACTIONS) : new JsonArray();
+
+        writeAccounts(connection, accounts);
+        writeTransactions(connection, transactions);
+
+        JsonObject rest = new JsonObject();
+        for (Map.Entry<String, JsonElement> member : tree.entrySet()) {
+            if (!member.getKey().equals(ACCOUNTS) && !member.getKey().equals(TRANSACTIONS)) {
+                rest.add(member.getKey(), member.getValue());
+            }
+        }
+        long windowStart = !transactions.isEmpty()
+                ? transactions.get(0).getAsJsonObject().get("id").getAsLong()
+                : lastTransactionId + 1;
+        rest.addProperty(WINDOW_START, windowStart);
+        return rest;
+    }
+
+    @Override
+    public void reset() {
+        writtenAccounts = null;
+        lastTransactionId = -1L;
+    }
+
+    private void writeAccounts(Connection connection, JsonObject accounts) throws SQLException {
+        if (writtenAccounts == null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM economy_accounts");
+            }
+            writtenAccounts = new HashMap<>();
+        }
+
+        try (PreparedStatement upsert = connection.prepareStatement(
+                "MERGE INTO economy_accounts (id, type, owner_id, balance_copper) KEY (id) VALUES (?, ?, ?, ?)");
+             PreparedStatement delete = connection.prepareStatement(
+                     "DELETE FROM economy_accounts WHERE id = ?")) {
+            for (Map.Entry<String, JsonElement> entry : accounts.entrySet()) {
+                JsonObject account = entry.getValue().getAsJsonObject();
+                String signature = signature(account);
+                if (signature.equals(writtenAccounts.get(entry.getKey()))) {
+                    continue;
+                }
+                upsert.setString(1, entry.getKey());
+                upsert.setString(2, string(account, "type"));
+                upsert.setString(3, string(account, "ownerId"));
+                upsert.setInt(4, account.get("balanceCopper").getAsInt());
+                upsert.addBatch();
+                writtenAccounts.put(entry.getKey(), signature);
+            }
+            upsert.executeBatch();
+
+            Iterator<String> ids = writtenAccounts.keySet().iterator();
+            while (ids.hasNext()) {
+                String id = ids.next();
+                if (!accounts.has(id)) {
+                    delete.setString(1, id);
+                    delete.addBatch();
+                    ids.remove();
+                }
+            }
+            delete.executeBatch();
+        }
+    }
+
+    private void writeTransactions(Connection connection, JsonArray transactions) throws SQLException {
+        if (lastTransactionId < 0L) {
+            lastTransactionId = maxTransactionId(connection);
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO economy_transactions (id, timestamp_millis, from_account, to_account, amount_copper, "
+                        + "type, description, batch_id, tax_copper, request_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long last = lastTransactionId;
+            for (JsonElement element : transactions) {
+                JsonObject tx = element.getAsJsonObject();
+                long id = tx.get("id").getAsLong();
+                if (id <= last) {
+                    continue;
+                }
+                insert.setLong(1, id);
+                insert.setLong(2, tx.get("timestamp").getAsLong());
+                insert.setString(3, string(tx, "fromAccountId"));
+                insert.setString(4, string(tx, "toAccountId"));
+                insert.setInt(5, tx.get("amountCopper").getAsInt());
+                insert.setString(6, string(tx, "type"));
+                insert.setString(7, string(tx, "description"));
+                setLong(insert, 8, tx.get("batchId"));
+                setInt(insert, 9, tx.get("taxCopper"));
+                setLong(insert, 10, tx.get("requestKey"));
+                insert.addBatch();
+                last = id;
+            }
+            insert.executeBatch();
+            lastTransactionId = last;
+        }
+    }
+
+    private static long maxTransactionId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM economy_transactions")) {
+            return rows.next() ? rows.getLong(1) : 0L;
+        }
+    }
+
+    private static String signature(JsonObject account) {
+        return string(account, "type") + "|" + string(account, "ownerId") + "|" + account.get("balanceCopper").getAsInt();
+    }
+
+    private static String string(JsonObject object, String member) {
+        JsonElement value = object.get(member);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    private static void setLong(PreparedStatement statement, int index, JsonElement value) throws SQLException {
+        if (value == null || value.isJsonNull()) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value.getAsLong());
+        }
+    }
+
+    private static void setInt(PreparedStatement statement, int index, JsonElement value) throws SQLException {
+        if (value == null || value.isJsonNull()) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value.getAsInt());
+        }
+    }
+}
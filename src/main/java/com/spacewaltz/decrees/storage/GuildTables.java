@@ -0,0 +1,200 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * guilds.json as tables: one row per guild (the guild itself as JSON, plus its name for
+ * queries by hand) and one row per player membership. Rows are only looked up by primary key;
+ * name and member lookups run on the loaded {@code GuildStore}. A save only rewrites the
+ * guilds and memberships that changed.
+ */
+final class GuildTables implements DocumentTables {
+
+    private static final Gson GSON = new Gson();
+
+    private static final String GUILDS = "guilds";
+    private static final String MEMBERS = "playerGuild";
+
+    /**
+     * Last written JSON of every guild by id; null if unknown.
+     */
+    private Map<Integer, String> writtenGuilds;
+
+    /**
+     * Last written membership rows, player UUID -> guild id; null if unknown.
+     */
+    private Map<String, Integer> writtenMembers;
+
+    @Override
+    public String name() {
+        return "guilds.json";
+    }
+
+    @Override
+    public void createSchema(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE IF NOT EXISTS guilds ("
+                + "id INT PRIMARY KEY, "
+                + "name VARCHAR(255), "
+                + "name_key VARCHAR(255), "
+                + "body CLOB NOT NULL)");
+
+        statement.execute("CREATE TABLE IF NOT EXISTS guild_members ("
+                + "player_uuid VARCHAR(36) PRIMARY KEY, "
+                + "guild_id INT NOT NULL)");
+
+        // Created by earlier builds but never queried.
+        statement.execute("DROP INDEX IF EXISTS guilds_name");
+        statement.execute("DROP INDEX IF EXISTS guild_members_guild");
+    }
+
+    @Override
+    public void read(Connection connection, JsonObject rest) throws SQLException {
+        JsonArray guilds = new JsonArray();
+        Map<Integer, String> written = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, body FROM guilds ORDER BY id")) {
+            while (rows.next()) {
+                String body = rows.getString(2);
+                guilds.add(JsonParser.parseString(body));
+                written.put(rows.getInt(1), body);
+            }
+        }
+
+        JsonObject members = new JsonObject();
+        Map<String, Integer> writtenMembers = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT player_uuid, guild_id FROM guild_members")) {
+            while (rows.next()) {
+                members.addProperty(rows.getString(1), rows.getInt(2));
+                writtenMembers.put(rows.getString(1), rows.getInt(2));
+            }
+        }
+
+        rest.add(GUILDS, guilds);
+        rest.add(MEMBERS, members);
+        this.writtenGuilds = written;
+        this.writtenMembers = writtenMembers;
+    }
+
+    @Override
+    public JsonObject write(Connection connection, JsonObject tree) throws SQLException {
+        JsonArray guilds = tree.has(GUILDS) ? tree.getAsJsonArray(GUILDS) : new JsonArray();
+        JsonObject members = tree.has(MEMBERS) ? tree.getAsJsonObject(MEMBERS) : new JsonObject();
+
+        writeGuilds(connection, guilds);
+        writeMembers(connection, members);
+
+        JsonObject rest = new JsonObject();
+        for (Map.Entry<String, JsonElement> member : tree.entrySet()) {
+            if (!member.getKey().equals(GUILDS) && !member.getKey().equals(MEMBERS)) {
+                rest.add(member.getKey(), member.getValue());
+            }
+        }
+        return rest;
+    }
+
+    @Override
+    public void reset() {
+        writtenGuilds = null;
+        writtenMembers = null;
+    }
+
+    private void writeGuilds(Connection connection, JsonArray guilds) throws SQLException {
+        if (writtenGuilds == null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM guilds");
+            }
+            writtenGuilds = new HashMap<>();
+        }
+
+        Map<Integer, String> current = new HashMap<>();
+        try (PreparedStatement upsert = connection.prepareStatement(
+                "MERGE INTO guilds (id, name, name_key, body) KEY (id) VALUES (?, ?, ?, ?)");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM guilds WHERE id = ?")) {
+            for (JsonElement element : guilds) {
+                if (!element.isJsonObject()) {
+                    continue;
+                }
+                JsonObject guild = element.getAsJsonObject();
+                int id = guild.get("id").getAsInt();
+                String body = GSON.toJson(guild);
+                current.put(id, body);
+                if (body.equals(writtenGuilds.get(id))) {
+                    continue;
+                }
+                JsonElement name = guild.get("name");
+                String nameValue = name == null || name.isJsonNull() ? null : name.getAsString();
+                upsert.setInt(1, id);
+                upsert.setString(2, nameValue);
+                // Same normalisation as GuildStore.findByName.
+                upsert.setString(3, nameValue != null ? nameValue.trim().toLowerCase(Locale.ROOT) : null);
+                upsert.setString(4, body);
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+
+            for (Integer id : writtenGuilds.keySet()) {
+                if (!current.containsKey(id)) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+            }
+            delete.executeBatch();
+        }
+        writtenGuilds = current;
+    }
+
+    private void writeMembers(Connection connection, JsonObject members) throws SQLException {
+        if (writtenMembers == null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM guild_members");
+            }
+            writtenMembers = new HashMap<>();
+        }
+
+        try (PreparedStatement upsert = connection.prepareStatement(
+                "MERGE INTO guild_members (player_uuid, guild_id) KEY (player_uuid) VALUES (?, ?)");
+             PreparedStatement delete = connection.prepareStatement(
+                     "DELETE FROM guild_members WHERE player_uuid = ?")) {
+            for (Map.Entry<String, JsonElement> entry : members.entrySet()) {
+                if (entry.getValue().isJsonNull()) {
+                    continue;
+                }
+                int guildId = entry.getValue().getAsInt();
+                Integer previous = writtenMembers.put(entry.getKey(), guildId);
+                if (previous == null || previous != guildId) {
+                    upsert.setString(1, entry.getKey());
+                    upsert.setInt(2, guildId);
+                    upsert.addBatch();
+                }
+            }
+            upsert.executeBatch();
+
+            Iterator<String> players = writtenMembers.keySet().iterator();
+            while (players.hasNext()) {
+                String player = players.next();
+                JsonElement value = members.get(player);
+                if (value == null || value.isJsonNull()) {
+                    delete.setString(1, player);
+                    delete.addBatch();
+                    players.remove();
+                }
+            }
+            delete.executeBatch();
+        }
+    }
+}
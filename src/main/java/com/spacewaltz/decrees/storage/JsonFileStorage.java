@@ -0,0 +1,56 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+/**
+ * The default backend: one JSON file per document in a directory, written crash-safely
+ * through {@link JsonFiles} / {@link DurableFiles}.
+ */
+public final class JsonFileStorage implements StorageBackend {
+
+    private final Path dir;
+
+    public JsonFileStorage(Path dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public <T> T read(String name, Gson gson, Type type) throws IOException {
+        return JsonFiles.read(dir.resolve(name), gson, type);
+    }
+
+    @Override
+    public void write(String name, Gson gson, JsonElement tree) throws IOException {
+        JsonFiles.write(dir.resolve(name), gson, tree);
+    }
+
+    @Override
+    public void write(String name, Gson gson, Object value, Type type) throws IOException {
+        JsonFiles.write(dir.resolve(name), gson, value, type);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return DurableFiles.exists(dir.resolve(name));
+    }
+
+    @Override
+    public void quarantine(String name) {
+        DurableFiles.quarantine(dir.resolve(name));
+    }
+
+    @Override
+    public Path directory() {
+        return dir;
+    }
+
+    @Override
+    public String toString() {
+        return dir.toString();
+    }
+}
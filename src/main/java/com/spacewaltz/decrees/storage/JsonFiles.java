@@ -0,0 +1,79 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.spacewaltz.decrees.DecreesConfig;
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+/**
+ * Streaming JSON load and save on top of {@link DurableFiles}.
+ *
+ * Loads parse straight from a buffered file channel with Gson's {@link JsonReader}, so a large
+ * data file is never held in memory as one string; saves stream the snapshot through a
+ * {@link JsonWriter} the same way. Output is indented unless
+ * {@link com.spacewaltz.decrees.DecreesConfigData#compactDataFiles} is set.
+ */
+public final class JsonFiles {
+
+    private JsonFiles() {
+    }
+
+    /**
+     * Parses the newest valid generation of {@code target}.
+     *
+     * @return the value, or null if the file does not exist.
+     * @throws IOException if generations exist but none of them parses.
+     */
+    public static <T> T read(Path target, Gson gson, Type type) throws IOException {
+        return DurableFiles.read(target, reader -> gson.<T>fromJson(new JsonReader(reader), type));
+    }
+
+    /**
+     * Streams an already-taken snapshot tree to disk.
+     */
+    public static void write(Path target, Gson gson, JsonElement tree) throws IOException {
+        DurableFiles.write(target, out -> {
+            JsonWriter writer = newWriter(out);
+            gson.toJson(tree, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Streams a value to disk without building an intermediate string or tree.
+     * Only call this on the thread that owns {@code value}.
+     */
+    public static void write(Path target, Gson gson, Object value, Type type) throws IOException {
+        DurableFiles.write(target, out -> {
+            JsonWriter writer = newWriter(out);
+            gson.toJson(value, type, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Logs how long loading a data file (by name, e.g. "guilds.json") took and what it contained.
+     *
+     * @param startNanos {@link System#nanoTime()} taken before the read started
+     * @param contents   short summary of the record counts, e.g. "12 guilds, 40 members"
+     */
+    public static void logLoaded(String name, long startNanos, String contents) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000L;
+        DecreesOfTheSix.LOGGER.info("Loaded {} in {} ms: {}.", name, millis, contents);
+    }
+
+    private static JsonWriter newWriter(Writer out) {
+        JsonWriter writer = new JsonWriter(out);
+        if (!DecreesConfig.get().compactDataFiles) {
+            writer.setIndent("  ");
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,77 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every document as a JSON string in memory, for headless load and soak tests.
+ *
+ * Documents are serialized on write and parsed on read, exactly as with files, so a
+ * store reloaded from this backend gets fresh objects and the same (de)serialization
+ * paths are exercised. Nothing touches the disk: the economy runs without journal or
+ * ledger archive and configs stay at their defaults. Thread-safe.
+ */
+public final class MemoryStorage implements StorageBackend {
+
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> T read(String name, Gson gson, Type type) throws IOException {
+        String json = documents.get(name);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException e) {
+            throw new IOException("Unreadable document " + name, e);
+        }
+    }
+
+    @Override
+    public void write(String name, Gson gson, JsonElement tree) {
+        documents.put(name, gson.toJson(tree));
+    }
+
+    @Override
+    public void write(String name, Gson gson, Object value, Type type) {
+        documents.put(name, gson.toJson(value, type));
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return documents.containsKey(name);
+    }
+
+    @Override
+    public void quarantine(String name) {
+        String json = documents.remove(name);
+        if (json != null) {
+            documents.put(name + ".corrupt-" + System.currentTimeMillis(), json);
+        }
+    }
+
+    @Override
+    public Path directory() {
+        return null;
+    }
+
+    /**
+     * Drops every document.
+     */
+    public void clear() {
+        documents.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "memory";
+    }
+}
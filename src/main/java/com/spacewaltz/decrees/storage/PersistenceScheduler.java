@@ -0,0 +1,221 @@
+package com.spacewaltz.decrees.storage;
+
+import com.spacewaltz.decrees.DecreesOfTheSix;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Shared write-behind persistence for the mod's data stores.
+ *
+ * Stores register once and then only call {@link Handle#markDirty()} when they change.
+ * On every server tick the scheduler checks each dirty store; once its dirty count reaches
+ * the threshold or its save interval has elapsed, an immutable snapshot is taken on the
+ * server thread and handed to a single background thread that writes it to disk.
+ * A burst of N mutations therefore costs one write instead of N.
+ */
+public final class PersistenceScheduler {
+
+    private static final List<Handle<?>> HANDLES = new CopyOnWriteArrayList<>();
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Decrees-Persistence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistenceScheduler() {
+    }
+
+    /**
+     * Writes a snapshot produced by a store.
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter<T> {
+        void write(T snapshot) throws IOException;
+    }
+
+    /**
+     * Registers a store.
+     *
+     * @param name            label used in log messages
+     * @param snapshotter     called on the server thread; must return data that is safe to
+     *                        serialize later from another thread
+     * @param writer          called on the persistence thread (or the caller, for {@link Handle#flushNow()})
+     * @param dirtyThreshold  number of changes that triggers a save before the interval elapses
+     * @param intervalSeconds maximum time a change may stay unsaved
+     */
+    public static <T> Handle<T> register(String name,
+                                         Supplier<T> snapshotter,
+                                         SnapshotWriter<T> writer,
+                                         IntSupplier dirtyThreshold,
+                                         IntSupplier intervalSeconds) {
+        Handle<T> handle = new Handle<>(name, snapshotter, writer, dirtyThreshold, intervalSeconds);
+        HANDLES.add(handle);
+        return handle;
+    }
+
+    /**
+     * Called from END_SERVER_TICK.
+     */
+    public static void tick(MinecraftServer server) {
+        long now = System.currentTimeMillis();
+        for (Handle<?> handle : HANDLES) {
+            handle.tick(now);
+        }
+    }
+
+    /**
+     * Synchronously writes every store that still has unsaved changes.
+     * Called on SERVER_STOPPING, before the backend is closed.
+     *
+     * Waits for background writes first: a store whose snapshot is still being written no
+     * longer counts as dirty, and one whose write fails is only marked dirty again afterwards.
+     */
+    public static void flushAll() {
+        awaitBackgroundWrites();
+        for (Handle<?> handle : HANDLES) {
+            if (handle.isDirty()) {
+                handle.flushNow();
+            }
+        }
+    }
+
+    /**
+     * Blocks until every write handed to the persistence thread so far has finished.
+     */
+    private static void awaitBackgroundWrites() {
+        try {
+            // The writer runs tasks in order, so this one completes after all earlier writes.
+            WRITER.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DecreesOfTheSix.LOGGER.warn("Interrupted while waiting for background saves to finish.");
+        } catch (ExecutionException e) {
+            DecreesOfTheSix.LOGGER.warn("Failed to wait for background saves to finish.", e);
+        }
+    }
+
+    /**
+     * Registration handle kept by each store.
+     */
+    public static final class Handle<T> {
+
+        private final String name;
+        private final Supplier<T> snapshotter;
+        private final SnapshotWriter<T> writer;
+        private final IntSupplier dirtyThreshold;
+        private final IntSupplier intervalSeconds;
+
+        private final AtomicInteger dirty = new AtomicInteger();
+        private final Object writeLock = new Object();
+
+        private volatile boolean inFlight = false;
+        private volatile long lastSaveMillis = System.currentTimeMillis();
+
+        // Snapshots are numbered so a slow background write can never overwrite a newer one.
+        private final AtomicLong snapshotSeq = new AtomicLong();
+        private long writtenSeq = 0L;
+
+        private Handle(String name,
+                       Supplier<T> snapshotter,
+                       SnapshotWriter<T> writer,
+                       IntSupplier dirtyThreshold,
+                       IntSupplier intervalSeconds) {
+            this.name = name;
+            this.snapshotter = snapshotter;
+            this.writer = writer;
+            this.dirtyThreshold = dirtyThreshold;
+            this.intervalSeconds = intervalSeconds;
+        }
+
+        /**
+         * Records one unsaved change.
+         */
+        public void markDirty() {
+            dirty.incrementAndGet();
+        }
+
+        public boolean isDirty() {
+            return dirty.get() > 0;
+        }
+
+        /**
+         * Takes a snapshot on the calling thread and writes it immediately.
+         */
+        public void flushNow() {
+            synchronized (writeLock) {
+                int changes = dirty.getAndSet(0);
+                long seq = snapshotSeq.incrementAndGet();
+                T snapshot = snapshotter.get();
+                write(snapshot, seq, changes);
+            }
+        }
+
+        /**
+         * Runs {@code action} while no write of this store is in progress or can start,
+         * e.g. a reload that reads the files a background write would replace. Snapshots
+         * taken before it are not written afterwards. {@link #flushNow()} may be called
+         * from inside it.
+         */
+        public void exclusive(Runnable action) {
+            synchronized (writeLock) {
+                action.run();
+                writtenSeq = Math.max(writtenSeq, snapshotSeq.get());
+            }
+        }
+
+        private void tick(long now) {
+            int changes = dirty.get();
+            if (changes <= 0 || inFlight) {
+                return;
+            }
+
+            int threshold = dirtyThreshold.getAsInt();
+            long intervalMillis = Math.max(1, intervalSeconds.getAsInt()) * 1000L;
+            boolean due = (threshold > 0 && changes >= threshold) || now - lastSaveMillis >= intervalMillis;
+            if (!due) {
+                return;
+            }
+
+            int taken = dirty.getAndSet(0);
+            long seq = snapshotSeq.incrementAndGet();
+            T snapshot = snapshotter.get();
+
+            inFlight = true;
+            WRITER.execute(() -> {
+                try {
+                    synchronized (writeLock) {
+                        write(snapshot, seq, taken);
+                    }
+                } finally {
+                    inFlight = false;
+                }
+            });
+        }
+
+        private void write(T snapshot, long seq, int changes) {
+            if (seq < writtenSeq) {
+                return; // a newer snapshot already reached disk
+            }
+            try {
+                writer.write(snapshot);
+                writtenSeq = seq;
+                lastSaveMillis = System.currentTimeMillis();
+            } catch (IOException | RuntimeException e) {
+                DecreesOfTheSix.LOGGER.error("Failed to persist " + name + "; will retry.", e);
+                dirty.addAndGet(Math.max(1, changes));
+            }
+        }
+    }
+}
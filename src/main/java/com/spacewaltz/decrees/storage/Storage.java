@@ -0,0 +1,85 @@
+package com.spacewaltz.decrees.storage;
+
+import com.spacewaltz.decrees.DecreesOfTheSix;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The {@link StorageBackend} every store reads and writes through.
+ *
+ * Defaults to JSON files in {@link DataPaths#dataDir()}, resolved on first use rather than
+ * when a store class loads, so nothing here needs a running game. Tests and tools install
+ * their own backend with {@link #use(StorageBackend)} before loading any store.
+ */
+public final class Storage {
+
+    private static volatile StorageBackend backend;
+
+    private Storage() {
+    }
+
+    public static StorageBackend backend() {
+        StorageBackend current = backend;
+        if (current == null) {
+            synchronized (Storage.class) {
+                current = backend;
+                if (current == null) {
+                    current = new JsonFileStorage(DataPaths.dataDir());
+                    backend = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Switches every store to {@code backend}. Reload the stores afterwards; data already
+     * in memory is not copied over.
+     */
+    public static void use(StorageBackend backend) {
+        Storage.backend = backend;
+    }
+
+    /**
+     * Switches to the backend named by {@code storageBackend} in economy_config.json, in the
+     * current backend's directory. Called once at startup, before any store loads. A backend
+     * without a directory (tests) is left alone.
+     *
+     * @throws IllegalStateException if the database cannot be opened.
+     */
+    public static void select(String kind) {
+        StorageBackend current = backend();
+        Path dir = current.directory();
+        if (dir == null) {
+            return;
+        }
+
+        if (DatabaseStorage.KIND.equalsIgnoreCase(kind)) {
+            if (current instanceof DatabaseStorage) {
+                return;
+            }
+            try {
+                use(DatabaseStorage.open(dir));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open the data store in " + dir, e);
+            }
+            DecreesOfTheSix.LOGGER.info("Using embedded database {} for data storage.", dir.resolve(DatabaseStorage.FILE_NAME));
+            return;
+        }
+
+        if (kind != null && !kind.isBlank() && !kind.equalsIgnoreCase("json")) {
+            DecreesOfTheSix.LOGGER.warn("Unknown storageBackend \"{}\" in economy_config.json; using JSON files.", kind);
+        }
+        if (!(current instanceof JsonFileStorage)) {
+            current.close();
+            use(new JsonFileStorage(dir));
+        }
+        if (DurableFiles.exists(dir.resolve(DatabaseStorage.FILE_NAME))
+                && !DurableFiles.exists(dir.resolve("economy.json"))) {
+            DecreesOfTheSix.LOGGER.warn("Data was moved into {} earlier but storageBackend is \"json\"; "
+                    + "the stores start empty. Set it back to \"{}\" to use that data.",
+                    DatabaseStorage.FILE_NAME, DatabaseStorage.KIND);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.spacewaltz.decrees.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+/**
+ * Where the data stores keep their documents (guilds.json, decrees.json, economy.json, ...).
+ *
+ * Stores address documents by file name and always go through {@link Storage#backend()}, so the
+ * same code runs against the config directory on a server ({@link JsonFileStorage} or
+ * {@link DatabaseStorage}) or entirely in memory in a headless test ({@link MemoryStorage}).
+ *
+ * Data that only makes sense as files (the economy journal and ledger segments, exports, and
+ * the hand-edited config files) lives under {@link #directory()}; a backend without a directory
+ * runs with those features off and configs at their defaults.
+ */
+public interface StorageBackend {
+
+    /**
+     * @return the stored value, or null if the document does not exist.
+     * @throws IOException if the document exists but cannot be read or parsed.
+     */
+    <T> T read(String name, Gson gson, Type type) throws IOException;
+
+    /**
+     * Stores an already-taken snapshot tree, replacing the previous version.
+     */
+    void write(String name, Gson gson, JsonElement tree) throws IOException;
+
+    /**
+     * Stores a value directly. Only call this on the thread that owns {@code value}.
+     */
+    void write(String name, Gson gson, Object value, Type type) throws IOException;
+
+    boolean exists(String name);
+
+    /**
+     * Moves an unreadable document out of the way so the next write does not destroy it.
+     */
+    void quarantine(String name);
+
+    /**
+     * Directory for file-only data, or null if this backend keeps nothing on disk.
+     */
+    Path directory();
+
+    /**
+     * Releases what the backend holds open. Called on shutdown after the last write.
+     */
+    default void close() {
+    }
+}
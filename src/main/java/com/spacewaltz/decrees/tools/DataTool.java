@@ -0,0 +1,471 @@
+package com.spacewaltz.decrees.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.spacewaltz.decrees.DecreesConfig;
+import com.spacewaltz.decrees.decree.DecreeHistoryLogger;
+import com.spacewaltz.decrees.decree.DecreeStore;
+import com.spacewaltz.decrees.economy.EconomyAccount;
+import com.spacewaltz.decrees.economy.EconomyConfig;
+import com.spacewaltz.decrees.economy.EconomyStore;
+import com.spacewaltz.decrees.economy.RecurringPayments;
+import com.spacewaltz.decrees.guilds.GuildStore;
+import com.spacewaltz.decrees.storage.DataPaths;
+import com.spacewaltz.decrees.storage.DatabaseStorage;
+import com.spacewaltz.decrees.storage.DurableFiles;
+import com.spacewaltz.decrees.storage.JsonFileStorage;
+import com.spacewaltz.decrees.storage.Storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline maintenance for the mod's data directory. Run it while the server is stopped:
+ * the server keeps the stores in memory and would overwrite whatever this changes.
+ *
+ * <pre>
+ * DataTool [--dir &lt;data dir&gt;] [--threads &lt;n&gt;] &lt;command&gt;
+ *
+ *   compact       rewrite the data files as compact JSON and turn on compactDataFiles
+ *   pretty        rewrite them indented again and turn compactDataFiles off
+ *   checkpoint    fold the economy journal into economy.json and seal old transactions
+ *                 into binary ledger segments
+ *   check         load every store and report broken references between them
+ *   prune         drop empty treasury accounts of guilds that no longer exist
+ *   migrate h2    move the data files into the embedded database
+ *   migrate json  move them back out into JSON files
+ * </pre>
+ *
+ * The directory defaults to config/decrees_of_the_six under the working directory.
+ * Files are reformatted in parallel, one per thread, and stores are loaded in parallel;
+ * each step reports how long it took. Exits with 1 if {@code check} found errors and 2
+ * if the command could not run.
+ */
+public final class DataTool {
+
+    private static final Gson GSON = new Gson();
+
+    private static final String DEFAULT_DIR = "config/decrees_of_the_six";
+
+    private static final Set<String> COMMANDS = Set.of("compact", "pretty", "checkpoint", "check", "prune", "migrate");
+
+    private final Path dir;
+    private final int threads;
+
+    private DataTool(Path dir, int threads) {
+        this.dir = dir;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Parses the command line and runs the command.
+     *
+     * @return the process exit code.
+     */
+    static int run(String[] args) {
+        Path dir = Path.of(DEFAULT_DIR);
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--dir") && i + 1 < args.length) {
+                dir = Path.of(args[++i]);
+            } else if (arg.equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    return usage("--threads needs a number.");
+                }
+            } else if (arg.startsWith("--")) {
+                return usage("Unknown option " + arg + ".");
+            } else {
+                command.add(arg.toLowerCase(Locale.ROOT));
+            }
+        }
+        if (command.isEmpty()) {
+            return usage(null);
+        }
+        if (!COMMANDS.contains(command.get(0))) {
+            return usage("Unknown command " + command.get(0) + ".");
+        }
+        if (!Files.isDirectory(dir)) {
+            System.err.println("No data directory at " + dir.toAbsolutePath() + ".");
+            return 2;
+        }
+
+        // Must be set before any store or config class resolves its paths.
+        System.setProperty(DataPaths.DATA_DIR_PROPERTY, dir.toString());
+        DecreesConfig.load();
+        EconomyConfig.load();
+
+        DataTool tool = new DataTool(dir, threads);
+        long start = System.nanoTime();
+        try {
+            int code = switch (command.get(0)) {
+                case "compact" -> tool.reformat(true);
+                case "pretty" -> tool.reformat(false);
+                case "checkpoint" -> tool.checkpoint();
+                case "check" -> tool.check();
+                case "prune" -> tool.prune();
+                case "migrate" -> command.size() == 2
+                        ? tool.migrate(command.get(1))
+                        : usage("migrate needs a target: " + DatabaseStorage.KIND + " or json.");
+                default -> usage("Unknown command " + command.get(0) + ".");
+            };
+            System.out.printf(Locale.ROOT, "Done in %d ms.%n", millisSince(start));
+            return code;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed: " + e);
+            e.printStackTrace();
+            return 2;
+        } finally {
+            Storage.backend().close();
+        }
+    }
+
+    private static int usage(String problem) {
+        if (problem != null) {
+            System.err.println(problem);
+        }
+        System.err.println("Usage: DataTool [--dir <data dir>] [--threads <n>] "
+                + "compact | pretty | checkpoint | check | prune | migrate h2|json");
+        return 2;
+    }
+
+    // ---------------------------------------------------------------------
+    // compact / pretty
+    // ---------------------------------------------------------------------
+
+    /**
+     * Rewrites every data file, one per thread, then records the format in decrees_config.json
+     * so the stores keep writing it.
+     */
+    private int reformat(boolean compact) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String name : DatabaseStorage.DATA_FILES) {
+            Path file = dir.resolve(name);
+            if (Files.exists(file)) {
+                files.add(file);
+            } else if (DurableFiles.exists(file)) {
+                System.out.println("Skipping " + name + ": only a .tmp/.bak generation exists; "
+                        + "start the server once to recover it.");
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("No data files in " + dir + (usingDatabase()
+                    ? " (the stores live in " + DatabaseStorage.FILE_NAME + ")." : "."));
+        }
+
+        Map<Path, Callable<String>> tasks = new LinkedHashMap<>();
+        for (Path file : files) {
+            tasks.put(file, () -> reformat(file, compact));
+        }
+        boolean failed = false;
+        for (Map.Entry<Path, Future<String>> result : runAll(tasks).entrySet()) {
+            try {
+                System.out.println(result.getValue().get());
+            } catch (ExecutionException e) {
+                System.out.println(result.getKey().getFileName() + ": failed, left unchanged: " + e.getCause());
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 2;
+            }
+        }
+
+        DecreesConfig.get().compactDataFiles = compact;
+        DecreesConfig.save();
+        System.out.println("compactDataFiles is now " + compact + " in decrees_config.json.");
+        return failed ? 2 : 0;
+    }
+
+    /**
+     * Streams one file token by token into its replacement, so no document is held in memory.
+     *
+     * @return a report line with sizes and timing.
+     */
+    private static String reformat(Path file, boolean compact) throws IOException {
+        long start = System.nanoTime();
+        long before = Files.size(file);
+        try {
+            DurableFiles.write(file, out -> {
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    JsonWriter writer = new JsonWriter(out);
+                    if (!compact) {
+                        writer.setIndent("  ");
+                    }
+                    copy(new JsonReader(in), writer);
+                    writer.flush();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // A half-written temp file would otherwise be offered as a generation on the next load.
+            Files.deleteIfExists(DurableFiles.tempPath(file));
+            throw e;
+        }
+        long after = Files.size(file);
+        return String.format(Locale.ROOT, "%-26s %,15d -> %,15d bytes (%5.1f%%) in %,6d ms",
+                file.getFileName(), before, after, before > 0 ? 100.0 * after / before : 100.0, millisSince(start));
+    }
+
+    /**
+     * Copies one JSON document; numbers keep their exact literal.
+     */
+    private static void copy(JsonReader in, JsonWriter out) throws IOException {
+        int depth = 0;
+        do {
+            switch (in.peek()) {
+                case BEGIN_ARRAY -> {
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                }
+                case BEGIN_OBJECT -> {
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                }
+                case NAME -> out.name(in.nextName());
+                case STRING -> out.value(in.nextString());
+                case NUMBER -> out.jsonValue(in.nextString());
+                case BOOLEAN -> out.value(in.nextBoolean());
+                case NULL -> {
+                    in.nextNull();
+                    out.nullValue();
+                }
+                case END_DOCUMENT -> throw new IOException("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    // ---------------------------------------------------------------------
+    // checkpoint / check / prune
+    // ---------------------------------------------------------------------
+
+    private int checkpoint() {
+        Storage.select(EconomyConfig.get().storageBackend);
+        long start = System.nanoTime();
+        EconomyStore.load();
+        long loaded = millisSince(start);
+
+        start = System.nanoTime();
+        EconomyStore.save();
+        EconomyStore store = EconomyStore.get();
+        System.out.printf(Locale.ROOT, "Loaded the economy in %d ms and wrote a checkpoint in %d ms: "
+                        + "%d accounts, %d transactions (%d in the window, the rest in ledger segments).%n",
+                loaded, millisSince(start), store.accounts.size(), store.transactionCount(),
+                store.transactions.size());
+        return 0;
+    }
+
+    private int check() throws IOException {
+        Storage.select(EconomyConfig.get().storageBackend);
+        loadStores(true);
+
+        long start = System.nanoTime();
+        IntegrityCheck report = IntegrityCheck.run();
+        report.print(System.out);
+        System.out.printf(Locale.ROOT, "Checked in %d ms: %d error(s), %d warning(s).%n",
+                millisSince(start), report.errorCount(), report.warningCount());
+        return report.errorCount() > 0 ? 1 : 0;
+    }
+
+    private int prune() throws IOException {
+        Storage.select(EconomyConfig.get().storageBackend);
+        loadStores(false);
+
+        EconomyStore store = EconomyStore.get();
+        int removed = 0;
+        for (EconomyAccount account : IntegrityCheck.orphanedGuildAccounts()) {
+            String label = account.id + " (" + account.ownerId + ")";
+            if (IntegrityCheck.isScheduled(account.id)) {
+                System.out.println("Kept " + label + ": a recurring payment still uses it.");
+            } else if (store.removeAccount(account.id)) {
+                System.out.println("Removed " + label + ".");
+                removed++;
+            } else {
+                System.out.println("Kept " + label + ": it still holds " + account.balanceCopper + " copper.");
+            }
+        }
+
+        if (removed > 0) {
+            long start = System.nanoTime();
+            EconomyStore.save();
+            System.out.printf(Locale.ROOT, "Removed %d account(s); checkpoint written in %d ms.%n",
+                    removed, millisSince(start));
+        } else {
+            System.out.println("Nothing to remove.");
+        }
+        return 0;
+    }
+
+    /**
+     * Loads the stores in parallel, each on its own thread, and reports the time each took.
+     */
+    private void loadStores(boolean decrees) throws IOException {
+        Map<String, Callable<String>> loads = new LinkedHashMap<>();
+        loads.put("economy", timed(EconomyStore::load));
+        loads.put("guilds", timed(GuildStore::load));
+        loads.put("recurring payments", timed(RecurringPayments::load));
+        if (decrees) {
+            loads.put("decrees", timed(DecreeStore::load));
+            loads.put("decree history", timed(DecreeHistoryLogger::init));
+        }
+
+        for (Map.Entry<String, Future<String>> result : runAll(loads).entrySet()) {
+            try {
+                System.out.println("Loaded " + result.getKey() + " in " + result.getValue().get() + " ms.");
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to load " + result.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + result.getKey(), e);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // migrate
+    // ---------------------------------------------------------------------
+
+    private int migrate(String target) throws IOException {
+        if (target.equals(DatabaseStorage.KIND)) {
+            return migrateToDatabase();
+        }
+        if (target.equals("json")) {
+            return migrateToFiles();
+        }
+        return usage("Unknown migration target " + target + "; use " + DatabaseStorage.KIND + " or json.");
+    }
+
+    private int migrateToDatabase() throws IOException {
+        if (usingDatabase()) {
+            System.out.println("storageBackend is already \"" + DatabaseStorage.KIND + "\".");
+            return 0;
+        }
+
+        // Fold the journal first so the imported economy.json is complete.
+        Storage.use(new JsonFileStorage(dir));
+        EconomyStore.load();
+        EconomyStore.save();
+
+        long start = System.nanoTime();
+        DatabaseStorage database = DatabaseStorage.open(dir);
+        Storage.use(database);
+        for (String name : DatabaseStorage.DATA_FILES) {
+            System.out.println((database.exists(name) ? "In database: " : "Not present: ") + name);
+        }
+        System.out.printf(Locale.ROOT, "Imported into %s in %d ms.%n", DatabaseStorage.FILE_NAME, millisSince(start));
+
+        EconomyConfig.get().storageBackend = DatabaseStorage.KIND;
+        EconomyConfig.save();
+        System.out.println("storageBackend is now \"" + DatabaseStorage.KIND + "\" in economy_config.json.");
+        return 0;
+    }
+
+    private int migrateToFiles() throws IOException {
+        Path databaseFile = dir.resolve(DatabaseStorage.FILE_NAME);
+        if (!Files.exists(databaseFile)) {
+            System.out.println("No " + DatabaseStorage.FILE_NAME + " in " + dir + "; nothing to migrate.");
+            return 0;
+        }
+
+        // Fold the journal into the database first, the way the server would on start.
+        DatabaseStorage database = DatabaseStorage.open(dir);
+        Storage.use(database);
+        EconomyStore.load();
+        EconomyStore.save();
+
+        long start = System.nanoTime();
+        JsonFileStorage files = new JsonFileStorage(dir);
+        for (String name : DatabaseStorage.DATA_FILES) {
+            JsonElement tree = database.read(name, GSON, JsonElement.class);
+            if (tree != null) {
+                files.write(name, GSON, tree);
+                System.out.println("Exported " + name);
+            }
+        }
+        database.close();
+        Storage.use(files);
+        Files.move(databaseFile, databaseFile.resolveSibling(DatabaseStorage.FILE_NAME + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        System.out.printf(Locale.ROOT, "Exported %s in %d ms and renamed it to %s.migrated.%n",
+                DatabaseStorage.FILE_NAME, millisSince(start), DatabaseStorage.FILE_NAME);
+
+        EconomyConfig.get().storageBackend = "json";
+        EconomyConfig.save();
+        System.out.println("storageBackend is now \"json\" in economy_config.json.");
+        return 0;
+    }
+
+    // ---------------------------------------------------------------------
+    // helpers
+    // ---------------------------------------------------------------------
+
+    private boolean usingDatabase() {
+        return DatabaseStorage.KIND.equalsIgnoreCase(EconomyConfig.get().storageBackend);
+    }
+
+    /**
+     * Runs the tasks on a pool of at most {@link #threads} threads and returns their futures
+     * in submission order.
+     */
+    private <K, V> Map<K, Future<V>> runAll(Map<K, Callable<V>> tasks) {
+        Map<K, Future<V>> results = new LinkedHashMap<>();
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+        try {
+            for (Map.Entry<K, Callable<V>> task : tasks.entrySet()) {
+                results.put(task.getKey(), pool.submit(task.getValue()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    private static Callable<String> timed(Runnable load) {
+        return () -> {
+            long start = System.nanoTime();
+            load.run();
+            return Long.toString(millisSince(start));
+        };
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
@@ -0,0 +1,269 @@
+package com.spacewaltz.decrees.tools;
+
+import com.spacewaltz.decrees.decree.Decree;
+import com.spacewaltz.decrees.decree.DecreeStore;
+import com.spacewaltz.decrees.economy.AccountType;
+import com.spacewaltz.decrees.economy.EconomyAccount;
+import com.spacewaltz.decrees.economy.EconomyStore;
+import com.spacewaltz.decrees.economy.RecurringPayment;
+import com.spacewaltz.decrees.economy.RecurringPayments;
+import com.spacewaltz.decrees.guilds.Guild;
+import com.spacewaltz.decrees.guilds.GuildRole;
+import com.spacewaltz.decrees.guilds.GuildStore;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cross-store consistency checks over the loaded stores, for {@link DataTool}.
+ *
+ * Errors are references the mod would trip over (a member of a guild that does not exist,
+ * an account filed under the wrong id); warnings are leftovers it tolerates, such as the
+ * empty treasury of a disbanded guild.
+ */
+final class IntegrityCheck {
+
+    /**
+     * Examples listed per kind of dangling transaction reference before the rest are only counted.
+     */
+    private static final int MAX_EXAMPLES = 5;
+
+    private final List<String> errors = new ArrayList<>();
+    private final List<String> warnings = new ArrayList<>();
+
+    private IntegrityCheck() {
+    }
+
+    /**
+     * Checks the stores as currently loaded.
+     */
+    static IntegrityCheck run() {
+        IntegrityCheck check = new IntegrityCheck();
+        check.checkAccounts();
+        check.checkTransactions();
+        check.checkGuilds();
+        check.checkRecurringPayments();
+        check.checkDecrees();
+        return check;
+    }
+
+    int errorCount() {
+        return errors.size();
+    }
+
+    int warningCount() {
+        return warnings.size();
+    }
+
+    void print(PrintStream out) {
+        for (String error : errors) {
+            out.println("ERROR  " + error);
+        }
+        for (String warning : warnings) {
+            out.println("WARN   " + warning);
+        }
+    }
+
+    /**
+     * Guild treasury accounts ("GUILD:&lt;id&gt;") whose guild no longer exists.
+     */
+    static List<EconomyAccount> orphanedGuildAccounts() {
+        Set<Integer> guildIds = new HashSet<>();
+        for (Guild guild : GuildStore.get().guilds) {
+            guildIds.add(guild.id);
+        }
+
+        List<EconomyAccount> orphans = new ArrayList<>();
+        for (EconomyAccount account : EconomyStore.get().accounts.values()) {
+            Integer guildId = EconomyStore.guildIdOf(account);
+            if (guildId != null && !guildIds.contains(guildId)) {
+                orphans.add(account);
+            }
+        }
+        orphans.sort((a, b) -> a.id.compareTo(b.id));
+        return orphans;
+    }
+
+    /**
+     * Whether a recurring payment pays from or into the account.
+     */
+    static boolean isScheduled(String accountId) {
+        for (RecurringPayment payment : RecurringPayments.all()) {
+            if (accountId.equals(payment.fromAccountId) || accountId.equals(payment.toAccountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkAccounts() {
+        EconomyStore store = EconomyStore.get();
+        Map<String, String> owners = new HashMap<>();
+        for (Map.Entry<String, EconomyAccount> entry : store.accounts.entrySet()) {
+            EconomyAccount account = entry.getValue();
+            if (account == null) {
+                errors.add("Account " + entry.getKey() + " is empty.");
+                continue;
+            }
+            if (!entry.getKey().equals(account.id)) {
+                errors.add("Account " + account.id + " is filed under " + entry.getKey() + ".");
+            }
+            if (account.type == null) {
+                errors.add("Account " + entry.getKey() + " has no type.");
+            }
+            if (account.balanceCopper < 0) {
+                errors.add("Account " + entry.getKey() + " has a negative balance (" + account.balanceCopper + ").");
+            }
+            if (account.type != null && account.ownerId != null) {
+                String other = owners.putIfAbsent(account.type + "|" + account.ownerId, entry.getKey());
+                if (other != null) {
+                    warnings.add("Accounts " + other + " and " + entry.getKey() + " share owner "
+                            + account.type + " " + account.ownerId + "; only one is used.");
+                }
+            }
+        }
+
+        EconomyAccount treasury = store.treasuryAccountId != null ? store.accounts.get(store.treasuryAccountId) : null;
+        if (treasury == null) {
+            errors.add("Treasury account " + store.treasuryAccountId + " does not exist.");
+        } else if (treasury.type != AccountType.TREASURY) {
+            errors.add("Treasury account " + treasury.id + " has type " + treasury.type + ".");
+        }
+
+        for (EconomyAccount orphan : orphanedGuildAccounts()) {
+            warnings.add("Account " + orphan.id + " belongs to missing guild " + orphan.ownerId
+                    + (orphan.balanceCopper != 0 ? " and still holds " + orphan.balanceCopper + " copper."
+                    : "; prune removes it."));
+        }
+    }
+
+    /**
+     * Transactions naming accounts that do not exist. Expected after a prune (history is
+     * never rewritten), so only a warning with a count per account.
+     */
+    private void checkTransactions() {
+        EconomyStore store = EconomyStore.get();
+        Map<String, Integer> unknown = new TreeMap<>();
+        long[] previousId = {0L};
+        int[] outOfOrder = {0};
+        store.forEachTransaction(tx -> {
+            if (tx.id <= previousId[0]) {
+                outOfOrder[0]++;
+            }
+            previousId[0] = tx.id;
+            if (tx.fromAccountId != null && !store.accounts.containsKey(tx.fromAccountId)) {
+                unknown.merge(tx.fromAccountId, 1, Integer::sum);
+            }
+            if (tx.toAccountId != null && !store.accounts.containsKey(tx.toAccountId)) {
+                unknown.merge(tx.toAccountId, 1, Integer::sum);
+            }
+        });
+
+        if (outOfOrder[0] > 0) {
+            errors.add(outOfOrder[0] + " transaction(s) are out of id order.");
+        }
+        if (previousId[0] >= store.nextTransactionId) {
+            errors.add("nextTransactionId " + store.nextTransactionId + " is not past the last transaction "
+                    + previousId[0] + ".");
+        }
+        int listed = 0;
+        for (Map.Entry<String, Integer> entry : unknown.entrySet()) {
+            if (listed++ == MAX_EXAMPLES) {
+                warnings.add("... and " + (unknown.size() - MAX_EXAMPLES) + " more unknown account(s) in the ledger.");
+                break;
+            }
+            warnings.add(entry.getValue() + " transaction(s) name unknown account " + entry.getKey() + ".");
+        }
+    }
+
+    private void checkGuilds() {
+        GuildStore guilds = GuildStore.get();
+        EconomyStore economy = EconomyStore.get();
+
+        Map<Integer, Guild> byId = new HashMap<>();
+        Map<String, Integer> byName = new HashMap<>();
+        for (Guild guild : guilds.guilds) {
+            if (byId.putIfAbsent(guild.id, guild) != null) {
+                errors.add("Guild id " + guild.id + " is used twice.");
+            }
+            if (guild.id >= guilds.nextGuildId) {
+                errors.add("Guild " + guild.id + " is not below nextGuildId " + guilds.nextGuildId + ".");
+            }
+            if (guild.name != null) {
+                Integer other = byName.putIfAbsent(guild.name.trim().toLowerCase(Locale.ROOT), guild.id);
+                if (other != null) {
+                    warnings.add("Guilds " + other + " and " + guild.id + " share the name \"" + guild.name + "\".");
+                }
+            }
+
+            if (guild.treasuryAccountId == null || guild.treasuryAccountId.isBlank()) {
+                warnings.add("Guild " + guild.id + " has no treasury account.");
+            } else {
+                EconomyAccount treasury = economy.accounts.get(guild.treasuryAccountId);
+                if (treasury == null) {
+                    errors.add("Guild " + guild.id + " treasury " + guild.treasuryAccountId + " does not exist.");
+                } else if (!Integer.valueOf(guild.id).equals(EconomyStore.guildIdOf(treasury))) {
+                    errors.add("Guild " + guild.id + " treasury " + treasury.id + " belongs to "
+                            + treasury.type + " " + treasury.ownerId + ".");
+                }
+            }
+
+            for (Map.Entry<String, GuildRole> member : guild.members.entrySet()) {
+                Integer filed = guilds.playerGuild.get(member.getKey());
+                if (filed == null || filed != guild.id) {
+                    errors.add("Member " + member.getKey() + " of guild " + guild.id + " is filed under guild "
+                            + filed + ".");
+                }
+            }
+            if (guild.leaderUuid != null && guild.members.get(guild.leaderUuid) != GuildRole.LEADER) {
+                warnings.add("Leader " + guild.leaderUuid + " of guild " + guild.id + " is not a member with the leader role.");
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : guilds.playerGuild.entrySet()) {
+            Guild guild = entry.getValue() != null ? byId.get(entry.getValue()) : null;
+            if (guild == null) {
+                errors.add("Player " + entry.getKey() + " is filed under missing guild " + entry.getValue() + ".");
+            } else if (!guild.members.containsKey(entry.getKey())) {
+                errors.add("Player " + entry.getKey() + " is filed under guild " + guild.id + " but is not a member.");
+            }
+        }
+        for (Map.Entry<String, Integer> entry : guilds.pendingInvites.entrySet()) {
+            if (entry.getValue() == null || !byId.containsKey(entry.getValue())) {
+                warnings.add("Player " + entry.getKey() + " has an invite to missing guild " + entry.getValue() + ".");
+            }
+        }
+    }
+
+    private void checkRecurringPayments() {
+        EconomyStore economy = EconomyStore.get();
+        for (RecurringPayment payment : RecurringPayments.all()) {
+            if (!economy.accounts.containsKey(payment.toAccountId)) {
+                errors.add("Recurring payment #" + payment.id + " pays into missing account " + payment.toAccountId + ".");
+            }
+            if (payment.fromAccountId != null && !economy.accounts.containsKey(payment.fromAccountId)) {
+                errors.add("Recurring payment #" + payment.id + " pays from missing account " + payment.fromAccountId + ".");
+            }
+        }
+    }
+
+    private void checkDecrees() {
+        DecreeStore store = DecreeStore.get();
+        Set<Integer> ids = new HashSet<>();
+        for (Decree decree : store.decrees) {
+            if (!ids.add(decree.id)) {
+                errors.add("Decree id " + decree.id + " is used twice.");
+            }
+            if (decree.id >= store.nextId) {
+                errors.add("Decree " + decree.id + " is not below nextId " + store.nextId + ".");
+            }
+        }
+    }
+}
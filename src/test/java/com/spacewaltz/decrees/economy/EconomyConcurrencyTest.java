@@ -0,0 +1,214 @@
+package com.spacewaltz.decrees.economy;
+
+import com.spacewaltz.decrees.storage.JsonFileStorage;
+import com.spacewaltz.decrees.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Money is neither created nor lost when transfers, batches and account creation run on
+ * many threads at once.
+ */
+class EconomyConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int START_COPPER = 1000;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void useTempDir() {
+        Storage.use(new JsonFileStorage(dir));
+        EconomyConfig.load();
+        EconomyStore.load();
+    }
+
+    @Test
+    void concurrentTransfersAndBatchesConserveBalances() throws Exception {
+        EconomyConfig.get().transferTaxPercent = 5.0;
+
+        EconomyAccount[] accounts = new EconomyAccount[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = EconomyService.getOrCreatePlayerAccount(new UUID(7L, i));
+            assertTrue(EconomyService.mint(accounts[i], START_COPPER, null));
+        }
+        long total = totalBalance();
+        long startCount = EconomyStore.get().transactionCount();
+
+        AtomicLong recorded = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        EconomyAccount a = accounts[random.nextInt(ACCOUNTS)];
+                        EconomyAccount b = accounts[random.nextInt(ACCOUNTS)];
+                        EconomyAccount c = accounts[random.nextInt(ACCOUNTS)];
+                        int amount = 1 + random.nextInt(300);
+                        if (random.nextBoolean()) {
+                            if (EconomyService.transfer(a, b, amount, TransactionType.PLAYER_PAYMENT, null)) {
+                                recorded.incrementAndGet();
+                            }
+                        } else {
+                            // Legs may share accounts and chain through b, so the batch
+                            // check has to project balances leg by leg.
+                            long batchId = EconomyService.transferBatch(List.of(
+                                    EconomyService.Leg.transfer(a, b, amount, TransactionType.PLAYER_PAYMENT, null),
+                                    EconomyService.Leg.transfer(b, c, amount, TransactionType.SCHEDULED_PAYMENT, null)
+                            ));
+                            if (batchId > 0L) {
+                                recorded.addAndGet(2);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> settler = pool.submit(() -> {
+                while (running.get()) {
+                    if (EconomyService.settleTransferTax() > 0L) {
+                        recorded.incrementAndGet();
+                    }
+                    Thread.yield();
+                }
+            });
+            start.countDown();
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            running.set(false);
+            settler.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        EconomyAggregates aggregates = EconomyStore.get().aggregates();
+        for (EconomyAccount account : EconomyStore.get().accounts.values()) {
+            assertTrue(account.balanceCopper >= 0, account.id + " is overdrawn");
+        }
+        assertEquals(total, totalBalance() + aggregates.pendingTaxCopper());
+        assertEquals(totalBalance(), aggregates.moneySupply());
+        assertEquals(startCount + recorded.get(), EconomyStore.get().transactionCount());
+
+        // Reloading from the checkpoint and the journal must rebuild the same balances and pending tax.
+        Map<String, Integer> before = balances();
+        long pendingBefore = aggregates.pendingTaxCopper();
+        EconomyStore.load();
+        assertEquals(before, balances());
+        assertEquals(pendingBefore, EconomyStore.get().aggregates().pendingTaxCopper());
+
+        EconomyService.settleTransferTax();
+        assertEquals(0L, EconomyStore.get().aggregates().pendingTaxCopper());
+        assertEquals(total, totalBalance());
+    }
+
+    @Test
+    void paymentsIntoAccountsBeingCreatedSurviveReload() throws Exception {
+        EconomyConfig.get().startingBalanceCopper = 25;
+        int newAccounts = 2000;
+
+        EconomyAccount[] payers = new EconomyAccount[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            payers[i] = EconomyService.getOrCreatePlayerAccount(new UUID(8L, i));
+            assertTrue(EconomyService.mint(payers[i], 1_000_000, null));
+        }
+        UUID[] owners = new UUID[newAccounts];
+        for (int i = 0; i < newAccounts; i++) {
+            owners[i] = new UUID(9L, i);
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<?> creator = pool.submit(() -> {
+                start.await();
+                for (UUID owner : owners) {
+                    EconomyService.getOrCreatePlayerAccount(owner);
+                    created.incrementAndGet();
+                }
+                return null;
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                EconomyAccount payer = payers[t];
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    // Pay into the newest accounts as soon as the index shows them.
+                    while (created.get() < newAccounts) {
+                        int newest = created.get();
+                        for (int i = newest; i < Math.min(newest + 2, newAccounts); i++) {
+                            EconomyAccount target = EconomyStore.get()
+                                    .findAccountByOwner(AccountType.PLAYER, owners[i].toString());
+                            if (target != null) {
+                                EconomyService.transfer(payer, target, 3, TransactionType.PLAYER_PAYMENT, null);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            creator.get();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Integer> before = balances();
+        long total = totalBalance();
+        EconomyStore.load();
+        assertEquals(before, balances());
+        assertEquals(total, totalBalance());
+        for (UUID owner : owners) {
+            assertTrue(EconomyStore.get().findAccountByOwner(AccountType.PLAYER, owner.toString()) != null);
+        }
+    }
+
+    private static long totalBalance() {
+        long sum = 0L;
+        for (EconomyAccount account : EconomyStore.get().accounts.values()) {
+            sum += account.balanceCopper;
+        }
+        return sum;
+    }
+
+    private static Map<String, Integer> balances() {
+        Map<String, Integer> balances = new LinkedHashMap<>();
+        EconomyStore.get().accounts.values().stream()
+                .sorted((a, b) -> a.id.compareTo(b.id))
+                .forEach(account -> balances.put(account.id, account.balanceCopper));
+        return balances;
+    }
+}
@@ -0,0 +1,96 @@
+package com.spacewaltz.decrees.economy;
+
+import com.spacewaltz.decrees.storage.JsonFileStorage;
+import com.spacewaltz.decrees.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Journal replay on load, against JSON files in a temporary directory.
+ */
+class EconomyJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void useTempDir() {
+        Storage.use(new JsonFileStorage(dir));
+        EconomyConfig.load();
+        EconomyStore.load();
+    }
+
+    @Test
+    void replayAfterCrashBetweenCheckpointAndDiscardIsIdempotent() throws IOException {
+        EconomyAccount alice = EconomyService.getOrCreatePlayerAccount(new UUID(0L, 1L));
+        EconomyAccount bob = EconomyService.getOrCreatePlayerAccount(new UUID(0L, 2L));
+        EconomyAccount carol = EconomyService.getOrCreatePlayerAccount(new UUID(0L, 3L));
+        assertTrue(EconomyService.mint(alice, 1000, "start"));
+        assertTrue(EconomyService.transfer(alice, bob, 250, TransactionType.PLAYER_PAYMENT, null));
+        assertTrue(EconomyService.transferBatch(List.of(
+                EconomyService.Leg.transfer(bob, carol, 100, TransactionType.PLAYER_PAYMENT, "split"),
+                EconomyService.Leg.burn(alice, 50, "fee")
+        )) > 0L);
+
+        // Everything so far is in the live journal; the checkpoint is about to cover it.
+        Path journal = dir.resolve("economy.journal");
+        Path prevJournal = dir.resolve("economy.journal.prev");
+        byte[] covered = Files.readAllBytes(journal);
+        EconomyStore.save();
+        assertFalse(Files.exists(prevJournal));
+
+        // A change after the checkpoint, then a crash that left the covered journal behind
+        // as if it had never been discarded.
+        assertTrue(EconomyService.transfer(carol, alice, 30, TransactionType.PLAYER_PAYMENT, null));
+        Files.write(prevJournal, covered);
+
+        Map<String, Long> expected = balances();
+        long expectedCount = EconomyStore.get().transactionCount();
+        long expectedNextId = EconomyStore.get().nextTransactionId;
+
+        EconomyStore.load();
+        assertEquals(expected, balances());
+        assertEquals(expectedCount, EconomyStore.get().transactionCount());
+        assertEquals(expectedNextId, EconomyStore.get().nextTransactionId);
+
+        // Replaying the same files again must not apply anything twice either.
+        EconomyStore.load();
+        assertEquals(expected, balances());
+        assertEquals(expectedCount, EconomyStore.get().transactionCount());
+    }
+
+    @Test
+    void replayStopsAtTornLastLine() throws IOException {
+        EconomyAccount alice = EconomyService.getOrCreatePlayerAccount(new UUID(0L, 1L));
+        assertTrue(EconomyService.mint(alice, 500, null));
+        Map<String, Long> expected = balances();
+
+        Files.writeString(dir.resolve("economy.journal"), "{\"kind\":\"tx\",\"tx\":{\"id\":",
+                StandardOpenOption.APPEND);
+
+        EconomyStore.load();
+        assertEquals(expected, balances());
+    }
+
+    private static Map<String, Long> balances() {
+        Map<String, Long> balances = new LinkedHashMap<>();
+        EconomyStore.get().accounts.values().stream()
+                .sorted((a, b) -> a.id.compareTo(b.id))
+                .forEach(account -> balances.put(account.id, (long) account.balanceCopper));
+        return balances;
+    }
+}
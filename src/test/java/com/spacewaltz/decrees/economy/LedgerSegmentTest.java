@@ -0,0 +1,215 @@
+package com.spacewaltz.decrees.economy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Write/read round trips of {@link LedgerSegment} files, one per format version.
+ * Only version 3 is still written by the mod; older versions are written here by hand
+ * following the layout they were read with.
+ */
+class LedgerSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void version3RoundTrip() throws IOException {
+        List<EconomyTransaction> txs = sample();
+        Path path = dir.resolve("segment-3.dlg");
+        LedgerSegment.write(path, txs);
+
+        LedgerSegment segment = LedgerSegment.open(path);
+        assertEquals(txs.size(), segment.count());
+        assertEquals(txs.get(0).id, segment.firstId);
+        assertEquals(txs.get(txs.size() - 1).id, segment.lastId);
+        for (int i = 0; i < txs.size(); i++) {
+            assertSameRecord(txs.get(i), segment.materialize(i));
+        }
+    }
+
+    @Test
+    void version2RoundTrip() throws IOException {
+        List<EconomyTransaction> txs = sample();
+        Path path = dir.resolve("segment-2.dlg");
+        writeLegacy(path, 2, txs);
+
+        LedgerSegment segment = LedgerSegment.open(path);
+        assertEquals(txs.size(), segment.count());
+        for (int i = 0; i < txs.size(); i++) {
+            EconomyTransaction read = segment.materialize(i);
+            assertNull(read.taxCopper);
+            read.taxCopper = txs.get(i).taxCopper;
+            assertSameRecord(txs.get(i), read);
+        }
+    }
+
+    @Test
+    void version1RoundTrip() throws IOException {
+        List<EconomyTransaction> txs = sample();
+        Path path = dir.resolve("segment-1.dlg");
+        writeLegacy(path, 1, txs);
+
+        LedgerSegment segment = LedgerSegment.open(path);
+        assertEquals(txs.size(), segment.count());
+        for (int i = 0; i < txs.size(); i++) {
+            EconomyTransaction read = segment.materialize(i);
+            assertNull(read.batchId);
+            assertNull(read.taxCopper);
+            read.batchId = txs.get(i).batchId;
+            read.taxCopper = txs.get(i).taxCopper;
+            assertSameRecord(txs.get(i), read);
+        }
+    }
+
+    @Test
+    void lookupsByIdMatchRecords() throws IOException {
+        List<EconomyTransaction> txs = sample();
+        Path path = dir.resolve("segment.dlg");
+        LedgerSegment.write(path, txs);
+
+        LedgerSegment segment = LedgerSegment.open(path);
+        for (int i = 0; i < txs.size(); i++) {
+            assertEquals(i, segment.indexOf(txs.get(i).id));
+            assertEquals(i, segment.countBelow(txs.get(i).id));
+        }
+        assertEquals(LedgerSegment.NONE, segment.indexOf(txs.get(1).id + 1));
+        assertEquals(txs.size(), segment.countBelow(Long.MAX_VALUE));
+    }
+
+    @Test
+    void emptySegmentRoundTrip() throws IOException {
+        Path path = dir.resolve("empty.dlg");
+        LedgerSegment.write(path, List.of());
+
+        LedgerSegment segment = LedgerSegment.open(path);
+        assertEquals(0, segment.count());
+        assertEquals(LedgerSegment.NONE, segment.indexOf(1L));
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedFiles() throws IOException {
+        Path path = dir.resolve("segment.dlg");
+        LedgerSegment.write(path, sample());
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] future = bytes.clone();
+        future[5] = 9;
+        Path futurePath = dir.resolve("future.dlg");
+        Files.write(futurePath, future);
+        assertThrows(IOException.class, () -> LedgerSegment.open(futurePath));
+
+        Path truncatedPath = dir.resolve("truncated.dlg");
+        Files.write(truncatedPath, Arrays.copyOf(bytes, LedgerSegment.HEADER_BYTES + 10));
+        assertThrows(IOException.class, () -> LedgerSegment.open(truncatedPath));
+    }
+
+    /**
+     * Mint, plain payment, taxed payment, burn and a two-leg batch; descriptions repeat and
+     * include null and non-ASCII text.
+     */
+    private static List<EconomyTransaction> sample() {
+        List<EconomyTransaction> txs = new ArrayList<>();
+        txs.add(tx(3L, null, "acc-1", 1000, TransactionType.ADMIN_MINT, "start", null, null));
+        txs.add(tx(4L, "acc-1", "acc-2", 250, TransactionType.PLAYER_PAYMENT, null, null, null));
+        txs.add(tx(7L, "acc-2", "acc-17", 100, TransactionType.PLAYER_PAYMENT, "Zahlung für Öl", null, 5));
+        txs.add(tx(8L, "acc-17", null, 40, TransactionType.ADMIN_BURN, "start", null, null));
+        txs.add(tx(9L, "acc-1", "acc-2", 60, TransactionType.PLAYER_PAYMENT, "split", 9L, 3));
+        txs.add(tx(10L, "acc-1", "acc-123456", 70, TransactionType.PLAYER_PAYMENT, "split", 9L, null));
+        return txs;
+    }
+
+    private static EconomyTransaction tx(long id, String from, String to, int amount, TransactionType type,
+                                         String description, Long batchId, Integer taxCopper) {
+        EconomyTransaction tx = new EconomyTransaction();
+        tx.id = id;
+        tx.timestamp = 1_700_000_000_000L + id * 1000L;
+        tx.fromAccountId = from;
+        tx.toAccountId = to;
+        tx.amountCopper = amount;
+        tx.type = type;
+        tx.description = description;
+        tx.batchId = batchId;
+        tx.taxCopper = taxCopper;
+        return tx;
+    }
+
+    private static void assertSameRecord(EconomyTransaction expected, EconomyTransaction actual) {
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.timestamp, actual.timestamp);
+        assertEquals(expected.fromAccountId, actual.fromAccountId);
+        assertEquals(expected.toAccountId, actual.toAccountId);
+        assertEquals(expected.amountCopper, actual.amountCopper);
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.description, actual.description);
+        assertEquals(expected.batchId, actual.batchId);
+        assertEquals(expected.taxCopper, actual.taxCopper);
+    }
+
+    /**
+     * Version 1: 36-byte records ending after the description index.
+     * Version 2: 44-byte records, with the batch id appended.
+     */
+    private static void writeLegacy(Path path, int version, List<EconomyTransaction> txs) throws IOException {
+        int recordBytes = version == 1 ? 36 : 44;
+        List<String> dictionary = new ArrayList<>();
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        for (EconomyTransaction tx : txs) {
+            int description = LedgerSegment.NONE;
+            if (tx.description != null) {
+                description = dictionary.indexOf(tx.description);
+                if (description < 0) {
+                    dictionary.add(tx.description);
+                    description = dictionary.size() - 1;
+                }
+            }
+            out.writeLong(tx.id);
+            out.writeLong(tx.timestamp);
+            out.writeInt(tx.fromAccountId != null ? EconomyStore.accountOrdinal(tx.fromAccountId) : LedgerSegment.NONE);
+            out.writeInt(tx.toAccountId != null ? EconomyStore.accountOrdinal(tx.toAccountId) : LedgerSegment.NONE);
+            out.writeInt(tx.amountCopper);
+            out.writeShort(tx.type.ordinal());
+            out.writeShort(0);
+            out.writeInt(description);
+            if (version >= 2) {
+                out.writeLong(tx.batchId != null ? tx.batchId : 0L);
+            }
+        }
+        out.flush();
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(file);
+        header.writeInt(LedgerSegment.MAGIC);
+        header.writeShort(version);
+        header.writeShort(recordBytes);
+        header.writeInt(txs.size());
+        header.writeInt(dictionary.size());
+        header.writeLong(txs.get(0).id);
+        header.writeLong(txs.get(txs.size() - 1).id);
+        header.writeLong(LedgerSegment.HEADER_BYTES + (long) txs.size() * recordBytes);
+        records.writeTo(header);
+        for (String description : dictionary) {
+            byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+            header.writeInt(bytes.length);
+            header.write(bytes);
+        }
+        header.flush();
+        Files.write(path, file.toByteArray());
+    }
+}
@@ -0,0 +1,106 @@
+package com.spacewaltz.decrees.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shutdown flushing while a background write is still running.
+ */
+class PersistenceSchedulerTest {
+
+    @Test
+    void flushAllWaitsForInFlightWriteAndRetriesItsFailure() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        PersistenceScheduler.Handle<Integer> handle = PersistenceScheduler.register(
+                "test-" + System.nanoTime(),
+                version::get,
+                snapshot -> {
+                    if (attempts.getAndIncrement() == 0) {
+                        writing.countDown();
+                        await(release);
+                        throw new IOException("disk full");
+                    }
+                    written.add(snapshot);
+                },
+                () -> 1,
+                () -> 3600
+        );
+
+        version.set(1);
+        handle.markDirty();
+        PersistenceScheduler.tick(null);
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+        // The snapshot was handed off, so the store no longer counts as dirty.
+        assertFalse(handle.isDirty());
+
+        Thread stopping = new Thread(PersistenceScheduler::flushAll, "stopping");
+        stopping.start();
+        stopping.join(200);
+        assertTrue(stopping.isAlive(), "flushAll returned while a write was still running");
+
+        release.countDown();
+        stopping.join(10_000);
+        assertFalse(stopping.isAlive());
+
+        // The failed background write was retried before flushAll returned.
+        assertEquals(List.of(1), written);
+        assertFalse(handle.isDirty());
+    }
+
+    @Test
+    void flushAllWaitsForInFlightWriteToFinish() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        PersistenceScheduler.Handle<Integer> handle = PersistenceScheduler.register(
+                "test-" + System.nanoTime(),
+                () -> 7,
+                snapshot -> {
+                    writing.countDown();
+                    await(release);
+                    written.add(snapshot);
+                },
+                () -> 1,
+                () -> 3600
+        );
+
+        handle.markDirty();
+        PersistenceScheduler.tick(null);
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        Thread stopping = new Thread(PersistenceScheduler::flushAll, "stopping");
+        stopping.start();
+        stopping.join(200);
+        assertTrue(stopping.isAlive(), "flushAll returned while a write was still running");
+
+        release.countDown();
+        stopping.join(10_000);
+        assertFalse(stopping.isAlive());
+        assertEquals(List.of(7), written);
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}